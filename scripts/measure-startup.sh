@@ -0,0 +1,51 @@
+#!/bin/sh
+# Compares cold starts of the regular fat jar with the fast-start build. Usage:
+#   ./mvnw package && cp target/synonym-network-api-1.0-SNAPSHOT.jar /tmp/fat.jar
+#   ./mvnw -Pfast-start package && scripts/train-cds.sh
+#   scripts/measure-startup.sh /tmp/fat.jar
+# Each variant is started RUNS times; reported are the median milliseconds from launch until
+# /health answers (the graph is loaded by then) and the median resident set size at that moment.
+set -e
+cd "$(dirname "$0")/.."
+
+FAT_JAR=${1:?usage: measure-startup.sh path/to/fat.jar}
+JAR=${JAR:-target/synonym-network-api-1.0-SNAPSHOT.jar}
+ARCHIVE=${ARCHIVE:-target/app.jsa}
+RUNS=${RUNS:-5}
+PORT=${MEASURE_PORT:-18081}
+
+# prints "<ms> <rss kB>" for one start of the given java arguments
+start_once() {
+  begin=$(date +%s%N)
+  java $JAVA_OPTS -Dserver.port="$PORT" -Dapi.security.key=measure -Dsynonym.updates.log-file= \
+    -Dsynonym.warmup.enabled=false "$@" > /dev/null 2>&1 &
+  pid=$!
+  until curl -sf "http://localhost:$PORT/health" > /dev/null; do
+    kill -0 $pid 2> /dev/null || { echo "application exited during startup" >&2; exit 1; }
+    sleep 0.05
+  done
+  end=$(date +%s%N)
+  rss=$(awk '/VmRSS/ { print $2 }' /proc/$pid/status)
+  kill $pid
+  wait $pid 2> /dev/null || true
+  echo "$(((end - begin) / 1000000)) $rss"
+}
+
+median() {
+  sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'
+}
+
+measure() {
+  label=$1
+  shift
+  results=$(i=0; while [ $i -lt "$RUNS" ]; do start_once "$@"; i=$((i + 1)); done)
+  ms=$(echo "$results" | awk '{ print $1 }' | median)
+  rss=$(echo "$results" | awk '{ print $2 }' | median)
+  printf '%-28s %8s ms %8s MB\n' "$label" "$ms" "$((rss / 1024))"
+}
+
+measure "fat jar" -jar "$FAT_JAR"
+measure "plain jar + AOT + lazy" -Dspring.aot.enabled=true -Dspring.profiles.active=fast-start \
+  -jar "$JAR"
+measure "plain jar + AOT + lazy + CDS" -XX:SharedArchiveFile="$ARCHIVE" \
+  -Dspring.aot.enabled=true -Dspring.profiles.active=fast-start -jar "$JAR"
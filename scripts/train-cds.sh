@@ -0,0 +1,67 @@
+#!/bin/sh
+# Training run for the fast-start build. Starts the plain jar built by
+#   ./mvnw -Pfast-start package
+# with Spring AOT enabled, calls every controller once, and stops it. On exit the JVM writes the
+# classes it loaded to a class-data-sharing archive, which later starts map instead of loading:
+#   java -XX:SharedArchiveFile=target/app.jsa -Dspring.aot.enabled=true \
+#        -Dspring.profiles.active=fast-start -jar target/synonym-network-api-1.0-SNAPSHOT.jar
+# The archive only fits the JDK and jars it was made with, so run this wherever the app will run.
+set -e
+cd "$(dirname "$0")/.."
+
+JAR=${JAR:-target/synonym-network-api-1.0-SNAPSHOT.jar}
+ARCHIVE=${ARCHIVE:-target/app.jsa}
+PORT=${TRAINING_PORT:-18080}
+KEY=training
+BASE=http://localhost:$PORT
+
+rm -f "$ARCHIVE"
+# a throwaway admin key, and no change log so training leaves no trace
+java -XX:ArchiveClassesAtExit="$ARCHIVE" $JAVA_OPTS \
+  -Dspring.aot.enabled=true -Dspring.profiles.active=fast-start \
+  -Dserver.port="$PORT" -Dapi.security.key=$KEY -Dapi.security.admin-keys=default \
+  -Dsynonym.updates.log-file= \
+  -jar "$JAR" &
+PID=$!
+trap 'kill $PID 2>/dev/null' EXIT
+
+tries=0
+until curl -sf "$BASE/health" > /dev/null; do
+  kill -0 $PID || { echo "application exited during startup" >&2; exit 1; }
+  tries=$((tries + 1))
+  [ $tries -lt 600 ] || { echo "application did not start" >&2; exit 1; }
+  sleep 0.2
+done
+
+call() {
+  curl -s -o /dev/null -H "x-api-key: $KEY" "$@"
+}
+call "$BASE/ready"
+call "$BASE/api/graph/definition?word=happy"
+call "$BASE/api/graph/exists?word=happy"
+call "$BASE/api/graph/suggest?prefix=hap"
+call "$BASE/api/graph/did-you-mean?word=hapy"
+call "$BASE/api/graph/neighborhood?word=happy&depth=2"
+call "$BASE/api/graph/stats"
+call -X POST -H "Content-Type: application/json" -d '["happy","glad"]' "$BASE/api/graph/definitions"
+call -X POST -H "Content-Type: application/json" -d '["happy","glad"]' "$BASE/api/graph/synonyms"
+call -X POST -H "Content-Type: application/json" -d '["happy","glad"]' "$BASE/api/graph/statistics"
+call "$BASE/api/path/shortest?word1=happy&word2=sad"
+call "$BASE/api/path/shortest?word1=happy&word2=sad&weighted=true"
+call "$BASE/api/path/level?word1=happy&word2=sad"
+call "$BASE/api/path/synonyms?word1=happy&word2=sad"
+call "$BASE/api/path/connected?word1=happy&word2=sad"
+call "$BASE/api/path/info?word1=happy&word2=sad"
+call -H "Accept: application/vnd.synonym-network.binary" "$BASE/api/path/info?word1=happy&word2=sad"
+call "$BASE/api/generate/random-path?startWord=happy&depth=3"
+call "$BASE/api/generate/pair?level=2"
+call "$BASE/api/admin/graph/status"
+call -X POST "$BASE/api/admin/graph/words?word=training-word"
+call -X POST "$BASE/api/admin/graph/edges?word1=happy&word2=training-word"
+call -X DELETE "$BASE/api/admin/graph/words?word=training-word"
+
+kill $PID
+wait $PID || true
+trap - EXIT
+[ -s "$ARCHIVE" ] || { echo "no archive was written" >&2; exit 1; }
+echo "Wrote $ARCHIVE"
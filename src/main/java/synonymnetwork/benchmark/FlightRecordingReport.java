@@ -0,0 +1,107 @@
+package synonymnetwork.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import jdk.jfr.ValueDescriptor;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Command-line summary of the application's own events in a flight recording, as written on
+ * shutdown or by {@code jcmd <pid> JFR.dump}. Prints the count and duration percentiles of each
+ * event type, then the slowest path searches and other operations with their fields, to see which
+ * queries were behind a latency spike.
+ *
+ * <pre>
+ *   java -cp app.jar synonymnetwork.benchmark.FlightRecordingReport recording.jfr [slowest]
+ * </pre>
+ */
+public class FlightRecordingReport {
+
+  private static final String EVENT_PREFIX = "synonymnetwork.";
+
+  // fields every event has, printed separately or not at all
+  private static final Set<String> COMMON_FIELDS =
+      Set.of("startTime", "duration", "eventThread", "stackTrace");
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("Usage: FlightRecordingReport <recording.jfr> [slowest]");
+      System.exit(2);
+    }
+    Path file = Path.of(args[0]);
+    int slowest = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+    Map<String, List<RecordedEvent>> byType = new TreeMap<>();
+    for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+      String type = event.getEventType().getName();
+      if (type.startsWith(EVENT_PREFIX)) {
+        byType.computeIfAbsent(type, t -> new ArrayList<>()).add(event);
+      }
+    }
+    if (byType.isEmpty()) {
+      System.out.println("No synonym network events in " + file);
+      return;
+    }
+
+    System.out.printf(
+        "%-32s %8s %10s %10s %10s %10s%n",
+        "event", "count", "p50 ms", "p99 ms", "max ms", "total ms");
+    List<RecordedEvent> all = new ArrayList<>();
+    for (Map.Entry<String, List<RecordedEvent>> entry : byType.entrySet()) {
+      List<RecordedEvent> events = entry.getValue();
+      events.sort(Comparator.comparing(RecordedEvent::getDuration));
+      long totalNanos = 0;
+      for (RecordedEvent event : events) totalNanos += event.getDuration().toNanos();
+      System.out.printf(
+          "%-32s %8d %10.2f %10.2f %10.2f %10.2f%n",
+          entry.getKey().substring(EVENT_PREFIX.length()),
+          events.size(),
+          millis(percentile(events, 0.50)),
+          millis(percentile(events, 0.99)),
+          millis(events.get(events.size() - 1).getDuration()),
+          totalNanos / 1e6);
+      all.addAll(events);
+    }
+
+    System.out.println();
+    System.out.printf("Slowest %d:%n", Math.min(slowest, all.size()));
+    all.sort(Comparator.comparing(RecordedEvent::getDuration, Comparator.reverseOrder()));
+    for (RecordedEvent event : all.subList(0, Math.min(slowest, all.size()))) {
+      System.out.printf(
+          "%10.2f ms  %-18s %s%n",
+          millis(event.getDuration()),
+          event.getEventType().getName().substring(EVENT_PREFIX.length()),
+          describe(event));
+    }
+  }
+
+  // the event-specific fields as name=value pairs
+  private static String describe(RecordedEvent event) {
+    StringBuilder fields = new StringBuilder();
+    for (ValueDescriptor field : event.getFields()) {
+      if (COMMON_FIELDS.contains(field.getName())) continue;
+      if (fields.length() > 0) fields.append(' ');
+      Object value = event.getValue(field.getName());
+      fields.append(field.getName()).append('=').append(value);
+    }
+    return fields.toString();
+  }
+
+  // nearest-rank percentile of events sorted by duration
+  private static Duration percentile(List<RecordedEvent> sorted, double p) {
+    int rank = (int) Math.ceil(p * sorted.size());
+    return sorted.get(Math.max(0, rank - 1)).getDuration();
+  }
+
+  private static double millis(Duration duration) {
+    return duration.toNanos() / 1e6;
+  }
+}
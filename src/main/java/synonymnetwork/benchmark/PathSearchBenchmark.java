@@ -0,0 +1,104 @@
+package synonymnetwork.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import synonymnetwork.domain.Adjacency;
+import synonymnetwork.domain.AdjacencyFormat;
+import synonymnetwork.domain.BitsetPathSearch;
+import synonymnetwork.domain.BreadthFirstPathSearch;
+import synonymnetwork.domain.DirectionOptimizingPathSearch;
+import synonymnetwork.domain.PathSearch;
+import synonymnetwork.domain.SymbolGraphMemoryEfficient;
+import synonymnetwork.domain.VertexOrdering;
+
+/**
+ * Command-line benchmark comparing the sequential {@link BreadthFirstPathSearch} and {@link
+ * BitsetPathSearch} with the {@link DirectionOptimizingPathSearch} at several thread counts. Every
+ * engine answers the same random vertex pairs, and the benchmark fails if any engine reports a
+ * different path length.
+ *
+ * <pre>
+ *   java -cp app.jar synonymnetwork.benchmark.PathSearchBenchmark [thesaurus] [queries] [threads,...]
+ * </pre>
+ */
+public class PathSearchBenchmark {
+
+  private static final int WARMUP_ROUNDS = 3;
+
+  public static void main(String[] args) {
+    String filename = args.length > 0 ? args[0] : "src/main/resources/synonyms.txt";
+    int queries = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+    int[] threadCounts =
+        args.length > 2
+            ? Arrays.stream(args[2].split(",")).mapToInt(Integer::parseInt).toArray()
+            : new int[] {1, 2, 4, 8};
+
+    Adjacency adjacency =
+        new SymbolGraphMemoryEfficient(filename, ",", VertexOrdering.FILE, AdjacencyFormat.PACKED)
+            .adjacency();
+    int[][] pairs = samplePairs(adjacency.V(), queries);
+    int[] expected = new int[queries];
+    for (int i = 0; i < queries; i++) {
+      expected[i] =
+          length(BreadthFirstPathSearch.shortestPath(adjacency, pairs[i][0], pairs[i][1]));
+    }
+
+    System.out.printf("%d vertices, %d edges%n", adjacency.V(), adjacency.E());
+    System.out.printf("%-22s %10s %10s %10s%n", "engine", "mean us", "p50 us", "p99 us");
+    report("sequential", BreadthFirstPathSearch::shortestPath, adjacency, pairs, expected);
+    report("bitset", BitsetPathSearch::shortestPath, adjacency, pairs, expected);
+    for (int threads : threadCounts) {
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      try {
+        report(
+            "direction-opt x" + threads,
+            new DirectionOptimizingPathSearch(pool),
+            adjacency,
+            pairs,
+            expected);
+      } finally {
+        pool.shutdown();
+      }
+    }
+  }
+
+  private static void report(
+      String name, PathSearch search, Adjacency adjacency, int[][] pairs, int[] expected) {
+    for (int round = 0; round < WARMUP_ROUNDS; round++) run(search, adjacency, pairs, expected);
+    long[] nanos = run(search, adjacency, pairs, expected);
+    Arrays.sort(nanos);
+    System.out.printf(
+        "%-22s %10.1f %10.1f %10.1f%n",
+        name,
+        Arrays.stream(nanos).average().orElse(0) / 1000.0,
+        nanos[nanos.length / 2] / 1000.0,
+        nanos[(int) (nanos.length * 0.99)] / 1000.0);
+  }
+
+  // fixed seed so runs are repeatable
+  private static int[][] samplePairs(int V, int count) {
+    Random random = new Random(42);
+    int[][] pairs = new int[count][];
+    for (int i = 0; i < count; i++) pairs[i] = new int[] {random.nextInt(V), random.nextInt(V)};
+    return pairs;
+  }
+
+  private static long[] run(PathSearch search, Adjacency adjacency, int[][] pairs, int[] expected) {
+    long[] nanos = new long[pairs.length];
+    for (int i = 0; i < pairs.length; i++) {
+      long start = System.nanoTime();
+      int[] path = search.shortestPath(adjacency, pairs[i][0], pairs[i][1]);
+      nanos[i] = System.nanoTime() - start;
+      if (length(path) != expected[i]) {
+        throw new IllegalStateException(
+            "Path length mismatch for " + Arrays.toString(pairs[i]) + ": " + length(path));
+      }
+    }
+    return nanos;
+  }
+
+  private static int length(int[] path) {
+    return path == null ? -1 : path.length;
+  }
+}
@@ -0,0 +1,134 @@
+package synonymnetwork.benchmark;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import synonymnetwork.domain.Adjacency;
+import synonymnetwork.domain.AdjacencyFormat;
+import synonymnetwork.domain.BreadthFirstPathSearch;
+import synonymnetwork.domain.GraphPartition;
+import synonymnetwork.domain.PathSearch;
+import synonymnetwork.domain.ShardTransport;
+import synonymnetwork.domain.ShardedPathSearch;
+import synonymnetwork.domain.SymbolGraphMemoryEfficient;
+import synonymnetwork.domain.VertexOrdering;
+import synonymnetwork.service.HttpShardTransport;
+
+/**
+ * Command-line benchmark of {@link ShardedPathSearch} against the single-node {@link
+ * BreadthFirstPathSearch}: latency per query, and the messages, frontier vertices and returned
+ * pairs a sharded query costs. The shards are either partitions held in this process, which
+ * measures the algorithm without the network, or running instances of the application given by URL,
+ * each started with synonym.shard.index and synonym.shard.count, the default FILE vertex order and
+ * the same thesaurus. The benchmark fails if the sharded search reports a different path length.
+ *
+ * <pre>
+ *   java -cp app.jar synonymnetwork.benchmark.ShardedSearchBenchmark [thesaurus] [queries] \
+ *       [shard count | http://localhost:8081,http://localhost:8082] [api key]
+ * </pre>
+ */
+public class ShardedSearchBenchmark {
+
+  private static final int WARMUP_ROUNDS = 3;
+
+  public static void main(String[] args) {
+    String filename = args.length > 0 ? args[0] : "src/main/resources/synonyms.txt";
+    int queries = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+    String shardArg = args.length > 2 ? args[2] : "4";
+    String apiKey = args.length > 3 ? args[3] : "";
+
+    Adjacency adjacency =
+        new SymbolGraphMemoryEfficient(filename, ",", VertexOrdering.FILE, AdjacencyFormat.PACKED)
+            .adjacency();
+    int[][] pairs = samplePairs(adjacency.V(), queries);
+    int[] expected = new int[queries];
+    for (int i = 0; i < queries; i++) {
+      expected[i] =
+          length(BreadthFirstPathSearch.shortestPath(adjacency, pairs[i][0], pairs[i][1]));
+    }
+
+    ShardedPathSearch sharded;
+    String mode;
+    if (shardArg.contains("://")) {
+      List<String> urls = Arrays.stream(shardArg.split(",")).map(String::trim).toList();
+      sharded =
+          new ShardedPathSearch(
+              urls.size(),
+              new HttpShardTransport(urls, apiKey, Duration.ofSeconds(10), () -> null));
+      mode = urls.size() + " HTTP shards";
+    } else {
+      int shards = Integer.parseInt(shardArg);
+      sharded = new ShardedPathSearch(shards, inProcess(adjacency, shards));
+      mode = shards + " in-process shards";
+    }
+
+    System.out.printf("%d vertices, %d edges, %s%n", adjacency.V(), adjacency.E(), mode);
+    System.out.printf(
+        "%-14s %10s %10s %10s %10s %12s %12s%n",
+        "engine", "mean us", "p50 us", "p99 us", "msgs/query", "sent/query", "pairs/query");
+    report("single-node", BreadthFirstPathSearch::shortestPath, null, adjacency, pairs, expected);
+    report("sharded", sharded, sharded, adjacency, pairs, expected);
+  }
+
+  // partitions answering directly, as the shards' endpoint would
+  private static ShardTransport inProcess(Adjacency adjacency, int shards) {
+    GraphPartition[] partitions = new GraphPartition[shards];
+    for (int shard = 0; shard < shards; shard++) {
+      partitions[shard] = GraphPartition.of(adjacency, shard, shards);
+    }
+    return (shard, frontier) ->
+        CompletableFuture.completedFuture(partitions[shard].expand(frontier));
+  }
+
+  private static void report(
+      String name,
+      PathSearch search,
+      ShardedPathSearch counted,
+      Adjacency adjacency,
+      int[][] pairs,
+      int[] expected) {
+    for (int round = 0; round < WARMUP_ROUNDS; round++) run(search, adjacency, pairs, expected);
+    long messages = counted == null ? 0 : counted.messageCount();
+    long sent = counted == null ? 0 : counted.verticesSent();
+    long received = counted == null ? 0 : counted.pairsReceived();
+    long[] nanos = run(search, adjacency, pairs, expected);
+    Arrays.sort(nanos);
+    System.out.printf(
+        "%-14s %10.1f %10.1f %10.1f %10.1f %12.1f %12.1f%n",
+        name,
+        Arrays.stream(nanos).average().orElse(0) / 1000.0,
+        nanos[nanos.length / 2] / 1000.0,
+        nanos[(int) (nanos.length * 0.99)] / 1000.0,
+        counted == null ? 0.0 : (double) (counted.messageCount() - messages) / pairs.length,
+        counted == null ? 0.0 : (double) (counted.verticesSent() - sent) / pairs.length,
+        counted == null ? 0.0 : (double) (counted.pairsReceived() - received) / pairs.length);
+  }
+
+  // fixed seed so runs are repeatable
+  private static int[][] samplePairs(int V, int count) {
+    Random random = new Random(42);
+    int[][] pairs = new int[count][];
+    for (int i = 0; i < count; i++) pairs[i] = new int[] {random.nextInt(V), random.nextInt(V)};
+    return pairs;
+  }
+
+  private static long[] run(PathSearch search, Adjacency adjacency, int[][] pairs, int[] expected) {
+    long[] nanos = new long[pairs.length];
+    for (int i = 0; i < pairs.length; i++) {
+      long start = System.nanoTime();
+      int[] path = search.shortestPath(adjacency, pairs[i][0], pairs[i][1]);
+      nanos[i] = System.nanoTime() - start;
+      if (length(path) != expected[i]) {
+        throw new IllegalStateException(
+            "Path length mismatch for " + Arrays.toString(pairs[i]) + ": " + length(path));
+      }
+    }
+    return nanos;
+  }
+
+  private static int length(int[] path) {
+    return path == null ? -1 : path.length;
+  }
+}
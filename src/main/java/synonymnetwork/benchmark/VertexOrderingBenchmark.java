@@ -0,0 +1,81 @@
+package synonymnetwork.benchmark;
+
+import edu.princeton.cs.algs4.BreadthFirstPaths;
+import edu.princeton.cs.algs4.Graph;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import synonymnetwork.domain.SymbolGraphMemoryEfficient;
+import synonymnetwork.domain.VertexOrdering;
+
+/**
+ * Command-line benchmark comparing findPath latency under each {@link VertexOrdering}. Every
+ * ordering answers the same word pairs, chosen by name so they are comparable across numberings,
+ * with the same breadth-first search that SynonymGraph.findPath runs.
+ *
+ * <pre>
+ *   java -cp app.jar synonymnetwork.benchmark.VertexOrderingBenchmark [thesaurus] [queries]
+ * </pre>
+ */
+public class VertexOrderingBenchmark {
+
+  private static final int WARMUP_ROUNDS = 3;
+
+  public static void main(String[] args) {
+    String filename = args.length > 0 ? args[0] : "src/main/resources/synonyms.txt";
+    int queries = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+    List<String[]> pairs = samplePairs(new SymbolGraphMemoryEfficient(filename, ","), queries);
+
+    System.out.printf(
+        "%-8s %10s %10s %10s %10s%n", "order", "build ms", "mean us", "p50 us", "p99 us");
+    for (VertexOrdering ordering : VertexOrdering.values()) {
+      long buildStart = System.nanoTime();
+      SymbolGraphMemoryEfficient sg = new SymbolGraphMemoryEfficient(filename, ",", ordering);
+      long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+      for (int round = 0; round < WARMUP_ROUNDS; round++) run(sg, pairs);
+      long[] nanos = run(sg, pairs);
+      Arrays.sort(nanos);
+
+      System.out.printf(
+          "%-8s %10d %10.1f %10.1f %10.1f%n",
+          ordering,
+          buildMillis,
+          Arrays.stream(nanos).average().orElse(0) / 1000.0,
+          nanos[nanos.length / 2] / 1000.0,
+          nanos[(int) (nanos.length * 0.99)] / 1000.0);
+    }
+  }
+
+  // the same random word pairs for every ordering, fixed seed so runs are repeatable
+  private static List<String[]> samplePairs(SymbolGraphMemoryEfficient sg, int count) {
+    Random random = new Random(42);
+    int V = sg.graph().V();
+    List<String[]> pairs = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      pairs.add(new String[] {sg.nameOf(random.nextInt(V)), sg.nameOf(random.nextInt(V))});
+    }
+    return pairs;
+  }
+
+  private static long[] run(SymbolGraphMemoryEfficient sg, List<String[]> pairs) {
+    Graph graph = sg.graph();
+    long[] nanos = new long[pairs.size()];
+    long checksum = 0;
+    for (int i = 0; i < nanos.length; i++) {
+      long start = System.nanoTime();
+      int s = sg.indexOf(pairs.get(i)[0]);
+      int t = sg.indexOf(pairs.get(i)[1]);
+      BreadthFirstPaths bfs = new BreadthFirstPaths(graph, s);
+      if (bfs.hasPathTo(t)) {
+        for (int v : bfs.pathTo(t)) checksum += sg.nameOf(v).length();
+      }
+      nanos[i] = System.nanoTime() - start;
+    }
+    // keeps the JIT from discarding the path reconstruction
+    if (checksum == 42) System.out.print("");
+    return nanos;
+  }
+}
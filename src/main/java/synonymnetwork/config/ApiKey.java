@@ -0,0 +1,75 @@
+package synonymnetwork.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+
+/**
+ * One accepted API key: its SHA-256 hash, its rate limiter and its usage counters. The security
+ * context is built once here and reused for every request made with the key, so verifying a request
+ * allocates no authentication objects. Every key has the role API_CLIENT; admin keys also have
+ * ADMIN, which the graph update endpoints require.
+ */
+public class ApiKey {
+  private final String name;
+  private final byte[] hash;
+  private final TokenBucket rateLimit; // null when the key is not rate limited
+  private final SecurityContext securityContext;
+  private final Counter accepted;
+  private final Counter throttled;
+
+  public ApiKey(
+      String name, byte[] hash, TokenBucket rateLimit, boolean admin, MeterRegistry meterRegistry) {
+    this.name = name;
+    this.hash = hash;
+    this.rateLimit = rateLimit;
+    List<SimpleGrantedAuthority> roles =
+        admin
+            ? List.of(
+                new SimpleGrantedAuthority("ROLE_API_CLIENT"),
+                new SimpleGrantedAuthority("ROLE_ADMIN"))
+            : List.of(new SimpleGrantedAuthority("ROLE_API_CLIENT"));
+    PreAuthenticatedAuthenticationToken authentication =
+        new PreAuthenticatedAuthenticationToken(name, "N/A", roles);
+    this.securityContext = new SecurityContextImpl(authentication);
+    this.accepted =
+        Counter.builder("synonym.auth.requests")
+            .description("Requests presenting a valid API key")
+            .tag("key", name)
+            .tag("outcome", "accepted")
+            .register(meterRegistry);
+    this.throttled =
+        Counter.builder("synonym.auth.requests")
+            .description("Requests presenting a valid API key")
+            .tag("key", name)
+            .tag("outcome", "throttled")
+            .register(meterRegistry);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  byte[] hash() {
+    return hash;
+  }
+
+  SecurityContext securityContext() {
+    return securityContext;
+  }
+
+  /**
+   * Records a request made with this key and applies its rate limit.
+   *
+   * @return 0 if the request may proceed, otherwise the nanoseconds until it would be admitted
+   */
+  long admit() {
+    long wait = rateLimit == null ? 0 : rateLimit.tryAcquire();
+    (wait == 0 ? accepted : throttled).increment();
+    return wait;
+  }
+}
@@ -1,25 +1,94 @@
 package synonymnetwork.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.security.web.authentication.preauth.AbstractPreAuthenticatedProcessingFilter;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
 
-public class ApiKeyAuthFilter extends AbstractPreAuthenticatedProcessingFilter {
+/**
+ * Verifies the API key header against a fixed set of hashed keys. The presented key is hashed with
+ * SHA-256 and compared with every configured hash in constant time, so neither the match position
+ * nor the number of matching bytes shows in the timing. A matching request runs with the key's
+ * prebuilt security context and is subject to the key's rate limit (429 with Retry-After when
+ * exceeded); a missing or unknown key continues unauthenticated and is rejected by the
+ * authorization rules.
+ */
+public class ApiKeyAuthFilter extends OncePerRequestFilter {
 
   private final String principalRequestHeader;
+  private final List<ApiKey> keys;
+  private final Counter rejected;
 
-  public ApiKeyAuthFilter(String principalRequestHeader) {
+  public ApiKeyAuthFilter(
+      String principalRequestHeader, List<ApiKey> keys, MeterRegistry meterRegistry) {
     this.principalRequestHeader = principalRequestHeader;
+    this.keys = List.copyOf(keys);
+    this.rejected =
+        Counter.builder("synonym.auth.rejected")
+            .description("Requests presenting an unknown API key")
+            .register(meterRegistry);
   }
 
-  @Override
-  protected Object getPreAuthenticatedPrincipal(HttpServletRequest request) {
-    // Get the API Key from the 'x-api-key' header
-    return request.getHeader(principalRequestHeader);
+  /**
+   * Hashes a raw API key the way presented keys are hashed.
+   *
+   * @param key the key as sent in the header
+   * @return the SHA-256 digest of its UTF-8 bytes
+   */
+  public static byte[] hash(String key) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
   }
 
   @Override
-  protected Object getPreAuthenticatedCredentials(HttpServletRequest request) {
-    // No credentials needed, we only use the principal (the API key)
-    return "N/A";
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String presented = request.getHeader(principalRequestHeader);
+    ApiKey key = presented == null ? null : find(hash(presented));
+    if (key == null) {
+      if (presented != null) rejected.increment();
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    long waitNanos = key.admit();
+    if (waitNanos > 0) {
+      long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+      response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+      response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+      return;
+    }
+
+    SecurityContextHolder.setContext(key.securityContext());
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      SecurityContextHolder.clearContext();
+    }
+  }
+
+  // checks every key, without stopping at a match, so the time taken does not depend on which
+  private ApiKey find(byte[] presentedHash) {
+    ApiKey match = null;
+    for (ApiKey key : keys) {
+      if (MessageDigest.isEqual(key.hash(), presentedHash)) match = key;
+    }
+    return match;
   }
 }
@@ -0,0 +1,86 @@
+package synonymnetwork.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import synonymnetwork.service.AdaptiveConcurrencyLimiter;
+
+/**
+ * Sheds load on the expensive path and generation endpoints. Requests over the adaptive concurrency
+ * limit are answered with 503 and Retry-After at once, before any search runs, so a saturated
+ * instance stays responsive for cheap lookups such as /exists and /definition, which are not
+ * limited.
+ */
+@Component
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+  private static final String START_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName();
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Value("${synonym.limiter.initial-limit:20}")
+  private int initialLimit;
+
+  @Value("${synonym.limiter.min-limit:2}")
+  private int minLimit;
+
+  @Value("${synonym.limiter.max-limit:200}")
+  private int maxLimit;
+
+  // Requests slower than this shrink the limit
+  @Value("${synonym.limiter.latency-threshold-ms:500}")
+  private long latencyThresholdMillis;
+
+  private AdaptiveConcurrencyLimiter limiter;
+
+  /** Creates the limiter and registers its limit, usage and rejections as metrics. */
+  @PostConstruct
+  public void initialize() {
+    limiter =
+        new AdaptiveConcurrencyLimiter(
+            initialLimit,
+            minLimit,
+            maxLimit,
+            TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis));
+    Gauge.builder("synonym.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+        .description("Concurrent expensive requests currently allowed")
+        .register(meterRegistry);
+    Gauge.builder("synonym.limiter.inflight", limiter, AdaptiveConcurrencyLimiter::inFlightCount)
+        .description("Expensive requests currently being served")
+        .register(meterRegistry);
+    FunctionCounter.builder(
+            "synonym.limiter.rejected", limiter, AdaptiveConcurrencyLimiter::rejectedCount)
+        .description("Expensive requests refused because the limit was reached")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public boolean preHandle(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (!limiter.tryAcquire()) {
+      response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+      response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+      return false;
+    }
+    request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(
+      HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    Object start = request.getAttribute(START_ATTRIBUTE);
+    if (start != null) {
+      limiter.release(System.nanoTime() - (Long) start);
+    }
+  }
+}
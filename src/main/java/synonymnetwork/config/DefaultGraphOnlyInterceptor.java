@@ -0,0 +1,25 @@
+package synonymnetwork.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+import synonymnetwork.service.GraphRegistry;
+
+/**
+ * Answers 400 to requests that name a graph other than the default on endpoints that only serve the
+ * default one, which would otherwise ignore the parameter and answer from the wrong thesaurus.
+ * WebConfig registers it everywhere except the endpoints that take a graph parameter.
+ */
+public class DefaultGraphOnlyInterceptor implements HandlerInterceptor {
+
+  @Override
+  public boolean preHandle(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (GraphRegistry.isDefault(request.getParameter("graph"))) {
+      return true;
+    }
+    response.setStatus(HttpStatus.BAD_REQUEST.value());
+    return false;
+  }
+}
@@ -0,0 +1,29 @@
+package synonymnetwork.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import synonymnetwork.service.GraphService;
+import synonymnetwork.service.GraphUpdateService;
+import synonymnetwork.service.ShardService;
+
+/**
+ * Keeps the beans whose work belongs to startup eager when lazy initialization is on, as it is in
+ * the fast-start profile. The graph must be loaded and the change log replayed before the first
+ * request rather than during it, a flight recording has to cover startup, and a sharding
+ * coordinator must install its search although nothing on it injects the shard service; every other
+ * bean is created on first use, and the background services when the application-ready event
+ * reaches them.
+ */
+@Configuration
+public class FastStartConfig {
+
+  @Bean
+  static LazyInitializationExcludeFilter eagerStartupServices() {
+    return LazyInitializationExcludeFilter.forBeanTypes(
+        GraphService.class,
+        GraphUpdateService.class,
+        FlightRecorderConfig.class,
+        ShardService.class);
+  }
+}
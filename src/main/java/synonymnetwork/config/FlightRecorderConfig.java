@@ -0,0 +1,112 @@
+package synonymnetwork.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Keeps a Java Flight Recorder recording running for the life of the application, when enabled. The
+ * recording uses the JDK's low-overhead "default" settings plus the application's own events (graph
+ * build phases, path searches, word generation and definition lookups), each recorded only when
+ * slower than its configured threshold. The recording can be dumped at any time with {@code jcmd
+ * <pid> JFR.dump name=synonym-network} and is written to the configured file on shutdown; summarize
+ * a dump with {@link synonymnetwork.benchmark.FlightRecordingReport}.
+ */
+@Configuration
+public class FlightRecorderConfig {
+  private static final Logger log = LoggerFactory.getLogger(FlightRecorderConfig.class);
+
+  private static final String RECORDING_NAME = "synonym-network";
+
+  private Recording recording;
+
+  @Value("${synonym.jfr.enabled:false}")
+  private boolean enabled;
+
+  // Written when the application stops; empty keeps the recording in memory and the repository only
+  @Value("${synonym.jfr.file:synonym-network.jfr}")
+  private String file;
+
+  // How much history the recording keeps
+  @Value("${synonym.jfr.max-age-minutes:60}")
+  private long maxAgeMinutes;
+
+  @Value("${synonym.jfr.max-size-mb:100}")
+  private long maxSizeMb;
+
+  // Only operations slower than these are recorded
+  @Value("${synonym.jfr.path-threshold-ms:20}")
+  private long pathThresholdMs;
+
+  @Value("${synonym.jfr.generation-threshold-ms:20}")
+  private long generationThresholdMs;
+
+  @Value("${synonym.jfr.definition-threshold-ms:5}")
+  private long definitionThresholdMs;
+
+  /** Starts the recording if enabled. A recording that cannot be set up is logged and skipped. */
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    jdk.jfr.Configuration settings;
+    try {
+      settings = jdk.jfr.Configuration.getConfiguration("default");
+    } catch (IOException | ParseException e) {
+      log.warn("Flight recording not started: {}", e.getMessage());
+      return;
+    }
+    Recording recording = new Recording(settings);
+    recording.setName(RECORDING_NAME);
+    recording.setToDisk(true);
+    recording.setMaxAge(Duration.ofMinutes(maxAgeMinutes));
+    recording.setMaxSize(maxSizeMb * 1024 * 1024);
+    recording.enable("synonymnetwork.GraphBuild").withThreshold(Duration.ZERO);
+    recording.enable("synonymnetwork.PathSearch").withThreshold(Duration.ofMillis(pathThresholdMs));
+    recording
+        .enable("synonymnetwork.WordGeneration")
+        .withThreshold(Duration.ofMillis(generationThresholdMs));
+    recording
+        .enable("synonymnetwork.DefinitionLookup")
+        .withThreshold(Duration.ofMillis(definitionThresholdMs));
+    try {
+      if (!file.isBlank()) {
+        recording.setDestination(Path.of(file));
+      }
+    } catch (IOException e) {
+      log.warn("Flight recording will not be written to {}: {}", file, e.getMessage());
+    }
+    recording.start();
+    this.recording = recording;
+    log.info(
+        "Flight recording '{}' started; path searches over {} ms are recorded",
+        RECORDING_NAME,
+        pathThresholdMs);
+  }
+
+  /** Stops the recording, which writes it to the configured file. */
+  @PreDestroy
+  public void stop() {
+    if (recording == null) {
+      return;
+    }
+    // the JVM's own shutdown hook may have stopped and written it already
+    if (recording.getState() == RecordingState.RUNNING) {
+      recording.stop();
+    }
+    recording.close();
+    if (!file.isBlank()) {
+      log.info("Flight recording written to {}", file);
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package synonymnetwork.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import synonymnetwork.domain.PathSearchEngine;
+import synonymnetwork.service.GraphRegistry;
+import synonymnetwork.service.GraphService;
+
+/**
+ * Adds HTTP validators to read-only graph responses. Their content depends only on the request and
+ * the loaded graph, so the graph version serves as a strong ETag, suffixed for the binary
+ * representation so that JSON and binary never share a validator. The ETag is weak when the path
+ * engine may pick a different one of several shortest paths for the same version. A conditional GET
+ * whose {@code If-None-Match} matches is answered with 304 here, before the controller does any
+ * graph work.
+ *
+ * <p>Responses are marked private, so only the client that presented the key may cache them, and by
+ * default no-cache: the graph can change at runtime, so a client revalidates every reuse, which
+ * costs a 304 while the version is unchanged.
+ */
+@Component
+public class GraphVersionCacheInterceptor implements HandlerInterceptor {
+
+  @Autowired private GraphService graphService;
+
+  // How long a client may reuse a response without revalidating; 0 revalidates every time
+  @Value("${synonym.http.cache.max-age:0}")
+  private long maxAgeSeconds;
+
+  @Value("${synonym.path.engine:SEQUENTIAL}")
+  private PathSearchEngine pathSearchEngine;
+
+  @Override
+  public boolean preHandle(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    String version = graphService.getGraphVersion();
+    // the version is the default graph's; named graphs are loaded on demand and not versioned
+    if (version == null
+        || !"GET".equals(request.getMethod())
+        || !GraphRegistry.isDefault(request.getParameter("graph"))) {
+      return true;
+    }
+    // private: every response was authorized by an API key, which a shared cache would not check
+    response.setHeader(
+        HttpHeaders.CACHE_CONTROL,
+        maxAgeSeconds > 0 ? "private, max-age=" + maxAgeSeconds : "private, no-cache");
+    // the same URL can be served as JSON or binary, which share the version but not the bytes
+    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    // sets the ETag header, and the 304 status when the client's copy is current
+    String etag = "\"" + version + (prefersBinary(request) ? "-bin" : "") + "\"";
+    if (!pathSearchEngine.isDeterministic()) etag = "W/" + etag;
+    return !new ServletWebRequest(request, response).checkNotModified(etag);
+  }
+
+  // whether content negotiation will answer in the binary format: only when the client rates it
+  // above JSON, which is the default for wildcards and ties
+  private static boolean prefersBinary(HttpServletRequest request) {
+    String accept = request.getHeader(HttpHeaders.ACCEPT);
+    if (accept == null || !accept.contains(SynonymBinaryMessageConverter.BINARY.getSubtype())) {
+      return false;
+    }
+    double json = 0;
+    double binary = 0;
+    try {
+      for (MediaType type : MediaType.parseMediaTypes(accept)) {
+        if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+          json = Math.max(json, type.getQualityValue());
+        }
+        if (type.isCompatibleWith(SynonymBinaryMessageConverter.BINARY)) {
+          binary = Math.max(binary, type.getQualityValue());
+        }
+      }
+    } catch (InvalidMediaTypeException e) {
+      return false;
+    }
+    return binary > json;
+  }
+}
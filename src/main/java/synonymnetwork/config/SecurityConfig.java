@@ -1,11 +1,15 @@
 package synonymnetwork.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -19,23 +23,30 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 @EnableWebSecurity
 public class SecurityConfig {
 
-  @Value("${api.security.key}")
+  @Value("${api.security.key:}")
   private String principalRequestValue;
 
+  // Further keys as name:sha256-hex entries, so the raw keys never sit in configuration
+  @Value("${api.security.keys:}")
+  private List<String> hashedKeys;
+
+  // Sustained requests per second allowed for each key; 0 disables rate limiting
+  @Value("${api.security.rate-limit.per-second:0}")
+  private double rateLimitPerSecond;
+
+  @Value("${api.security.rate-limit.burst:50}")
+  private int rateLimitBurst;
+
+  // Names of the keys allowed to change the graph through /api/admin; none by default
+  @Value("${api.security.admin-keys:}")
+  private List<String> adminKeys;
+
+  @Autowired private MeterRegistry meterRegistry;
+
   @Bean
   public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
     // Create an instance of our custom API Key filter
-    ApiKeyAuthFilter filter = new ApiKeyAuthFilter("x-api-key");
-    filter.setAuthenticationManager(
-        authentication -> {
-          String principal = (String) authentication.getPrincipal();
-          // Compare the key from the header with the one from properties
-          if (!principalRequestValue.equals(principal)) {
-            throw new BadCredentialsException("The API Key was not found or is invalid.");
-          }
-          authentication.setAuthenticated(true);
-          return authentication;
-        });
+    ApiKeyAuthFilter filter = new ApiKeyAuthFilter("x-api-key", apiKeys(), meterRegistry);
 
     // This is the main security configuration using the new lambda DSL
     http
@@ -50,8 +61,16 @@ public class SecurityConfig {
             filter, UsernamePasswordAuthenticationFilter.class) // Add our custom filter
         .authorizeHttpRequests(
             auth ->
-                auth.requestMatchers("/health")
+                // the dispatch that finishes a stream belongs to a request authorized already
+                auth.dispatcherTypeMatchers(DispatcherType.ASYNC)
                     .permitAll()
+                    .requestMatchers("/health", "/actuator/health", "/actuator/health/**")
+                    .permitAll()
+                    .requestMatchers("/api/admin/**")
+                    .hasRole("ADMIN")
+                    // metrics carry key names and the limiter, store and shard counters
+                    .requestMatchers("/actuator/**")
+                    .hasRole("ADMIN")
                     .requestMatchers("/api/**")
                     .authenticated() // Secure all API endpoints
                     .anyRequest()
@@ -61,6 +80,30 @@ public class SecurityConfig {
     return http.build();
   }
 
+  private List<ApiKey> apiKeys() {
+    List<ApiKey> keys = new ArrayList<>();
+    if (!principalRequestValue.isEmpty()) {
+      keys.add(apiKey("default", ApiKeyAuthFilter.hash(principalRequestValue)));
+    }
+    for (String entry : hashedKeys) {
+      int colon = entry.indexOf(':');
+      if (colon < 1) {
+        throw new IllegalArgumentException("api.security.keys entries must be name:sha256-hex");
+      }
+      keys.add(
+          apiKey(
+              entry.substring(0, colon).trim(),
+              HexFormat.of().parseHex(entry.substring(colon + 1).trim())));
+    }
+    return keys;
+  }
+
+  private ApiKey apiKey(String name, byte[] hash) {
+    TokenBucket rateLimit =
+        rateLimitPerSecond > 0 ? new TokenBucket(rateLimitPerSecond, rateLimitBurst) : null;
+    return new ApiKey(name, hash, rateLimit, adminKeys.contains(name), meterRegistry);
+  }
+
   /**
    * This Bean defines the CORS policy for your application. It configures which origins, methods,
    * and headers are allowed.
@@ -0,0 +1,21 @@
+package synonymnetwork.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Answers 404 on a shard without peers, which loads only its own rows of the graph (see
+ * ShardService) and so has no words, paths or definitions to answer from. WebConfig registers it on
+ * every endpoint except the shard's own.
+ */
+public class ShardOnlyInterceptor implements HandlerInterceptor {
+
+  @Override
+  public boolean preHandle(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    response.setStatus(HttpStatus.NOT_FOUND.value());
+    return false;
+  }
+}
@@ -0,0 +1,40 @@
+package synonymnetwork.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.function.BooleanSupplier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Answers requests with 503 and Retry-After while the startup stage they depend on is still
+ * loading, so each group of endpoints comes online as soon as its own data is ready instead of
+ * waiting for the whole application. WebConfig registers one per stage.
+ */
+public class StartupStageInterceptor implements HandlerInterceptor {
+  // Seconds a client should wait before retrying; stages take a few seconds on the bundled files
+  private static final String RETRY_AFTER_SECONDS = "2";
+
+  private final BooleanSupplier ready;
+
+  /**
+   * Creates an interceptor for one stage.
+   *
+   * @param ready tells whether the stage has finished
+   */
+  public StartupStageInterceptor(BooleanSupplier ready) {
+    this.ready = ready;
+  }
+
+  @Override
+  public boolean preHandle(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (ready.getAsBoolean()) {
+      return true;
+    }
+    response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+    return false;
+  }
+}
@@ -0,0 +1,205 @@
+package synonymnetwork.config;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import synonymnetwork.service.PathFindingService.PathInfo;
+
+/**
+ * Writes path responses in a compact binary form for clients that send {@code Accept:
+ * application/vnd.synonym-network.binary}. Every distinct string (words and definitions) is sent
+ * once in a string table and referred to by index everywhere else, so the words of a path, which
+ * also appear as synonym keys and definition keys, cost one or two bytes after the first time.
+ *
+ * <p>All integers are unsigned LEB128 varints; strings are a varint byte length followed by UTF-8.
+ *
+ * <pre>
+ *   header      'S' 'N' version(1) kind   kind 1 = path info, 2 = path synonyms
+ *   strings     count, then each string
+ *   path info   connectionLevel + 1, path (count, indices), synonyms, definitions
+ *   synonyms    count, then per word: index, count, synonym indices
+ *   definitions count, then per word: index, definition index
+ * </pre>
+ *
+ * A path-synonyms response is the header, the strings and the synonyms section alone.
+ */
+public class SynonymBinaryMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+  public static final MediaType BINARY = new MediaType("application", "vnd.synonym-network.binary");
+
+  private static final int VERSION = 1;
+  private static final int KIND_PATH_INFO = 1;
+  private static final int KIND_PATH_SYNONYMS = 2;
+
+  public SynonymBinaryMessageConverter() {
+    super(BINARY);
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return PathInfo.class.isAssignableFrom(clazz) || Map.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+    if (!canWrite(mediaType)) return false;
+    if (type == null || PathInfo.class.isAssignableFrom(clazz)) return supports(clazz);
+    // only maps of word to synonyms, not arbitrary maps; the resolved return type may have lost
+    // the element type of the synonym sets, which then counts as String
+    ResolvableType map = ResolvableType.forType(type).as(Map.class);
+    ResolvableType values = map.getGeneric(1).as(Collection.class);
+    return map.getGeneric(0).resolve() == String.class
+        && values != ResolvableType.NONE
+        && values.getGeneric(0).resolve(String.class) == String.class;
+  }
+
+  @Override
+  public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  protected boolean canRead(MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+    throw new HttpMessageNotReadableException("Binary requests are not supported", inputMessage);
+  }
+
+  @Override
+  protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+    throw new HttpMessageNotReadableException("Binary requests are not supported", inputMessage);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage)
+      throws IOException {
+    OutputStream out = new BufferedOutputStream(outputMessage.getBody());
+    StringTable strings = new StringTable();
+    if (value instanceof PathInfo info) {
+      strings.addAll(info.getPath());
+      strings.addSynonyms(info.getPathSynonyms());
+      strings.addDefinitions(info.getWordDefinitions());
+      writeHeader(out, KIND_PATH_INFO, strings);
+      writeVarint(out, info.getConnectionLevel() + 1); // -1 (no path) encodes as 0
+      List<String> path = info.getPath() == null ? List.of() : info.getPath();
+      writeVarint(out, path.size());
+      for (String word : path) writeVarint(out, strings.indexOf(word));
+      writeSynonyms(out, info.getPathSynonyms(), strings);
+      writeDefinitions(out, info.getWordDefinitions(), strings);
+    } else {
+      Map<String, ? extends Collection<String>> synonyms =
+          (Map<String, ? extends Collection<String>>) value;
+      strings.addSynonyms(synonyms);
+      writeHeader(out, KIND_PATH_SYNONYMS, strings);
+      writeSynonyms(out, synonyms, strings);
+    }
+    out.flush();
+  }
+
+  private static void writeHeader(OutputStream out, int kind, StringTable strings)
+      throws IOException {
+    out.write('S');
+    out.write('N');
+    out.write(VERSION);
+    out.write(kind);
+    writeVarint(out, strings.size());
+    for (byte[] utf8 : strings.encoded) {
+      writeVarint(out, utf8.length);
+      out.write(utf8);
+    }
+  }
+
+  private static void writeSynonyms(
+      OutputStream out, Map<String, ? extends Collection<String>> synonyms, StringTable strings)
+      throws IOException {
+    if (synonyms == null) synonyms = Map.of();
+    writeVarint(out, synonyms.size());
+    for (Map.Entry<String, ? extends Collection<String>> entry : synonyms.entrySet()) {
+      writeVarint(out, strings.indexOf(entry.getKey()));
+      writeVarint(out, entry.getValue().size());
+      for (String synonym : entry.getValue()) writeVarint(out, strings.indexOf(synonym));
+    }
+  }
+
+  private static void writeDefinitions(
+      OutputStream out, Map<String, String> definitions, StringTable strings) throws IOException {
+    if (definitions == null) definitions = Map.of();
+    writeVarint(out, definitions.size());
+    for (Map.Entry<String, String> entry : definitions.entrySet()) {
+      writeVarint(out, strings.indexOf(entry.getKey()));
+      writeVarint(out, strings.indexOf(entry.getValue()));
+    }
+  }
+
+  private static void writeVarint(OutputStream out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value);
+  }
+
+  /** Distinct strings of one response in first-seen order, each encoded once. */
+  private static final class StringTable {
+    private final Map<String, Integer> index = new HashMap<>();
+    private final List<byte[]> encoded = new ArrayList<>();
+
+    void add(String s) {
+      if (index.putIfAbsent(nonNull(s), encoded.size()) == null) {
+        encoded.add(nonNull(s).getBytes(StandardCharsets.UTF_8));
+      }
+    }
+
+    void addAll(Collection<String> words) {
+      if (words != null) words.forEach(this::add);
+    }
+
+    void addSynonyms(Map<String, ? extends Collection<String>> synonyms) {
+      if (synonyms == null) return;
+      synonyms.forEach(
+          (word, list) -> {
+            add(word);
+            addAll(list);
+          });
+    }
+
+    void addDefinitions(Map<String, String> definitions) {
+      if (definitions == null) return;
+      definitions.forEach(
+          (word, definition) -> {
+            add(word);
+            add(definition);
+          });
+    }
+
+    int indexOf(String s) {
+      return index.get(nonNull(s));
+    }
+
+    // a missing definition is sent as the empty string
+    private static String nonNull(String s) {
+      return s == null ? "" : s;
+    }
+
+    int size() {
+      return encoded.size();
+    }
+  }
+}
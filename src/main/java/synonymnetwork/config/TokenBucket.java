@@ -0,0 +1,46 @@
+package synonymnetwork.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free rate limiter for one API key: a single atomic "theoretical arrival time" (the generic
+ * cell rate algorithm), which is a token bucket with lazy refill in one long. Every request of the
+ * key goes through the same arrival time, so the configured rate and burst hold whichever threads
+ * serve it; updating it costs one compare-and-set per request.
+ *
+ * <p>A request is admitted unless the arrival time is more than the burst tolerance ahead of now;
+ * each admitted request pushes the arrival time forward by one emission interval.
+ */
+public class TokenBucket {
+  private final long intervalNanos;
+  private final long toleranceNanos;
+  private final AtomicLong arrival;
+
+  /**
+   * Creates a limiter.
+   *
+   * @param permitsPerSecond sustained rate
+   * @param burst requests admitted at once after an idle period
+   */
+  public TokenBucket(double permitsPerSecond, int burst) {
+    this.intervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+    this.toleranceNanos = intervalNanos * Math.max(0, burst - 1);
+    this.arrival = new AtomicLong(System.nanoTime());
+  }
+
+  /**
+   * Takes one permit if one is available.
+   *
+   * @return 0 if the request is admitted, otherwise the nanoseconds until a permit frees up
+   */
+  public long tryAcquire() {
+    while (true) {
+      long now = System.nanoTime();
+      long tat = arrival.get();
+      long start = tat - now < 0 ? now : tat;
+      long wait = start - now - toleranceNanos;
+      if (wait > 0) return wait;
+      if (arrival.compareAndSet(tat, start + intervalNanos)) return 0;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package synonymnetwork.config;
+
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import synonymnetwork.service.GraphService;
+import synonymnetwork.service.ReadinessService;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+  @Autowired private GraphVersionCacheInterceptor graphVersionCacheInterceptor;
+  @Autowired private ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+  @Autowired private ReadinessService readinessService;
+  @Autowired private GraphService graphService;
+
+  @Value("${synonym.http.cache.enabled:true}")
+  private boolean cachingEnabled;
+
+  @Value("${synonym.limiter.enabled:true}")
+  private boolean limiterEnabled;
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    // A shard without peers holds nothing but its rows, so only its own endpoint can answer
+    if (graphService.isShardOnly()) {
+      registry
+          .addInterceptor(new ShardOnlyInterceptor())
+          .addPathPatterns("/api/**")
+          .excludePathPatterns("/api/shard/**");
+    }
+    // Named graphs are served by a few endpoints only; the rest would answer from the default one
+    registry
+        .addInterceptor(new DefaultGraphOnlyInterceptor())
+        .addPathPatterns("/api/**")
+        .excludePathPatterns(
+            "/api/path/shortest",
+            "/api/path/level",
+            "/api/path/connected",
+            "/api/graph/exists",
+            "/api/graph/definition");
+    addStartupStages(registry);
+    // Registered first so requests answered with 304 never take a limiter slot
+    if (cachingEnabled) {
+      addCaching(registry);
+    }
+    if (limiterEnabled) {
+      registry
+          .addInterceptor(concurrencyLimitInterceptor)
+          .addPathPatterns("/api/path/**", "/api/generate/**")
+          // streams hold their request open for the whole search and have a worker pool of their
+          // own
+          .excludePathPatterns("/api/path/stream");
+    }
+  }
+
+  // Endpoints answer 503 until every stage they read from has loaded; /info and /stream need both
+  private void addStartupStages(InterceptorRegistry registry) {
+    registry
+        .addInterceptor(new StartupStageInterceptor(readinessService::isGraphReady))
+        .addPathPatterns("/api/path/**", "/api/graph/**", "/api/generate/**", "/api/admin/**")
+        .excludePathPatterns("/api/graph/definition", "/api/graph/definitions");
+    registry
+        .addInterceptor(new StartupStageInterceptor(readinessService::areDefinitionsReady))
+        .addPathPatterns(
+            "/api/graph/definition",
+            "/api/graph/definitions",
+            "/api/path/info",
+            "/api/path/stream");
+  }
+
+  private void addCaching(InterceptorRegistry registry) {
+    // Endpoints whose response is fully determined by the request and the loaded graph; random
+    // generation and the background-computed stats are left out
+    registry
+        .addInterceptor(graphVersionCacheInterceptor)
+        .addPathPatterns(
+            "/api/path/shortest",
+            "/api/path/level",
+            "/api/path/synonyms",
+            "/api/path/connected",
+            "/api/path/info",
+            "/api/graph/definition",
+            "/api/graph/exists",
+            "/api/graph/suggest",
+            "/api/graph/did-you-mean",
+            "/api/graph/neighborhood",
+            "/api/graph/similar");
+  }
+
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    // Only used when a client asks for application/vnd.synonym-network.binary; JSON stays default
+    converters.add(new SynonymBinaryMessageConverter());
+  }
+}
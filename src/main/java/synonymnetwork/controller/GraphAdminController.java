@@ -0,0 +1,106 @@
+package synonymnetwork.controller;
+
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import synonymnetwork.domain.GraphChange;
+import synonymnetwork.service.GraphService;
+import synonymnetwork.service.GraphUpdateService;
+import synonymnetwork.service.GraphUpdateService.UpdateStatus;
+
+/**
+ * Changes the synonym graph at runtime. Requires an API key listed in api.security.admin-keys.
+ * Every change answers with the update status, whose graph version is the one the next responses
+ * will carry.
+ */
+@RestController
+@RequestMapping("/api/admin/graph")
+public class GraphAdminController {
+
+  @Autowired private GraphUpdateService graphUpdateService;
+  @Autowired private GraphService graphService;
+
+  /** Adds a word without synonyms, 200 if it exists. Example: POST /api/admin/graph/words?word=x */
+  @PostMapping("/words")
+  public ResponseEntity<UpdateStatus> addWord(@RequestParam String word) {
+    if (word.isBlank()) return ResponseEntity.badRequest().build();
+    return apply(() -> GraphChange.addWord(word.trim()), HttpStatus.CREATED);
+  }
+
+  /** Removes a word and all its links. Example: DELETE /api/admin/graph/words?word=happy */
+  @DeleteMapping("/words")
+  public ResponseEntity<UpdateStatus> removeWord(@RequestParam String word) {
+    if (!graphService.containsWord(word.trim())) return ResponseEntity.notFound().build();
+    return apply(() -> GraphChange.removeWord(word.trim()), HttpStatus.OK);
+  }
+
+  /**
+   * Links two words as synonyms, 200 if they already are. Example: POST
+   * /api/admin/graph/edges?word1=happy&word2=chuffed
+   */
+  @PostMapping("/edges")
+  public ResponseEntity<UpdateStatus> addEdge(
+      @RequestParam String word1, @RequestParam String word2) {
+    if (!graphService.containsWord(word1.trim()) || !graphService.containsWord(word2.trim())) {
+      return ResponseEntity.notFound().build();
+    }
+    return apply(() -> GraphChange.addEdge(word1.trim(), word2.trim()), HttpStatus.CREATED);
+  }
+
+  /**
+   * Removes the link between two words, 404 if there is none. Example: DELETE
+   * /api/admin/graph/edges?word1=happy&word2=glad
+   */
+  @DeleteMapping("/edges")
+  public ResponseEntity<UpdateStatus> removeEdge(
+      @RequestParam String word1, @RequestParam String word2) {
+    if (!graphService.containsWord(word1.trim()) || !graphService.containsWord(word2.trim())) {
+      return ResponseEntity.notFound().build();
+    }
+    return apply(() -> GraphChange.removeEdge(word1.trim(), word2.trim()), HttpStatus.OK);
+  }
+
+  /** Gets the number of changes and the graph version. Example: GET /api/admin/graph/status */
+  @GetMapping("/status")
+  public ResponseEntity<UpdateStatus> getStatus() {
+    return ResponseEntity.ok(graphUpdateService.getStatus());
+  }
+
+  /**
+   * Folds the pending changes into a rebuilt graph in the background, without waiting for the
+   * threshold. Example: POST /api/admin/graph/compact
+   */
+  @PostMapping("/compact")
+  public ResponseEntity<UpdateStatus> compact() {
+    graphUpdateService.compactNow();
+    return ResponseEntity.accepted().body(graphUpdateService.getStatus());
+  }
+
+  // applied answers with `changed`; a change that finds the graph as asked answers 200 for
+  // additions and 404 for removals
+  private ResponseEntity<UpdateStatus> apply(Supplier<GraphChange> request, HttpStatus changed) {
+    GraphChange change;
+    boolean applied;
+    try {
+      change = request.get();
+      applied = graphUpdateService.apply(change);
+    } catch (IllegalArgumentException e) {
+      // a word with a tab or line break, a word linked to itself, or a word removed by a
+      // concurrent change
+      return ResponseEntity.badRequest().build();
+    }
+    boolean removal =
+        change.type() == GraphChange.Type.REMOVE_WORD
+            || change.type() == GraphChange.Type.REMOVE_EDGE;
+    if (!applied && removal) return ResponseEntity.notFound().build();
+    return ResponseEntity.status(applied ? changed : HttpStatus.OK)
+        .body(graphUpdateService.getStatus());
+  }
+}
@@ -1,32 +1,197 @@
 package synonymnetwork.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import synonymnetwork.domain.GraphStatistics;
+import synonymnetwork.domain.Neighborhood;
+import synonymnetwork.domain.SimilarWord;
+import synonymnetwork.domain.SimilarityMeasure;
+import synonymnetwork.domain.SynonymGraph;
+import synonymnetwork.service.GraphAnalyticsService;
+import synonymnetwork.service.GraphRegistry;
 import synonymnetwork.service.GraphService;
 
 @RestController
 @RequestMapping("/api/graph")
 public class GraphController {
 
+  private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+  private static final int EDGES_PER_LINE = 512;
+
   @Autowired private GraphService graphService;
+  @Autowired private GraphAnalyticsService graphAnalyticsService;
+  @Autowired private GraphRegistry graphRegistry;
+  @Autowired private ObjectMapper objectMapper;
 
-  /** Gets the definition for a single word. Example: GET /api/graph/definition?word=happy */
+  /**
+   * Gets the definition for a single word, optionally from one of the configured thesauri (see
+   * GraphRegistry). Example: GET /api/graph/definition?word=happy
+   */
   @GetMapping("/definition")
-  public ResponseEntity<String> getDefinition(@RequestParam String word) {
-    String definition = graphService.getDefinition(word);
+  public ResponseEntity<String> getDefinition(
+      @RequestParam String word, @RequestParam(required = false) String graph) {
+    String definition;
+    if (GraphRegistry.isDefault(graph)) {
+      definition = graphService.getDefinition(word);
+    } else {
+      SynonymGraph synonymGraph = graphRegistry.getGraph(graph);
+      definition = synonymGraph == null ? null : synonymGraph.findWordDefinition(word);
+    }
     return definition == null || definition.contains("not found")
         ? ResponseEntity.notFound().build()
         : ResponseEntity.ok(definition);
   }
 
-  /** Checks if a word exists in the graph. Example: GET /api/graph/exists?word=happy */
+  /**
+   * Checks if a word exists in the graph, optionally one of the configured thesauri (see
+   * GraphRegistry). Example: GET /api/graph/exists?word=happy&graph=default
+   */
   @GetMapping("/exists")
-  public ResponseEntity<Boolean> containsWord(@RequestParam String word) {
-    return ResponseEntity.ok(graphService.containsWord(word));
+  public ResponseEntity<Boolean> containsWord(
+      @RequestParam String word, @RequestParam(required = false) String graph) {
+    if (GraphRegistry.isDefault(graph)) {
+      return ResponseEntity.ok(graphService.containsWord(word));
+    }
+    SynonymGraph synonymGraph = graphRegistry.getGraph(graph);
+    return synonymGraph == null
+        ? ResponseEntity.notFound().build()
+        : ResponseEntity.ok(synonymGraph.truthOrFalse(word));
+  }
+
+  /**
+   * Suggests words that start with a prefix, for autocompletion. Example: GET
+   * /api/graph/suggest?prefix=hap&limit=10
+   */
+  @GetMapping("/suggest")
+  public ResponseEntity<List<String>> suggestWords(
+      @RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+    return ResponseEntity.ok(graphService.suggestWords(prefix, limit));
+  }
+
+  /**
+   * Suggests correctly spelled words close to a possibly misspelled one. Example: GET
+   * /api/graph/did-you-mean?word=hapy&maxDistance=2&limit=5
+   */
+  @GetMapping("/did-you-mean")
+  public ResponseEntity<List<String>> didYouMean(
+      @RequestParam String word,
+      @RequestParam(defaultValue = "2") int maxDistance,
+      @RequestParam(defaultValue = "5") int limit) {
+    return ResponseEntity.ok(graphService.didYouMean(word, maxDistance, limit));
+  }
+
+  /**
+   * Gets the words that share the most synonyms with a word, most similar first. The measure is
+   * JACCARD (default) or ADAMIC_ADAR. 404 for an unknown word and 400 for k below 1. Example: GET
+   * /api/graph/similar?word=happy&k=10
+   */
+  @GetMapping("/similar")
+  public ResponseEntity<List<SimilarWord>> getSimilarWords(
+      @RequestParam String word,
+      @RequestParam(defaultValue = "10") int k,
+      @RequestParam(defaultValue = "JACCARD") SimilarityMeasure measure) {
+    if (k < 1) {
+      return ResponseEntity.badRequest().build();
+    }
+    List<SimilarWord> similar = graphService.getSimilarWords(word, k, measure);
+    return similar == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(similar);
+  }
+
+  /**
+   * Streams the synonym network around a word as newline-delimited JSON, 404 for an unknown word
+   * and 400 for a negative depth or maxNodes below 1. Example: GET
+   * /api/graph/neighborhood?word=happy&depth=2&maxNodes=500
+   *
+   * <p>The first line describes the neighbourhood, then one line per word gives its integer id, and
+   * the remaining lines carry the edges among those words as flat arrays of id pairs:
+   *
+   * <pre>
+   * {"type":"neighborhood","word":"happy","nodes":3,"truncated":false}
+   * {"type":"node","id":0,"name":"happy","depth":0}
+   * {"type":"node","id":1,"name":"glad","depth":1}
+   * {"type":"node","id":2,"name":"joyful","depth":1}
+   * {"type":"edges","edges":[0,1,0,2,1,2]}
+   * </pre>
+   */
+  @GetMapping("/neighborhood")
+  public ResponseEntity<StreamingResponseBody> getNeighborhood(
+      @RequestParam String word,
+      @RequestParam(defaultValue = "2") int depth,
+      @RequestParam(defaultValue = "500") int maxNodes) {
+    if (depth < 0 || maxNodes < 1) {
+      return ResponseEntity.badRequest().build();
+    }
+    Neighborhood neighborhood = graphService.getNeighborhood(word, depth, maxNodes);
+    if (neighborhood == null) {
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.ok()
+        .contentType(NDJSON)
+        .body(out -> writeNeighborhood(word, neighborhood, out));
+  }
+
+  // Writes one JSON document per line straight to the response, flushing as batches fill
+  private void writeNeighborhood(String word, Neighborhood neighborhood, OutputStream out)
+      throws IOException {
+    JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+    json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    json.setRootValueSeparator(null);
+
+    json.writeStartObject();
+    json.writeStringField("type", "neighborhood");
+    json.writeStringField("word", word);
+    json.writeNumberField("nodes", neighborhood.size());
+    json.writeBooleanField("truncated", neighborhood.isTruncated());
+    json.writeEndObject();
+    json.writeRaw('\n');
+
+    for (int i = 0; i < neighborhood.size(); i++) {
+      json.writeStartObject();
+      json.writeStringField("type", "node");
+      json.writeNumberField("id", i);
+      json.writeStringField("name", neighborhood.name(i));
+      json.writeNumberField("depth", neighborhood.depth(i));
+      json.writeEndObject();
+      json.writeRaw('\n');
+    }
+
+    int[] batch = new int[2 * EDGES_PER_LINE];
+    int[] filled = {0};
+    neighborhood.forEachEdge(
+        (a, b) -> {
+          batch[filled[0]++] = a;
+          batch[filled[0]++] = b;
+          if (filled[0] == batch.length) {
+            writeEdges(json, batch, filled[0]);
+            filled[0] = 0;
+          }
+        });
+    if (filled[0] > 0) {
+      writeEdges(json, batch, filled[0]);
+    }
+    json.close();
+  }
+
+  private static void writeEdges(JsonGenerator json, int[] batch, int length) throws IOException {
+    json.writeStartObject();
+    json.writeStringField("type", "edges");
+    json.writeFieldName("edges");
+    json.writeArray(batch, 0, length);
+    json.writeEndObject();
+    json.writeRaw('\n');
+    json.flush();
   }
 
   /**
@@ -49,6 +214,25 @@ public class GraphController {
     return ResponseEntity.ok(synonyms);
   }
 
+  /**
+   * Gets precomputed statistics of the whole thesaurus graph: degree distribution, components,
+   * approximate diameter and hub words. They describe the base graph, computed again after each
+   * compaction, and give the number of runtime changes they include. Returns 503 until the
+   * background analysis has finished, and 404 if it is disabled or failed. Example: GET
+   * /api/graph/stats
+   */
+  @GetMapping("/stats")
+  public ResponseEntity<GraphStatistics> getWholeGraphStatistics() {
+    // settled is set after the statistics, so reading it first never misses them
+    boolean settled = graphAnalyticsService.isSettled();
+    GraphStatistics statistics = graphAnalyticsService.getStatistics();
+    if (statistics != null) return ResponseEntity.ok(statistics);
+    if (settled) return ResponseEntity.notFound().build();
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "5")
+        .build();
+  }
+
   /**
    * Gets statistics (node and edge count) for a given path. Example: POST /api/graph/statistics
    * Body: ["love", "emotion", "hate"]
@@ -1,12 +1,18 @@
 package synonymnetwork.controller;
 
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
+import synonymnetwork.service.ReadinessService;
 
 @RestController
 public class HealthCheckController {
 
+  @Autowired private ReadinessService readinessService;
+
   /**
    * A simple endpoint to verify that the API is running. It's lightweight and perfect for
    * "keep-alive" services. It will be accessible at YOUR_URL/health
@@ -16,4 +22,17 @@ public class HealthCheckController {
     // Returns a 200 OK status code with the text "Server is alive."
     return ResponseEntity.ok("Server is alive.");
   }
+
+  /**
+   * Readiness endpoint for load balancers: 200 once the graph and definitions are loaded, warmed up
+   * and the background indexes are built, 503 before that. The body lists each startup stage;
+   * endpoints already answer once the stages they need are done. Example: GET /ready
+   */
+  @GetMapping("/ready")
+  public ResponseEntity<Map<String, Boolean>> readinessCheck() {
+    Map<String, Boolean> stages = readinessService.getStages();
+    return stages.containsValue(false)
+        ? ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(stages)
+        : ResponseEntity.ok(stages);
+  }
 }
@@ -4,28 +4,41 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import synonymnetwork.service.GraphRegistry;
 import synonymnetwork.service.PathFindingService;
 import synonymnetwork.service.PathFindingService.PathInfo;
+import synonymnetwork.service.PathStreamService;
 
 @RestController
 @RequestMapping("/api/path")
 public class PathFindingController {
 
   @Autowired private PathFindingService pathFindingService;
+  @Autowired private PathStreamService pathStreamService;
+  @Autowired private GraphRegistry graphRegistry;
 
   /**
-   * Finds the shortest path between two words. Example: GET
-   * /api/path/shortest?word1=love&word2=hate
+   * Finds the shortest path between two words. With weighted=true the path minimizes the total link
+   * cost instead, preferring strong synonyms over obscure links. The optional graph parameter
+   * selects one of the configured thesauri (see GraphRegistry). Example: GET
+   * /api/path/shortest?word1=love&word2=hate&weighted=true
    */
   @GetMapping("/shortest")
   public ResponseEntity<List<String>> findShortestPath(
-      @RequestParam String word1, @RequestParam String word2) {
-    List<String> path = pathFindingService.findShortestPath(word1, word2);
+      @RequestParam String word1,
+      @RequestParam String word2,
+      @RequestParam(defaultValue = "false") boolean weighted,
+      @RequestParam(required = false) String graph) {
+    List<String> path = pathFindingService.findShortestPath(graph, word1, word2, weighted);
     return path.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(path);
   }
 
@@ -35,8 +48,10 @@ public class PathFindingController {
    */
   @GetMapping("/level")
   public ResponseEntity<Integer> getConnectionLevel(
-      @RequestParam String word1, @RequestParam String word2) {
-    int level = pathFindingService.getConnectionLevel(word1, word2);
+      @RequestParam String word1,
+      @RequestParam String word2,
+      @RequestParam(required = false) String graph) {
+    int level = pathFindingService.getConnectionLevel(graph, word1, word2);
     return level == -1 ? ResponseEntity.notFound().build() : ResponseEntity.ok(level);
   }
 
@@ -59,8 +74,13 @@ public class PathFindingController {
    */
   @GetMapping("/connected")
   public ResponseEntity<Boolean> areWordsConnected(
-      @RequestParam String word1, @RequestParam String word2) {
-    return ResponseEntity.ok(pathFindingService.areWordsConnected(word1, word2));
+      @RequestParam String word1,
+      @RequestParam String word2,
+      @RequestParam(required = false) String graph) {
+    if (!graphRegistry.isConfigured(graph)) {
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.ok(pathFindingService.areWordsConnected(graph, word1, word2));
   }
 
   /**
@@ -73,4 +93,22 @@ public class PathFindingController {
     PathInfo pathInfo = pathFindingService.getPathInfo(word1, word2);
     return pathInfo == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(pathInfo);
   }
+
+  /**
+   * Streams the search for the path between two words as Server-Sent Events: a "level" event with
+   * the number of words reached at each distance, then the "path", a "word" event with the synonyms
+   * and definition of each word on it, and "done" with the connection level, -1 if there is no
+   * path. Closing the connection stops the search. 503 while every stream worker is busy. Example:
+   * GET /api/path/stream?word1=love&word2=hate
+   */
+  @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public ResponseEntity<SseEmitter> streamPath(
+      @RequestParam String word1, @RequestParam String word2) {
+    SseEmitter emitter = pathStreamService.stream(word1, word2);
+    return emitter == null
+        ? ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .build()
+        : ResponseEntity.ok(emitter);
+  }
 }
@@ -0,0 +1,71 @@
+package synonymnetwork.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import synonymnetwork.service.HttpShardTransport;
+import synonymnetwork.service.ShardService;
+
+/**
+ * Shard side of sharded path searches (see ShardService). Bodies are binary, in the format of
+ * HttpShardTransport.
+ */
+@RestController
+@RequestMapping("/api/shard")
+public class ShardController {
+
+  @Autowired private ShardService shardService;
+
+  /**
+   * Expands a frontier batch of vertices owned by this shard into neighbour-parent pairs. 503 until
+   * the partition is loaded, 413 for a body longer than a batch naming every owned vertex once, 400
+   * for vertices of other shards, repeated vertices or another graph version. Example: POST
+   * /api/shard/expand
+   */
+  @PostMapping(
+      value = "/expand",
+      consumes = HttpShardTransport.MEDIA_TYPE,
+      produces = HttpShardTransport.MEDIA_TYPE)
+  public ResponseEntity<byte[]> expand(
+      HttpServletRequest request,
+      @RequestHeader(value = HttpShardTransport.GRAPH_HEADER, required = false) String graph)
+      throws IOException {
+    int owned = shardService.ownedVertices();
+    if (owned < 0) {
+      return notReady();
+    }
+    // read no more than the largest valid batch, whatever the client declares
+    long limit = HttpShardTransport.encodedLength(owned);
+    if (request.getContentLengthLong() > limit) {
+      return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+    }
+    byte[] body = request.getInputStream().readNBytes((int) Math.min(limit + 1, Integer.MAX_VALUE));
+    if (body.length > limit) {
+      return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+    }
+
+    int[] pairs;
+    try {
+      pairs = shardService.expand(HttpShardTransport.decode(body), graph);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+    if (pairs == null) {
+      return notReady();
+    }
+    return ResponseEntity.ok(HttpShardTransport.encode(pairs));
+  }
+
+  private static ResponseEntity<byte[]> notReady() {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "2")
+        .build();
+  }
+}
@@ -2,18 +2,25 @@ package synonymnetwork.controller;
 
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import synonymnetwork.service.PuzzlePairService;
+import synonymnetwork.service.PuzzlePairService.WordPair;
 import synonymnetwork.service.WordGenerationService;
 
 @RestController
 @RequestMapping("/api/generate")
 public class WordGenerationController {
 
+  private static final int MAX_PAIRS_PER_REQUEST = 50;
+
   @Autowired private WordGenerationService wordGenerationService;
+  @Autowired private PuzzlePairService puzzlePairService;
 
   /**
    * Generates a random path of words from a starting word to a specified depth. Example: GET
@@ -25,4 +32,29 @@ public class WordGenerationController {
     List<String> path = wordGenerationService.generateRandomWordPath(startWord, depth);
     return path.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(path);
   }
+
+  /**
+   * Generates word pairs whose shortest path is exactly the given number of connections, for
+   * puzzles of a chosen difficulty. Returns 503 while the pair index has nothing ready at that
+   * level, and 404 once sampling has found the graph has no pairs that far apart. Example: GET
+   * /api/generate/pair?level=4&count=3
+   */
+  @GetMapping("/pair")
+  public ResponseEntity<List<WordPair>> generatePairs(
+      @RequestParam int level, @RequestParam(defaultValue = "1") int count) {
+    if (level < 1 || level > puzzlePairService.getMaxLevel() || count < 1) {
+      return ResponseEntity.badRequest().build();
+    }
+    List<WordPair> pairs =
+        puzzlePairService.takePairs(level, Math.min(count, MAX_PAIRS_PER_REQUEST));
+    if (!pairs.isEmpty()) {
+      return ResponseEntity.ok(pairs);
+    }
+    if (puzzlePairService.isExhausted(level)) {
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .build();
+  }
 }
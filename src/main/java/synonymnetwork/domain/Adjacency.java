@@ -0,0 +1,56 @@
+package synonymnetwork.domain;
+
+import java.util.Arrays;
+
+/**
+ * Read-only neighbour lists of an undirected graph whose vertices are numbered 0 through <em>V</em>
+ * - 1. This is the iteration interface SynonymGraph searches against, so the storage behind it can
+ * be swapped (see {@link AdjacencyFormat}) without touching the algorithms.
+ *
+ * <p>A self-loop is reported twice in its vertex's own list, matching {@code Graph.adj}.
+ */
+public interface Adjacency {
+
+  /** Returns the number of vertices. */
+  int V();
+
+  /** Returns the number of edges. */
+  int E();
+
+  /**
+   * Returns the number of neighbours of {@code v}.
+   *
+   * @param v the vertex
+   * @return the degree of {@code v}
+   */
+  int degree(int v);
+
+  /** Returns the largest degree of any vertex, which is enough room for any neighbour buffer. */
+  int maxDegree();
+
+  /**
+   * Copies the neighbours of {@code v} into {@code dst}. This is the allocation-free path the
+   * searches use; {@code dst} must hold at least {@link #degree(int)} entries.
+   *
+   * @param v the vertex
+   * @param dst destination buffer
+   * @return the number of neighbours written
+   */
+  int neighbors(int v, int[] dst);
+
+  /**
+   * Returns the neighbours of {@code v} as an iterable, in the same order as {@link #neighbors(int,
+   * int[])}.
+   *
+   * @param v the vertex
+   * @return the vertices adjacent to {@code v}
+   */
+  default Iterable<Integer> adj(int v) {
+    int[] buffer = new int[degree(v)];
+    int n = neighbors(v, buffer);
+    return () -> Arrays.stream(buffer, 0, n).iterator();
+  }
+
+  /** Returns an estimate of the heap held by this structure, in bytes. */
+  long estimatedBytes();
+}
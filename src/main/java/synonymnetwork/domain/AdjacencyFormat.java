@@ -0,0 +1,46 @@
+package synonymnetwork.domain;
+
+import edu.princeton.cs.algs4.Graph;
+
+/**
+ * In-memory representations available for the synonym adjacency. The choice trades memory for
+ * decode work and is made once at startup.
+ *
+ * <ul>
+ *   <li>{@link #GRAPH} keeps the algs4 {@link Graph} of linked bags; neighbour order matches the
+ *       original implementation exactly.
+ *   <li>{@link #PACKED} stores sorted neighbour lists in one flat {@code int[]} (CSR layout).
+ *   <li>{@link #VARINT} stores sorted neighbour lists as delta-encoded varints in a {@code byte[]},
+ *       typically well under half the size of {@link #PACKED}.
+ * </ul>
+ */
+public enum AdjacencyFormat {
+  GRAPH {
+    @Override
+    public Adjacency build(Graph graph) {
+      return new GraphAdjacency(graph);
+    }
+  },
+
+  PACKED {
+    @Override
+    public Adjacency build(Graph graph) {
+      return PackedAdjacency.of(graph);
+    }
+  },
+
+  VARINT {
+    @Override
+    public Adjacency build(Graph graph) {
+      return VarintAdjacency.of(graph);
+    }
+  };
+
+  /**
+   * Converts a freshly built graph into this representation.
+   *
+   * @param graph the graph to convert; it is not retained unless the format is {@link #GRAPH}
+   * @return the adjacency in this format
+   */
+  public abstract Adjacency build(Graph graph);
+}
@@ -0,0 +1,146 @@
+package synonymnetwork.domain;
+
+import java.util.Arrays;
+
+/**
+ * Single-threaded breadth-first search whose per-query state is sized by the vertices it reaches
+ * rather than by the whole graph. The visited set and bottom-up frontiers are {@code long[]}
+ * bitsets (one bit per vertex instead of a {@code boolean} plus an {@code int} parent), and the
+ * discovered vertices are kept level by level in one growing array. No parent array exists: once
+ * the target is found the path is recovered backwards by picking, at each level, a neighbour that
+ * belongs to the level before.
+ *
+ * <p>Like {@link DirectionOptimizingPathSearch}, levels whose frontier outweighs the unexplored
+ * edges run bottom-up. Those steps read the visited set a word at a time and only look at the
+ * unvisited vertices of each word, so settled regions of the graph are skipped 64 vertices at once.
+ */
+public final class BitsetPathSearch {
+  private static final int BETA = 24;
+
+  private BitsetPathSearch() {}
+
+  /**
+   * Finds a shortest path from {@code s} to {@code t}.
+   *
+   * @param adjacency the graph to search
+   * @param s the source vertex
+   * @param t the target vertex
+   * @return the vertices of the path from {@code s} to {@code t} inclusive, or {@code null} if
+   *     {@code t} is not reachable from {@code s}
+   */
+  public static int[] shortestPath(Adjacency adjacency, int s, int t) {
+    return shortestPath(adjacency, s, t, null);
+  }
+
+  /**
+   * Finds the same path as {@link #shortestPath(Adjacency, int, int)}, counting the neighbour lists
+   * read (see {@link PathSearch#shortestPath(Adjacency, int, int, long[])}).
+   *
+   * @param adjacency the graph to search
+   * @param s the source vertex
+   * @param t the target vertex
+   * @param expanded has the count added to its first element, or null to not count
+   * @return the vertices of the path, or {@code null} if {@code t} is not reachable from {@code s}
+   */
+  public static int[] shortestPath(Adjacency adjacency, int s, int t, long[] expanded) {
+    if (s == t) return new int[] {s};
+
+    int V = adjacency.V();
+    int words = (V + 63) >>> 6;
+    long[] visited = new long[words];
+    long[] frontier = new long[words];
+    // the padding past the last vertex counts as visited so word scans never report it
+    if ((V & 63) != 0) visited[words - 1] = -1L << (V & 63);
+    visited[s >>> 6] |= 1L << s;
+
+    int[] neighbors = new int[adjacency.maxDegree()];
+    int[] discovered = new int[64];
+    int count = 0;
+    discovered[count++] = s;
+    int[] levelStart = new int[16];
+    int depth = 0; // levels are discovered[levelStart[d]..levelStart[d + 1])
+
+    long frontierEdges = adjacency.degree(s);
+    long unexploredEdges = 2L * adjacency.E() - frontierEdges;
+    boolean bottomUp = false;
+    boolean found = false;
+    long reads = 0;
+    while (!found && count > levelStart[depth]) {
+      int from = levelStart[depth];
+      int to = count;
+      // the thesaurus averages about three synonyms per word, too sparse for the usual 1/14 switch
+      // point; bottom-up only pays once the frontier holds more edges than are left unexplored
+      bottomUp = bottomUp ? to - from >= V / BETA : frontierEdges > unexploredEdges;
+      frontierEdges = 0;
+
+      if (!bottomUp) {
+        for (int i = from; i < to && !found; i++) {
+          reads++;
+          int k = adjacency.neighbors(discovered[i], neighbors);
+          for (int j = 0; j < k; j++) {
+            int w = neighbors[j];
+            if ((visited[w >>> 6] & (1L << w)) != 0) continue;
+            visited[w >>> 6] |= 1L << w;
+            if (count == discovered.length) discovered = Arrays.copyOf(discovered, 2 * count);
+            discovered[count++] = w;
+            frontierEdges += adjacency.degree(w);
+            if (w == t) {
+              found = true;
+              break;
+            }
+          }
+        }
+      } else {
+        fill(frontier, discovered, from, to);
+        for (int word = 0; word < words && !found; word++) {
+          // newly adopted vertices are marked as we go, so take the unvisited bits up front
+          for (long unvisited = ~visited[word]; unvisited != 0; unvisited &= unvisited - 1) {
+            int v = (word << 6) + Long.numberOfTrailingZeros(unvisited);
+            reads++;
+            int k = adjacency.neighbors(v, neighbors);
+            for (int j = 0; j < k; j++) {
+              int w = neighbors[j];
+              if ((frontier[w >>> 6] & (1L << w)) == 0) continue;
+              visited[word] |= 1L << v;
+              if (count == discovered.length) discovered = Arrays.copyOf(discovered, 2 * count);
+              discovered[count++] = v;
+              frontierEdges += k;
+              found = v == t;
+              break;
+            }
+            if (found) break;
+          }
+        }
+      }
+
+      if (depth + 2 >= levelStart.length) levelStart = Arrays.copyOf(levelStart, 2 * depth + 4);
+      levelStart[++depth] = to;
+      levelStart[depth + 1] = count;
+      unexploredEdges -= frontierEdges;
+    }
+    if (expanded != null) expanded[0] += reads;
+    if (!found) return null;
+
+    // t sits in level depth; walk back one level at a time through a neighbour in the level before
+    int[] path = new int[depth + 1];
+    path[depth] = t;
+    for (int d = depth - 1; d >= 0; d--) {
+      fill(frontier, discovered, levelStart[d], levelStart[d + 1]);
+      int k = adjacency.neighbors(path[d + 1], neighbors);
+      for (int j = 0; j < k; j++) {
+        int w = neighbors[j];
+        if ((frontier[w >>> 6] & (1L << w)) != 0) {
+          path[d] = w;
+          break;
+        }
+      }
+    }
+    return path;
+  }
+
+  // makes bits the set of vertices[from..to)
+  private static void fill(long[] bits, int[] vertices, int from, int to) {
+    Arrays.fill(bits, 0L);
+    for (int i = from; i < to; i++) bits[vertices[i] >>> 6] |= 1L << vertices[i];
+  }
+}
@@ -0,0 +1,148 @@
+package synonymnetwork.domain;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Single-pair shortest path by breadth-first search over an {@link Adjacency}. Vertices are visited
+ * in the same order as {@code edu.princeton.cs.algs4.BreadthFirstPaths}, so the path found is
+ * identical, but the search stops as soon as the target is discovered and uses only flat {@code
+ * int} arrays.
+ */
+public final class BreadthFirstPathSearch {
+
+  private BreadthFirstPathSearch() {}
+
+  /**
+   * Finds a shortest path from {@code s} to {@code t}.
+   *
+   * @param adjacency the graph to search
+   * @param s the source vertex
+   * @param t the target vertex
+   * @return the vertices of the path from {@code s} to {@code t} inclusive, or {@code null} if
+   *     {@code t} is not reachable from {@code s}
+   */
+  public static int[] shortestPath(Adjacency adjacency, int s, int t) {
+    return shortestPath(adjacency, s, t, (long[]) null);
+  }
+
+  /**
+   * Finds the same path as {@link #shortestPath(Adjacency, int, int)}, counting the neighbour lists
+   * read (see {@link PathSearch#shortestPath(Adjacency, int, int, long[])}).
+   *
+   * @param adjacency the graph to search
+   * @param s the source vertex
+   * @param t the target vertex
+   * @param expanded has the count added to its first element, or null to not count
+   * @return the vertices of the path, or {@code null} if {@code t} is not reachable from {@code s}
+   */
+  public static int[] shortestPath(Adjacency adjacency, int s, int t, long[] expanded) {
+    if (s == t) return new int[] {s};
+
+    int V = adjacency.V();
+    int[] edgeTo = new int[V];
+    Arrays.fill(edgeTo, -1);
+    int[] queue = new int[V];
+    int[] neighbors = new int[adjacency.maxDegree()];
+    int head = 0;
+    int tail = 0;
+
+    edgeTo[s] = s;
+    queue[tail++] = s;
+    while (head < tail) {
+      int v = queue[head++];
+      int n = adjacency.neighbors(v, neighbors);
+      for (int i = 0; i < n; i++) {
+        int w = neighbors[i];
+        if (edgeTo[w] != -1) continue;
+        edgeTo[w] = v;
+        if (w == t) return counted(pathTo(edgeTo, s, t), expanded, head);
+        queue[tail++] = w;
+      }
+    }
+    return counted(null, expanded, head);
+  }
+
+  /**
+   * Finds the same path as {@link #shortestPath(Adjacency, int, int)}, telling the listener the
+   * size of each level as soon as it is complete, so a caller can show progress on a long search
+   * and stop it when nobody is waiting for the answer any more.
+   *
+   * @param adjacency the graph to search
+   * @param s the source vertex
+   * @param t the target vertex
+   * @param listener told about each level, and asked whether to go on
+   * @return the vertices of the path from {@code s} to {@code t} inclusive, or {@code null} if
+   *     {@code t} is not reachable from {@code s}
+   * @throws CancellationException if the listener abandoned the search
+   */
+  public static int[] shortestPath(
+      Adjacency adjacency, int s, int t, SearchProgressListener listener) {
+    return shortestPath(adjacency, s, t, listener, null);
+  }
+
+  /**
+   * Finds the same path as {@link #shortestPath(Adjacency, int, int, SearchProgressListener)},
+   * counting the neighbour lists read.
+   *
+   * @param adjacency the graph to search
+   * @param s the source vertex
+   * @param t the target vertex
+   * @param listener told about each level, and asked whether to go on
+   * @param expanded has the count added to its first element, or null to not count
+   * @return the vertices of the path, or {@code null} if {@code t} is not reachable from {@code s}
+   * @throws CancellationException if the listener abandoned the search
+   */
+  public static int[] shortestPath(
+      Adjacency adjacency, int s, int t, SearchProgressListener listener, long[] expanded) {
+    if (s == t) return new int[] {s};
+
+    int V = adjacency.V();
+    int[] edgeTo = new int[V];
+    Arrays.fill(edgeTo, -1);
+    int[] queue = new int[V];
+    int[] neighbors = new int[adjacency.maxDegree()];
+    int head = 0;
+    int tail = 0;
+    int level = 0;
+    int levelEnd = 1; // queue[head, levelEnd) is the level being expanded
+
+    edgeTo[s] = s;
+    queue[tail++] = s;
+    while (head < tail) {
+      if (head == levelEnd) {
+        // everything at the next distance has now been queued
+        level++;
+        if (!listener.levelReached(level, tail - levelEnd)) {
+          throw new CancellationException("Search abandoned at level " + level);
+        }
+        levelEnd = tail;
+      }
+      int v = queue[head++];
+      int n = adjacency.neighbors(v, neighbors);
+      for (int i = 0; i < n; i++) {
+        int w = neighbors[i];
+        if (edgeTo[w] != -1) continue;
+        edgeTo[w] = v;
+        if (w == t) return counted(pathTo(edgeTo, s, t), expanded, head);
+        queue[tail++] = w;
+      }
+    }
+    return counted(null, expanded, head);
+  }
+
+  // every vertex taken off the queue had its neighbour list read once
+  private static int[] counted(int[] path, long[] expanded, int dequeued) {
+    if (expanded != null) expanded[0] += dequeued;
+    return path;
+  }
+
+  // walks the parent links back from t and returns them in source-to-target order
+  static int[] pathTo(int[] edgeTo, int s, int t) {
+    int length = 1;
+    for (int x = t; x != s; x = edgeTo[x]) length++;
+    int[] path = new int[length];
+    for (int x = t, i = length - 1; i >= 0; x = edgeTo[x], i--) path[i] = x;
+    return path;
+  }
+}
@@ -0,0 +1,24 @@
+package synonymnetwork.domain;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/** Flight recorder event for looking up a word's definition. */
+@Name("synonymnetwork.DefinitionLookup")
+@Label("Definition Lookup")
+@Category("Synonym Network")
+@Description("A lookup in the word definitions")
+@StackTrace(false)
+@Threshold("5 ms")
+class DefinitionLookupEvent extends Event {
+  @Label("Word")
+  String word;
+
+  @Label("Found")
+  boolean found;
+}
@@ -0,0 +1,423 @@
+package synonymnetwork.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Words and synonym links added or removed at runtime on top of an immutable {@link
+ * SymbolGraphMemoryEfficient}, and the {@link Adjacency} of the graph they produce. The base graph
+ * is never modified. Every vertex whose neighbours changed has its whole new list held here, so
+ * {@link #neighbors(int, int[])} answers from the overlay for those few vertices and from the base
+ * for all others, and the searches run over the merged graph as over any other adjacency.
+ *
+ * <p>An overlay is never modified either: each change returns a new overlay and leaves this one as
+ * it was, so a reader holding an overlay sees one consistent graph without taking a lock. The price
+ * is that every change copies the overlay, which is why it is meant to stay small and be folded
+ * into a fresh base with {@link #compact(VertexOrdering, AdjacencyFormat)} once it grows.
+ *
+ * <p>Added words are numbered from the base's <em>V</em> upwards. A removed word loses all its
+ * links and can no longer be looked up by name, but keeps its number until the next compaction.
+ */
+public final class DeltaOverlay implements Adjacency {
+  private static final int[] NO_NEIGHBORS = {};
+
+  private final SymbolGraphMemoryEfficient base;
+  private final Adjacency baseAdjacency;
+  private final EdgeWeights baseWeights;
+  private final int baseV;
+  private final List<String> addedWords; // name of vertex baseV + i
+  private final Map<String, Integer> addedIndex;
+  private final Set<String> removedWords;
+  private final Map<Integer, int[]> lists; // the whole neighbour list of every changed vertex
+  private final Map<Integer, byte[]> costs; // edge costs parallel to lists
+  private final Map<Long, Byte> addedEdges; // cost of each link that is not in the base
+  private long[] changed; // bitset of the vertices in lists
+  private int edges;
+  private int maxDegree;
+  private int changes;
+  private EdgeWeights weights;
+
+  private DeltaOverlay(SymbolGraphMemoryEfficient base, EdgeWeights baseWeights) {
+    this.base = base;
+    this.baseAdjacency = base.adjacency();
+    this.baseWeights = baseWeights;
+    this.baseV = baseAdjacency.V();
+    this.addedWords = new ArrayList<>();
+    this.addedIndex = new HashMap<>();
+    this.removedWords = new HashSet<>();
+    this.lists = new HashMap<>();
+    this.costs = new HashMap<>();
+    this.addedEdges = new HashMap<>();
+    this.changed = new long[(baseV + 63) >>> 6];
+    this.edges = baseAdjacency.E();
+    this.maxDegree = baseAdjacency.maxDegree();
+    this.weights = baseWeights;
+  }
+
+  // a copy of from to apply one more change to before it is handed out
+  private DeltaOverlay(DeltaOverlay from) {
+    this.base = from.base;
+    this.baseAdjacency = from.baseAdjacency;
+    this.baseWeights = from.baseWeights;
+    this.baseV = from.baseV;
+    this.addedWords = new ArrayList<>(from.addedWords);
+    this.addedIndex = new HashMap<>(from.addedIndex);
+    this.removedWords = new HashSet<>(from.removedWords);
+    this.lists = new HashMap<>(from.lists);
+    this.costs = new HashMap<>(from.costs);
+    this.addedEdges = new HashMap<>(from.addedEdges);
+    this.changed = from.changed.clone();
+    this.edges = from.edges;
+    this.maxDegree = from.maxDegree;
+    this.changes = from.changes + 1;
+  }
+
+  /**
+   * Returns an overlay without changes over {@code base}.
+   *
+   * @param base the graph the changes apply to
+   * @param baseWeights the edge costs of {@code base}
+   * @return the empty overlay
+   */
+  public static DeltaOverlay over(SymbolGraphMemoryEfficient base, EdgeWeights baseWeights) {
+    return new DeltaOverlay(base, baseWeights);
+  }
+
+  /** Returns whether no change has been applied on top of the base. */
+  public boolean isEmpty() {
+    return changes == 0;
+  }
+
+  /** Returns the number of changes applied on top of the base. */
+  public int size() {
+    return changes;
+  }
+
+  /**
+   * Does the changed graph contain the word {@code word}?
+   *
+   * @param word the word
+   * @return true if the word is in the base and not removed, or was added
+   */
+  public boolean contains(String word) {
+    if (removedWords.contains(word)) return false;
+    return addedIndex.containsKey(word) || base.contains(word);
+  }
+
+  /**
+   * Returns the vertex of {@code word}.
+   *
+   * @param word the word
+   * @return its vertex, or -1 if the changed graph does not contain it
+   */
+  public int indexOf(String word) {
+    if (!contains(word)) return -1;
+    Integer added = addedIndex.get(word);
+    return added != null ? added : base.indexOf(word);
+  }
+
+  /**
+   * Returns the word of vertex {@code v}, which may be one added at runtime.
+   *
+   * @param v the vertex
+   * @return its word
+   */
+  public String nameOf(int v) {
+    return v < baseV ? base.nameOf(v) : addedWords.get(v - baseV);
+  }
+
+  /**
+   * Returns whether the neighbours of {@code v} differ from the base, so any ranking computed for
+   * the base no longer describes them.
+   *
+   * @param v the vertex
+   * @return true if a change touched a link of {@code v}
+   */
+  public boolean isChanged(int v) {
+    return (v >>> 6) < changed.length && (changed[v >>> 6] & (1L << v)) != 0;
+  }
+
+  /**
+   * Returns the edge costs of the changed graph. Links from the base keep their base cost; a link
+   * added at runtime is weighed as listed by both words, with the synonyms the two shared when it
+   * was added.
+   *
+   * @return the weights, parallel to this adjacency
+   */
+  public EdgeWeights weights() {
+    return weights;
+  }
+
+  /**
+   * Returns the overlay with {@code word} added as a word without synonyms, or brought back without
+   * its former links if it had been removed.
+   *
+   * @param word the word
+   * @return the new overlay, or this one if the word is already in the graph
+   */
+  public DeltaOverlay withWord(String word) {
+    if (contains(word)) return this;
+    DeltaOverlay next = new DeltaOverlay(this);
+    if (!next.removedWords.remove(word)) {
+      next.addedIndex.put(word, V());
+      next.addedWords.add(word);
+    }
+    return next.done();
+  }
+
+  /**
+   * Returns the overlay with {@code word} and all its links removed.
+   *
+   * @param word the word
+   * @return the new overlay
+   * @throws IllegalArgumentException if the graph does not contain the word
+   */
+  public DeltaOverlay withoutWord(String word) {
+    int v = vertex(word);
+    int[] old = neighborsOf(v);
+    DeltaOverlay next = new DeltaOverlay(this);
+    int selfLoops = 0;
+    for (int w : old) {
+      if (w == v) {
+        selfLoops++;
+        continue;
+      }
+      next.addedEdges.remove(SymbolGraphMemoryEfficient.pairKey(v, w));
+      next.setList(w, without(next.neighborsOf(w), v));
+      next.recost(w);
+    }
+    next.addedEdges.remove(SymbolGraphMemoryEfficient.pairKey(v, v));
+    next.setList(v, NO_NEIGHBORS);
+    next.recost(v);
+    next.edges -= old.length - selfLoops + selfLoops / 2; // a self-loop is listed twice
+    next.removedWords.add(word);
+    return next.done();
+  }
+
+  /**
+   * Returns the overlay with a synonym link between {@code word1} and {@code word2}.
+   *
+   * @param word1 one word
+   * @param word2 the other word
+   * @return the new overlay, or this one if the words are already linked
+   * @throws IllegalArgumentException if either word is missing or both are the same word
+   */
+  public DeltaOverlay withEdge(String word1, String word2) {
+    int v = vertex(word1);
+    int w = vertex(word2);
+    if (v == w) throw new IllegalArgumentException("A word cannot be its own synonym");
+    if (hasEdge(v, w)) return this;
+    DeltaOverlay next = new DeltaOverlay(this);
+    next.setList(v, with(neighborsOf(v), w));
+    next.setList(w, with(neighborsOf(w), v));
+    next.edges++;
+    if (!inBase(v, w)) {
+      byte cost = (byte) EdgeWeights.cost(true, next.sharedNeighbors(v, w));
+      next.addedEdges.put(SymbolGraphMemoryEfficient.pairKey(v, w), cost);
+    }
+    next.recost(v);
+    next.recost(w);
+    return next.done();
+  }
+
+  /**
+   * Returns the overlay without the synonym link between {@code word1} and {@code word2}.
+   *
+   * @param word1 one word
+   * @param word2 the other word
+   * @return the new overlay, or this one if the words are not linked
+   * @throws IllegalArgumentException if either word is missing
+   */
+  public DeltaOverlay withoutEdge(String word1, String word2) {
+    int v = vertex(word1);
+    int w = vertex(word2);
+    if (!hasEdge(v, w)) return this;
+    DeltaOverlay next = new DeltaOverlay(this);
+    next.addedEdges.remove(SymbolGraphMemoryEfficient.pairKey(v, w));
+    next.setList(v, without(neighborsOf(v), w));
+    if (v != w) next.setList(w, without(neighborsOf(w), v));
+    next.edges--;
+    next.recost(v);
+    next.recost(w);
+    return next.done();
+  }
+
+  /**
+   * Builds a new base graph holding the changed graph, with the removed words dropped and the
+   * vertices renumbered. Links added at runtime count as listed by both words from then on.
+   *
+   * @param ordering the vertex numbering of the new base
+   * @param format the adjacency format of the new base
+   * @return the new base graph
+   */
+  public SymbolGraphMemoryEfficient compact(VertexOrdering ordering, AdjacencyFormat format) {
+    int V = V();
+    int[] renumbered = new int[V];
+    List<String> keys = new ArrayList<>(V);
+    for (int v = 0; v < V; v++) {
+      String name = nameOf(v);
+      renumbered[v] = removedWords.contains(name) ? -1 : keys.size();
+      if (renumbered[v] >= 0) keys.add(name);
+    }
+
+    int[] from = new int[Math.max(16, E())];
+    int[] to = new int[from.length];
+    int edgeCount = 0;
+    long[] reciprocal = new long[16];
+    int n = 0;
+    int[] neighbors = new int[maxDegree];
+    for (int v = 0; v < V; v++) {
+      if (renumbered[v] < 0) continue;
+      int k = neighbors(v, neighbors);
+      boolean selfLoopPending = false; // a self-loop appears twice in its own adjacency list
+      for (int i = 0; i < k; i++) {
+        int w = neighbors[i];
+        if (v > w || (v == w && !(selfLoopPending = !selfLoopPending))) continue;
+        if (edgeCount == from.length) {
+          from = Arrays.copyOf(from, 2 * edgeCount);
+          to = Arrays.copyOf(to, 2 * edgeCount);
+        }
+        from[edgeCount] = renumbered[v];
+        to[edgeCount++] = renumbered[w];
+        long key = SymbolGraphMemoryEfficient.pairKey(v, w);
+        if (addedEdges.containsKey(key) || base.isReciprocal(v, w)) {
+          if (n == reciprocal.length) reciprocal = Arrays.copyOf(reciprocal, 2 * n);
+          reciprocal[n++] = SymbolGraphMemoryEfficient.pairKey(renumbered[v], renumbered[w]);
+        }
+      }
+    }
+    reciprocal = Arrays.copyOf(reciprocal, n);
+    Arrays.sort(reciprocal);
+    return new SymbolGraphMemoryEfficient(
+        keys.toArray(new String[0]), from, to, edgeCount, reciprocal, ordering, format);
+  }
+
+  @Override
+  public int V() {
+    return baseV + addedWords.size();
+  }
+
+  @Override
+  public int E() {
+    return edges;
+  }
+
+  @Override
+  public int degree(int v) {
+    if (isChanged(v)) return lists.get(v).length;
+    return v < baseV ? baseAdjacency.degree(v) : 0;
+  }
+
+  @Override
+  public int maxDegree() {
+    return maxDegree;
+  }
+
+  @Override
+  public int neighbors(int v, int[] dst) {
+    if (isChanged(v)) {
+      int[] list = lists.get(v);
+      System.arraycopy(list, 0, dst, 0, list.length);
+      return list.length;
+    }
+    return v < baseV ? baseAdjacency.neighbors(v, dst) : 0;
+  }
+
+  @Override
+  public long estimatedBytes() {
+    long bytes = baseAdjacency.estimatedBytes() + 8L * changed.length;
+    for (int[] list : lists.values()) bytes += 16 + 5L * list.length; // the list and its costs
+    return bytes;
+  }
+
+  // the vertex of a word that must be in the graph
+  private int vertex(String word) {
+    int v = indexOf(word);
+    if (v < 0) throw new IllegalArgumentException("Word not in graph: " + word);
+    return v;
+  }
+
+  private int[] neighborsOf(int v) {
+    if (isChanged(v)) return lists.get(v);
+    if (v >= baseV) return NO_NEIGHBORS;
+    int[] list = new int[baseAdjacency.degree(v)];
+    baseAdjacency.neighbors(v, list);
+    return list;
+  }
+
+  private boolean hasEdge(int v, int w) {
+    for (int u : neighborsOf(v)) {
+      if (u == w) return true;
+    }
+    return false;
+  }
+
+  private boolean inBase(int v, int w) {
+    if (v >= baseV || w >= baseV) return false;
+    int[] list = new int[baseAdjacency.degree(v)];
+    int n = baseAdjacency.neighbors(v, list);
+    for (int i = 0; i < n; i++) {
+      if (list[i] == w) return true;
+    }
+    return false;
+  }
+
+  private int sharedNeighbors(int v, int w) {
+    Set<Integer> around = new HashSet<>();
+    for (int u : neighborsOf(v)) around.add(u);
+    int shared = 0;
+    for (int u : neighborsOf(w)) {
+      if (u != v && u != w && around.contains(u)) shared++;
+    }
+    return shared;
+  }
+
+  private void setList(int v, int[] list) {
+    if ((v >>> 6) >= changed.length) changed = Arrays.copyOf(changed, (V() + 63) >>> 6);
+    changed[v >>> 6] |= 1L << v;
+    lists.put(v, list);
+    maxDegree = Math.max(maxDegree, list.length);
+  }
+
+  // costs of v's current list: links from the base keep their base cost
+  private void recost(int v) {
+    int[] list = lists.get(v);
+    Map<Integer, Integer> basePosition = new HashMap<>();
+    if (v < baseV) {
+      int[] old = new int[baseAdjacency.degree(v)];
+      int n = baseAdjacency.neighbors(v, old);
+      for (int j = 0; j < n; j++) basePosition.putIfAbsent(old[j], j);
+    }
+    byte[] cost = new byte[list.length];
+    for (int i = 0; i < list.length; i++) {
+      Byte added = addedEdges.get(SymbolGraphMemoryEfficient.pairKey(v, list[i]));
+      cost[i] = added != null ? added : (byte) baseWeights.weight(v, basePosition.get(list[i]));
+    }
+    costs.put(v, cost);
+  }
+
+  private DeltaOverlay done() {
+    weights = lists.isEmpty() ? baseWeights : baseWeights.withOverrides(changed, costs);
+    return this;
+  }
+
+  private static int[] with(int[] list, int w) {
+    int[] longer = Arrays.copyOf(list, list.length + 1);
+    longer[list.length] = w;
+    return longer;
+  }
+
+  private static int[] without(int[] list, int w) {
+    int[] shorter = new int[list.length];
+    int n = 0;
+    for (int u : list) {
+      if (u != w) shorter[n++] = u;
+    }
+    return Arrays.copyOf(shorter, n);
+  }
+}
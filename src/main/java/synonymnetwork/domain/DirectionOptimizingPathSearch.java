@@ -0,0 +1,240 @@
+package synonymnetwork.domain;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Level-synchronous breadth-first search that chooses a direction for every level (Beamer, Asanović
+ * and Patterson, "Direction-Optimizing Breadth-First Search").
+ *
+ * <ul>
+ *   <li>Top-down levels scan the edges of the frontier, as an ordinary BFS does. Large frontiers
+ *       are split into chunks expanded in parallel; a vertex is claimed by compare-and-set on its
+ *       parent entry, so each is discovered exactly once.
+ *   <li>Bottom-up levels scan the vertices not yet reached and stop at the first neighbour found in
+ *       the frontier bitset. Once the frontier touches a large share of the remaining edges this
+ *       inspects far fewer edges. Each task owns a block of the bitset, so no atomics are needed.
+ * </ul>
+ *
+ * The search switches to bottom-up when the frontier's edges exceed 1/{@value #ALPHA} of the
+ * unexplored edges and back to top-down when the frontier shrinks below 1/{@value #BETA} of the
+ * vertices. Frontiers smaller than {@value #SEQUENTIAL_FRONTIER} vertices are expanded on the
+ * calling thread, so short searches cost about the same as {@link BreadthFirstPathSearch}.
+ */
+public class DirectionOptimizingPathSearch implements PathSearch {
+  private static final int ALPHA = 14;
+  private static final int BETA = 24;
+  private static final int SEQUENTIAL_FRONTIER = 1024;
+  private static final int TOP_DOWN_CHUNK = 256; // frontier vertices per top-down task
+  private static final int BOTTOM_UP_WORDS = 64; // bitset words (4096 vertices) per bottom-up task
+
+  private static final VarHandle PARENT = MethodHandles.arrayElementVarHandle(int[].class);
+
+  private final ForkJoinPool pool;
+
+  /**
+   * Creates a search with its own pool of worker threads.
+   *
+   * @param parallelism number of worker threads; 0 uses every available processor
+   */
+  public DirectionOptimizingPathSearch(int parallelism) {
+    this(
+        new ForkJoinPool(
+            parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors()));
+  }
+
+  /**
+   * Creates a search that runs its parallel levels in {@code pool}.
+   *
+   * @param pool the pool that expands large frontiers
+   */
+  public DirectionOptimizingPathSearch(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  @Override
+  public int[] shortestPath(Adjacency adjacency, int s, int t) {
+    return shortestPath(adjacency, s, t, null);
+  }
+
+  @Override
+  public int[] shortestPath(Adjacency adjacency, int s, int t, long[] expanded) {
+    if (s == t) return new int[] {s};
+
+    int V = adjacency.V();
+    int[] parent = new int[V];
+    Arrays.fill(parent, -1);
+    parent[s] = s;
+
+    Level level = new Level(new int[] {s}, null, 1, adjacency.degree(s));
+    long unexploredEdges = 2L * adjacency.E() - level.edges;
+    boolean bottomUp = false;
+    long visited = 1;
+    long reads = 0;
+    while (level.size > 0) {
+      if (!bottomUp) {
+        bottomUp = level.size >= SEQUENTIAL_FRONTIER && level.edges > unexploredEdges / ALPHA;
+      } else {
+        bottomUp = level.size >= V / BETA;
+      }
+      // top-down reads the frontier's lists, bottom-up those of every vertex not yet visited
+      reads += bottomUp ? V - visited : level.size;
+      level =
+          bottomUp ? bottomUp(adjacency, level.bits(V), parent) : topDown(adjacency, level, parent);
+      visited += level.size;
+      if (parent[t] != -1) {
+        if (expanded != null) expanded[0] += reads;
+        return BreadthFirstPathSearch.pathTo(parent, s, t);
+      }
+      unexploredEdges -= level.edges;
+    }
+    if (expanded != null) expanded[0] += reads;
+    return null;
+  }
+
+  private Level topDown(Adjacency adjacency, Level frontier, int[] parent) {
+    int[] vertices = frontier.vertices();
+    int size = frontier.size;
+    if (size < SEQUENTIAL_FRONTIER) return expand(adjacency, vertices, 0, size, parent);
+
+    int chunks = (size + TOP_DOWN_CHUNK - 1) / TOP_DOWN_CHUNK;
+    Level[] parts =
+        pool.submit(
+                () ->
+                    IntStream.range(0, chunks)
+                        .parallel()
+                        .mapToObj(
+                            c ->
+                                expand(
+                                    adjacency,
+                                    vertices,
+                                    c * TOP_DOWN_CHUNK,
+                                    Math.min(size, (c + 1) * TOP_DOWN_CHUNK),
+                                    parent))
+                        .toArray(Level[]::new))
+            .join();
+
+    int total = 0;
+    long edges = 0;
+    for (Level part : parts) {
+      total += part.size;
+      edges += part.edges;
+    }
+    int[] next = new int[total];
+    int n = 0;
+    for (Level part : parts) {
+      System.arraycopy(part.vertices, 0, next, n, part.size);
+      n += part.size;
+    }
+    return new Level(next, null, total, edges);
+  }
+
+  // claims the unvisited neighbours of frontier[from..to) and returns them as a partial level
+  private static Level expand(Adjacency adjacency, int[] frontier, int from, int to, int[] parent) {
+    int[] neighbors = new int[adjacency.maxDegree()];
+    int[] next = new int[Math.max(16, to - from)];
+    int n = 0;
+    long edges = 0;
+    for (int i = from; i < to; i++) {
+      int v = frontier[i];
+      int k = adjacency.neighbors(v, neighbors);
+      for (int j = 0; j < k; j++) {
+        int w = neighbors[j];
+        if (parent[w] != -1 || !PARENT.compareAndSet(parent, w, -1, v)) continue;
+        if (n == next.length) next = Arrays.copyOf(next, 2 * n);
+        next[n++] = w;
+        edges += adjacency.degree(w);
+      }
+    }
+    return new Level(next, null, n, edges);
+  }
+
+  private Level bottomUp(Adjacency adjacency, long[] frontier, int[] parent) {
+    long[] next = new long[frontier.length];
+    int blocks = (frontier.length + BOTTOM_UP_WORDS - 1) / BOTTOM_UP_WORDS;
+    long[][] counts =
+        pool.submit(
+                () ->
+                    IntStream.range(0, blocks)
+                        .parallel()
+                        .mapToObj(b -> adopt(adjacency, frontier, next, b, parent))
+                        .toArray(long[][]::new))
+            .join();
+
+    int size = 0;
+    long edges = 0;
+    for (long[] count : counts) {
+      size += (int) count[0];
+      edges += count[1];
+    }
+    return new Level(null, next, size, edges);
+  }
+
+  // gives every unvisited vertex of the block a parent in the frontier, if it has one; returns
+  // the number of vertices reached and the sum of their degrees
+  private static long[] adopt(
+      Adjacency adjacency, long[] frontier, long[] next, int block, int[] parent) {
+    int[] neighbors = new int[adjacency.maxDegree()];
+    int from = block * BOTTOM_UP_WORDS * 64;
+    int to = Math.min(adjacency.V(), from + BOTTOM_UP_WORDS * 64);
+    long size = 0;
+    long edges = 0;
+    for (int v = from; v < to; v++) {
+      if (parent[v] != -1) continue;
+      int k = adjacency.neighbors(v, neighbors);
+      for (int j = 0; j < k; j++) {
+        int w = neighbors[j];
+        if ((frontier[w >>> 6] & (1L << w)) != 0) {
+          parent[v] = w;
+          next[v >>> 6] |= 1L << v;
+          size++;
+          edges += k;
+          break;
+        }
+      }
+    }
+    return new long[] {size, edges};
+  }
+
+  /**
+   * One level of the search, held as a vertex list (after top-down steps) or a bitset (after
+   * bottom-up steps) and converted on demand when the direction changes.
+   */
+  private static final class Level {
+    private int[] vertices;
+    private long[] bits;
+    final int size;
+    final long edges; // sum of the degrees of the level's vertices
+
+    Level(int[] vertices, long[] bits, int size, long edges) {
+      this.vertices = vertices;
+      this.bits = bits;
+      this.size = size;
+      this.edges = edges;
+    }
+
+    int[] vertices() {
+      if (vertices == null) {
+        vertices = new int[size];
+        int n = 0;
+        for (int word = 0; word < bits.length; word++) {
+          for (long b = bits[word]; b != 0; b &= b - 1) {
+            vertices[n++] = (word << 6) + Long.numberOfTrailingZeros(b);
+          }
+        }
+      }
+      return vertices;
+    }
+
+    long[] bits(int V) {
+      if (bits == null) {
+        bits = new long[(V + 63) >>> 6];
+        for (int i = 0; i < size; i++) bits[vertices[i] >>> 6] |= 1L << vertices[i];
+      }
+      return bits;
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package synonymnetwork.domain;
+
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+/**
+ * Pools of word pairs bucketed by shortest-path distance, for handing out puzzles of a chosen
+ * difficulty without searching at request time. Each level 1 through {@link #maxLevel()} is a
+ * bounded ring buffer of vertex pairs packed into {@code long}s; taking a pair removes it, so
+ * callers never see the same pair twice until it is sampled again.
+ *
+ * <p>Pairs are produced by {@link #sampleFrom(Adjacency, int, Random, int)}, which runs one
+ * breadth-first search from a source vertex and files a few randomly chosen vertices from each
+ * level of the BFS tree.
+ */
+public class DistancePairIndex {
+  private final int capacity;
+  private final long[][] rings; // rings[level - 1]
+  private final int[] heads;
+  private final int[] sizes;
+
+  /**
+   * Creates an empty index.
+   *
+   * @param maxLevel the largest distance kept
+   * @param capacity how many pairs each level holds at most
+   */
+  public DistancePairIndex(int maxLevel, int capacity) {
+    this.capacity = capacity;
+    this.rings = new long[maxLevel][capacity];
+    this.heads = new int[maxLevel];
+    this.sizes = new int[maxLevel];
+  }
+
+  /** Returns the largest distance this index keeps pairs for. */
+  public int maxLevel() {
+    return rings.length;
+  }
+
+  /** Returns how many pairs each level holds at most. */
+  public int capacity() {
+    return capacity;
+  }
+
+  /** Returns how many pairs are waiting at {@code level}. */
+  public synchronized int size(int level) {
+    return sizes[level - 1];
+  }
+
+  /**
+   * Adds a pair at distance {@code level} unless that level is full.
+   *
+   * @return whether the pair was added
+   */
+  public synchronized boolean offer(int level, int source, int target) {
+    int i = level - 1;
+    if (sizes[i] == capacity) return false;
+    rings[i][(heads[i] + sizes[i]) % capacity] = ((long) source << 32) | (target & 0xFFFFFFFFL);
+    sizes[i]++;
+    return true;
+  }
+
+  /**
+   * Removes up to {@code count} pairs at distance {@code level}, in constant time per pair.
+   *
+   * @param level the distance of the pairs
+   * @param count the most pairs to remove
+   * @return the pairs, each a {@code {source, target}} array; fewer than {@code count} if the level
+   *     is running low
+   */
+  public synchronized int[][] take(int level, int count) {
+    int i = level - 1;
+    int n = Math.min(count, sizes[i]);
+    int[][] pairs = new int[n][];
+    for (int k = 0; k < n; k++) {
+      long packed = rings[i][heads[i]];
+      pairs[k] = new int[] {(int) (packed >>> 32), (int) packed};
+      heads[i] = (heads[i] + 1) % capacity;
+      sizes[i]--;
+    }
+    return pairs;
+  }
+
+  /**
+   * Returns the lowest level holding fewer than {@code threshold} pairs, or 0 if none does.
+   *
+   * @param threshold the fill level below which a level needs pairs
+   */
+  public int neediestLevel(int threshold) {
+    return neediestLevel(threshold, level -> false);
+  }
+
+  /**
+   * Returns the lowest level holding fewer than {@code threshold} pairs, leaving out the levels
+   * {@code skip} accepts, or 0 if none does.
+   *
+   * @param threshold the fill level below which a level needs pairs
+   * @param skip tells which levels not to consider
+   */
+  public synchronized int neediestLevel(int threshold, IntPredicate skip) {
+    int neediest = 0;
+    for (int i = 0; i < sizes.length; i++) {
+      if (skip.test(i + 1)) continue;
+      if (sizes[i] < threshold && (neediest == 0 || sizes[i] < sizes[neediest - 1])) {
+        neediest = i + 1;
+      }
+    }
+    return neediest;
+  }
+
+  /**
+   * Runs a breadth-first search from {@code source} and offers up to {@code perLevel} random
+   * targets from each level of its BFS tree.
+   *
+   * @param adjacency the graph to search
+   * @param source the vertex the pairs start from
+   * @param random source of the target choices
+   * @param perLevel the most pairs to add per distance
+   * @return how many pairs were added
+   */
+  public int sampleFrom(Adjacency adjacency, int source, Random random, int perLevel) {
+    int V = adjacency.V();
+    boolean[] marked = new boolean[V];
+    int[] queue = new int[V];
+    int[] neighbors = new int[adjacency.maxDegree()];
+    int head = 0;
+    int tail = 0;
+    marked[source] = true;
+    queue[tail++] = source;
+
+    // the queue holds each BFS level as one contiguous run, so expanding the run at distance
+    // level - 1 leaves exactly the vertices at distance level in queue[levelStart..tail)
+    int added = 0;
+    for (int level = 1; level <= maxLevel() && head < tail; level++) {
+      int levelStart = tail;
+      while (head < levelStart) {
+        int n = adjacency.neighbors(queue[head++], neighbors);
+        for (int i = 0; i < n; i++) {
+          if (!marked[neighbors[i]]) {
+            marked[neighbors[i]] = true;
+            queue[tail++] = neighbors[i];
+          }
+        }
+      }
+      int width = tail - levelStart;
+      for (int k = 0; k < Math.min(perLevel, width); k++) {
+        if (offer(level, source, queue[levelStart + random.nextInt(width)])) added++;
+      }
+    }
+    return added;
+  }
+}
@@ -0,0 +1,111 @@
+package synonymnetwork.domain;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Integer cost of every edge, kept in one {@code byte[]} parallel to the adjacency: the cost of the
+ * {@code i}-th neighbour reported by {@link Adjacency#neighbors(int, int[])} for {@code v} is
+ * {@link #weight(int, int) weight(v, i)}. Costs are small so that weighted searches can use a
+ * bucket queue (see {@link WeightedPathSearch}).
+ *
+ * <p>A cost is low when the link between two words is strong:
+ *
+ * <ul>
+ *   <li>1 as the base cost of any edge;
+ *   <li>+2 when only one of the two words lists the other in the thesaurus;
+ *   <li>+1 when they share only one or two synonyms, +2 when they share none.
+ * </ul>
+ *
+ * So the cost ranges from 1, for mutually listed words with overlapping synonyms, to {@value
+ * #MAX_WEIGHT}.
+ */
+public class EdgeWeights {
+  public static final int MAX_WEIGHT = 5;
+
+  private final int[] offsets; // weights of v's neighbours start at offsets[v]
+  private final byte[] weights;
+  private final long[] replaced; // bitset of vertices whose weights come from overrides, or null
+  private final Map<Integer, byte[]> overrides;
+
+  private EdgeWeights(
+      int[] offsets, byte[] weights, long[] replaced, Map<Integer, byte[]> overrides) {
+    this.offsets = offsets;
+    this.weights = weights;
+    this.replaced = replaced;
+    this.overrides = overrides;
+  }
+
+  /**
+   * Derives the cost of every edge of {@code sg} from reciprocal listing and shared neighbours.
+   *
+   * @param sg the symbol graph, whose adjacency order the weights follow
+   * @return the weights
+   */
+  public static EdgeWeights of(SymbolGraphMemoryEfficient sg) {
+    Adjacency adjacency = sg.adjacency();
+    int V = adjacency.V();
+    int[] offsets = new int[V + 1];
+    for (int v = 0; v < V; v++) offsets[v + 1] = offsets[v] + adjacency.degree(v);
+    byte[] weights = new byte[offsets[V]];
+
+    int[] neighbors = new int[adjacency.maxDegree()];
+    int[] other = new int[adjacency.maxDegree()];
+    int[] mark = new int[V];
+    Arrays.fill(mark, -1);
+    for (int v = 0; v < V; v++) {
+      int n = adjacency.neighbors(v, neighbors);
+      for (int i = 0; i < n; i++) mark[neighbors[i]] = v;
+      for (int i = 0; i < n; i++) {
+        int w = neighbors[i];
+        int m = adjacency.neighbors(w, other);
+        int shared = 0;
+        for (int j = 0; j < m; j++) {
+          if (other[j] != v && other[j] != w && mark[other[j]] == v) shared++;
+        }
+        weights[offsets[v] + i] = (byte) cost(sg.isReciprocal(v, w), shared);
+      }
+    }
+    return new EdgeWeights(offsets, weights, null, null);
+  }
+
+  /**
+   * Returns the cost of an edge from the two properties it is weighed by.
+   *
+   * @param reciprocal whether both words list each other
+   * @param shared the number of synonyms the two words have in common
+   * @return the cost, between 1 and {@value #MAX_WEIGHT}
+   */
+  static int cost(boolean reciprocal, int shared) {
+    int weight = 1;
+    if (!reciprocal) weight += 2;
+    if (shared == 0) weight += 2;
+    else if (shared < 3) weight += 1;
+    return weight;
+  }
+
+  /**
+   * Returns weights that take the costs of the vertices in {@code replaced} from {@code overrides}
+   * and all others from these weights, for an adjacency in which only those vertices' neighbour
+   * lists differ (see {@link DeltaOverlay}).
+   *
+   * @param replaced bitset of the vertices with their own costs
+   * @param overrides costs of each replaced vertex, parallel to its new neighbour list
+   * @return the combined weights; this object is not modified
+   */
+  EdgeWeights withOverrides(long[] replaced, Map<Integer, byte[]> overrides) {
+    return new EdgeWeights(offsets, weights, replaced, overrides);
+  }
+
+  /**
+   * Returns the cost of the edge to the {@code i}-th neighbour of {@code v}.
+   *
+   * @param v the vertex
+   * @param i position in the neighbour list of {@code v}
+   * @return the cost, between 1 and {@value #MAX_WEIGHT}
+   */
+  public int weight(int v, int i) {
+    if (replaced != null && (replaced[v >>> 6] & (1L << v)) != 0) return overrides.get(v)[i];
+    return weights[offsets[v] + i];
+  }
+}
@@ -0,0 +1,62 @@
+package synonymnetwork.domain;
+
+import edu.princeton.cs.algs4.Graph;
+
+/** {@link Adjacency} view over an algs4 {@link Graph}, iterating each bag in its native order. */
+public class GraphAdjacency implements Adjacency {
+  // per entry: one Bag node (header + item + next) plus a boxed Integer outside the small cache
+  private static final int BYTES_PER_ENTRY = 40;
+  private static final int BYTES_PER_VERTEX = 32;
+
+  private final Graph graph;
+  private final int maxDegree;
+
+  public GraphAdjacency(Graph graph) {
+    this.graph = graph;
+    int max = 0;
+    for (int v = 0; v < graph.V(); v++) max = Math.max(max, graph.degree(v));
+    this.maxDegree = max;
+  }
+
+  /** Returns the wrapped graph. It is the client's responsibility not to mutate it. */
+  public Graph graph() {
+    return graph;
+  }
+
+  @Override
+  public int V() {
+    return graph.V();
+  }
+
+  @Override
+  public int E() {
+    return graph.E();
+  }
+
+  @Override
+  public int degree(int v) {
+    return graph.degree(v);
+  }
+
+  @Override
+  public int maxDegree() {
+    return maxDegree;
+  }
+
+  @Override
+  public int neighbors(int v, int[] dst) {
+    int n = 0;
+    for (int w : graph.adj(v)) dst[n++] = w;
+    return n;
+  }
+
+  @Override
+  public Iterable<Integer> adj(int v) {
+    return graph.adj(v);
+  }
+
+  @Override
+  public long estimatedBytes() {
+    return (long) graph.V() * BYTES_PER_VERTEX + 2L * graph.E() * BYTES_PER_ENTRY;
+  }
+}
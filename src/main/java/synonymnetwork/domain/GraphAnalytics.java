@@ -0,0 +1,227 @@
+package synonymnetwork.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Whole-graph measurements of a {@link SymbolGraphMemoryEfficient}: degree distribution, connected
+ * components, an approximate diameter and the most central words. Per-vertex work (degrees and
+ * PageRank) runs as parallel streams inside a caller-supplied {@link ForkJoinPool}, so the analysis
+ * never competes with request threads for the common pool.
+ */
+public final class GraphAnalytics {
+  private static final double DAMPING = 0.85;
+  private static final int MAX_PAGE_RANK_ITERATIONS = 50;
+  private static final double PAGE_RANK_TOLERANCE = 1e-9;
+  private static final int DIAMETER_SWEEPS = 4;
+
+  private GraphAnalytics() {}
+
+  /**
+   * Computes the statistics of {@code sg}.
+   *
+   * @param sg the graph to analyse
+   * @param changes the runtime changes folded into {@code sg}, reported with the statistics
+   * @param pool the pool that runs the parallel phases
+   * @param hubCount how many top-ranked words to report
+   * @return the statistics
+   */
+  public static GraphStatistics analyze(
+      SymbolGraphMemoryEfficient sg, long changes, ForkJoinPool pool, int hubCount) {
+    long start = System.nanoTime();
+    Adjacency adjacency = sg.adjacency();
+    int V = adjacency.V();
+
+    int[] degrees =
+        pool.submit(() -> IntStream.range(0, V).parallel().map(adjacency::degree).toArray()).join();
+    SortedMap<Integer, Integer> degreeHistogram = histogram(degrees);
+    int maxDegree = V == 0 ? 0 : degreeHistogram.lastKey();
+
+    int[] component = new int[V];
+    int[] componentSizes = components(adjacency, component);
+    int largest = 0;
+    for (int c = 1; c < componentSizes.length; c++) {
+      if (componentSizes[c] > componentSizes[largest]) largest = c;
+    }
+    int[] diameter = approximateDiameter(adjacency, component, largest, pool);
+
+    double[] rank = pageRank(adjacency, degrees, pool);
+    List<GraphStatistics.Hub> hubs = new ArrayList<>();
+    for (int v : topVertices(rank, hubCount)) {
+      hubs.add(new GraphStatistics.Hub(sg.nameOf(v), degrees[v], rank[v]));
+    }
+
+    return new GraphStatistics(
+        V,
+        adjacency.E(),
+        V == 0 ? 0 : 2.0 * adjacency.E() / V,
+        maxDegree,
+        degreeHistogram,
+        componentSizes.length,
+        componentSizes.length == 0 ? 0 : componentSizes[largest],
+        histogram(componentSizes),
+        diameter[0],
+        diameter[0] < 0 ? List.of() : List.of(sg.nameOf(diameter[1]), sg.nameOf(diameter[2])),
+        hubs,
+        (System.nanoTime() - start) / 1_000_000,
+        changes);
+  }
+
+  // value -> number of occurrences
+  private static SortedMap<Integer, Integer> histogram(int[] values) {
+    SortedMap<Integer, Integer> histogram = new TreeMap<>();
+    for (int value : values) histogram.merge(value, 1, Integer::sum);
+    return histogram;
+  }
+
+  // labels every vertex with its component and returns the size of each component
+  private static int[] components(Adjacency adjacency, int[] component) {
+    int V = adjacency.V();
+    Arrays.fill(component, -1);
+    int[] queue = new int[V];
+    int[] neighbors = new int[adjacency.maxDegree()];
+    int[] sizes = new int[16];
+    int count = 0;
+    for (int root = 0; root < V; root++) {
+      if (component[root] != -1) continue;
+      int head = 0;
+      int tail = 0;
+      component[root] = count;
+      queue[tail++] = root;
+      while (head < tail) {
+        int n = adjacency.neighbors(queue[head++], neighbors);
+        for (int i = 0; i < n; i++) {
+          if (component[neighbors[i]] == -1) {
+            component[neighbors[i]] = count;
+            queue[tail++] = neighbors[i];
+          }
+        }
+      }
+      if (count == sizes.length) sizes = Arrays.copyOf(sizes, 2 * count);
+      sizes[count++] = tail;
+    }
+    return Arrays.copyOf(sizes, count);
+  }
+
+  /**
+   * Estimates the diameter of one component by double-sweep BFS: from a start vertex, find the
+   * farthest vertex u, then the eccentricity of u is a lower bound on the diameter that is usually
+   * tight in sparse graphs. Several sweeps from different starts run in parallel and the best bound
+   * wins. Returns {bound, endpoint, endpoint}, or {-1, -1, -1} for an empty graph.
+   */
+  private static int[] approximateDiameter(
+      Adjacency adjacency, int[] component, int target, ForkJoinPool pool) {
+    int[] members =
+        IntStream.range(0, component.length).filter(v -> component[v] == target).toArray();
+    if (members.length == 0) return new int[] {-1, -1, -1};
+    int sweeps = Math.min(DIAMETER_SWEEPS, members.length);
+    return pool.submit(
+            () ->
+                IntStream.range(0, sweeps)
+                    .parallel()
+                    .mapToObj(
+                        i -> {
+                          int startVertex = members[(int) ((long) i * members.length / sweeps)];
+                          int[] first = farthest(adjacency, startVertex);
+                          int[] second = farthest(adjacency, first[0]);
+                          return new int[] {second[1], first[0], second[0]};
+                        })
+                    .reduce((a, b) -> a[0] >= b[0] ? a : b)
+                    .get())
+        .join();
+  }
+
+  // returns {farthest vertex from s, its distance}
+  private static int[] farthest(Adjacency adjacency, int s) {
+    int[] distTo = new int[adjacency.V()];
+    Arrays.fill(distTo, -1);
+    int[] queue = new int[adjacency.V()];
+    int[] neighbors = new int[adjacency.maxDegree()];
+    int head = 0;
+    int tail = 0;
+    distTo[s] = 0;
+    queue[tail++] = s;
+    while (head < tail) {
+      int v = queue[head++];
+      int n = adjacency.neighbors(v, neighbors);
+      for (int i = 0; i < n; i++) {
+        int w = neighbors[i];
+        if (distTo[w] == -1) {
+          distTo[w] = distTo[v] + 1;
+          queue[tail++] = w;
+        }
+      }
+    }
+    int last = queue[tail - 1];
+    return new int[] {last, distTo[last]};
+  }
+
+  /**
+   * PageRank by pull-style power iteration: each vertex sums the shares of its neighbours, so every
+   * vertex is written by exactly one task and no synchronisation is needed. Rank held by isolated
+   * vertices is spread evenly over the graph.
+   */
+  private static double[] pageRank(Adjacency adjacency, int[] degrees, ForkJoinPool pool) {
+    int V = adjacency.V();
+    double[] rank = new double[V];
+    if (V == 0) return rank;
+    Arrays.fill(rank, 1.0 / V);
+    double[] next = new double[V];
+    double[] share = new double[V];
+    ThreadLocal<int[]> buffers = ThreadLocal.withInitial(() -> new int[adjacency.maxDegree()]);
+
+    for (int iteration = 0; iteration < MAX_PAGE_RANK_ITERATIONS; iteration++) {
+      double[] current = rank;
+      double dangling =
+          pool.submit(
+                  () ->
+                      IntStream.range(0, V)
+                          .parallel()
+                          .mapToDouble(
+                              v -> {
+                                if (degrees[v] == 0) return current[v];
+                                share[v] = current[v] / degrees[v];
+                                return 0;
+                              })
+                          .sum())
+              .join();
+      double base = (1 - DAMPING) / V + DAMPING * dangling / V;
+      double[] target = next;
+      double change =
+          pool.submit(
+                  () ->
+                      IntStream.range(0, V)
+                          .parallel()
+                          .mapToDouble(
+                              v -> {
+                                int[] neighbors = buffers.get();
+                                int n = adjacency.neighbors(v, neighbors);
+                                double sum = 0;
+                                for (int i = 0; i < n; i++) sum += share[neighbors[i]];
+                                target[v] = base + DAMPING * sum;
+                                return Math.abs(target[v] - current[v]);
+                              })
+                          .sum())
+              .join();
+      next = rank;
+      rank = target;
+      if (change < PAGE_RANK_TOLERANCE) break;
+    }
+    return rank;
+  }
+
+  // indices of the k largest values, largest first
+  private static int[] topVertices(double[] values, int k) {
+    return IntStream.range(0, values.length)
+        .boxed()
+        .sorted((a, b) -> Double.compare(values[b], values[a]))
+        .limit(k)
+        .mapToInt(Integer::intValue)
+        .toArray();
+  }
+}
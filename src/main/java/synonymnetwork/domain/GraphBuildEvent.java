@@ -0,0 +1,46 @@
+package synonymnetwork.domain;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one phase of building a {@link SynonymGraph}, at startup or when
+ * runtime changes are compacted. Phases are recorded whatever their duration by default.
+ */
+@Name("synonymnetwork.GraphBuild")
+@Label("Graph Build Phase")
+@Category("Synonym Network")
+@Description("One phase of building the synonym graph")
+@StackTrace(false)
+class GraphBuildEvent extends Event {
+  @Label("Phase")
+  String phase;
+
+  @Label("Vertices")
+  int vertices;
+
+  @Label("Edges")
+  int edges;
+
+  /** Starts timing a phase. */
+  static GraphBuildEvent start(String phase) {
+    GraphBuildEvent event = new GraphBuildEvent();
+    event.phase = phase;
+    event.begin();
+    return event;
+  }
+
+  /** Ends the phase and records it with the size of the graph it worked on. */
+  void finish(Adjacency graph) {
+    end();
+    if (shouldCommit()) {
+      vertices = graph.V();
+      edges = graph.E();
+      commit();
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package synonymnetwork.domain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One runtime edit of the synonym graph, as applied by {@link SynonymGraph#apply(GraphChange)}.
+ * Changes are written to the change log one per line, as the type and the words separated by tabs,
+ * which is why a word may not contain a tab or a line break.
+ *
+ * @param type what the change does
+ * @param word1 the word added or removed, or one end of the link
+ * @param word2 the other end of the link, or null for word changes
+ */
+public record GraphChange(Type type, String word1, String word2) {
+
+  /** The kinds of change. */
+  public enum Type {
+    ADD_WORD,
+    REMOVE_WORD,
+    ADD_EDGE,
+    REMOVE_EDGE
+  }
+
+  public GraphChange {
+    if (type == null) throw new IllegalArgumentException("A change needs a type");
+    checkWord(word1);
+    boolean edge = type == Type.ADD_EDGE || type == Type.REMOVE_EDGE;
+    if (edge) checkWord(word2);
+    else if (word2 != null) throw new IllegalArgumentException(type + " takes one word");
+  }
+
+  private static void checkWord(String word) {
+    if (word == null || word.isBlank()) throw new IllegalArgumentException("Word is blank");
+    if (word.indexOf('\t') >= 0 || word.indexOf('\n') >= 0 || word.indexOf('\r') >= 0) {
+      throw new IllegalArgumentException("Word contains a tab or line break");
+    }
+  }
+
+  public static GraphChange addWord(String word) {
+    return new GraphChange(Type.ADD_WORD, word, null);
+  }
+
+  public static GraphChange removeWord(String word) {
+    return new GraphChange(Type.REMOVE_WORD, word, null);
+  }
+
+  public static GraphChange addEdge(String word1, String word2) {
+    return new GraphChange(Type.ADD_EDGE, word1, word2);
+  }
+
+  public static GraphChange removeEdge(String word1, String word2) {
+    return new GraphChange(Type.REMOVE_EDGE, word1, word2);
+  }
+
+  /**
+   * Parses a line written by {@link #toLine()}.
+   *
+   * @param line one line of the change log
+   * @return the change
+   * @throws IllegalArgumentException if the line is not a valid change
+   */
+  public static GraphChange parse(String line) {
+    String[] fields = line.split("\t", -1);
+    if (fields.length < 2 || fields.length > 3) {
+      throw new IllegalArgumentException("Malformed change: " + line);
+    }
+    return new GraphChange(
+        Type.valueOf(fields[0]), fields[1], fields.length == 3 ? fields[2] : null);
+  }
+
+  /** Returns the change as one line of the change log, without the line break. */
+  public String toLine() {
+    return word2 == null ? type + "\t" + word1 : type + "\t" + word1 + "\t" + word2;
+  }
+
+  /**
+   * Reduces a sequence of changes to the fewest with the same effect, for rewriting the change log.
+   * Every change is taken to have changed the graph when it was made, as the log records only
+   * those, so the first change to a word or link tells whether it was there before the sequence and
+   * the last whether it is there after; one added and removed again drops out. Removing a word
+   * removes its links, so link changes made before a word's last removal drop out too.
+   *
+   * @param changes the changes in the order they were made
+   * @return word removals, then word additions, then link changes, each in first-seen order
+   */
+  public static List<GraphChange> fold(List<GraphChange> changes) {
+    // per word its first and last change
+    Map<String, Type[]> words = new LinkedHashMap<>();
+    // per unordered pair of words its first and last change since either was last removed
+    Map<List<String>, Type[]> links = new LinkedHashMap<>();
+    Map<String, List<List<String>>> linksOf = new HashMap<>();
+    for (GraphChange change : changes) {
+      switch (change.type) {
+        case ADD_WORD, REMOVE_WORD -> {
+          words.computeIfAbsent(change.word1, word -> new Type[] {change.type, null})[1] =
+              change.type;
+          if (change.type == Type.REMOVE_WORD) {
+            List<List<String>> dropped = linksOf.remove(change.word1);
+            if (dropped != null) links.keySet().removeAll(dropped);
+          }
+        }
+        case ADD_EDGE, REMOVE_EDGE -> {
+          List<String> pair =
+              change.word1.compareTo(change.word2) <= 0
+                  ? List.of(change.word1, change.word2)
+                  : List.of(change.word2, change.word1);
+          Type[] firstLast = links.get(pair);
+          if (firstLast == null) {
+            links.put(pair, firstLast = new Type[] {change.type, null});
+            linksOf.computeIfAbsent(change.word1, word -> new ArrayList<>()).add(pair);
+            linksOf.computeIfAbsent(change.word2, word -> new ArrayList<>()).add(pair);
+          }
+          firstLast[1] = change.type;
+        }
+      }
+    }
+
+    List<GraphChange> folded = new ArrayList<>();
+    // a word there before was removed at some point, which dropped its links, even if it is back
+    words.forEach(
+        (word, firstLast) -> {
+          if (firstLast[0] == Type.REMOVE_WORD) folded.add(removeWord(word));
+        });
+    words.forEach(
+        (word, firstLast) -> {
+          if (firstLast[1] == Type.ADD_WORD) folded.add(addWord(word));
+        });
+    // a link whose first and last change differ is as it was before
+    links.forEach(
+        (pair, firstLast) -> {
+          if (firstLast[0] == firstLast[1]) {
+            folded.add(new GraphChange(firstLast[1], pair.get(0), pair.get(1)));
+          }
+        });
+    return folded;
+  }
+
+  // the overlay with this change applied
+  DeltaOverlay applyTo(DeltaOverlay overlay) {
+    return switch (type) {
+      case ADD_WORD -> overlay.withWord(word1);
+      case REMOVE_WORD -> overlay.withoutWord(word1);
+      case ADD_EDGE -> overlay.withEdge(word1, word2);
+      case REMOVE_EDGE -> overlay.withoutEdge(word1, word2);
+    };
+  }
+}
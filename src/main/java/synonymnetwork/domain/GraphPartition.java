@@ -0,0 +1,245 @@
+package synonymnetwork.domain;
+
+import edu.princeton.cs.algs4.In;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The neighbour lists of the vertices one shard owns, when the graph is split across several
+ * processes. Vertex {@code v} belongs to shard {@code v % shards}, which spreads the thesaurus'
+ * alphabetical runs of related words evenly; every shard numbers the vertices as the whole graph
+ * does, so the shards and their coordinator must load the same thesaurus with the same vertex
+ * ordering. A partition is either copied out of a loaded graph or read straight from the thesaurus,
+ * which keeps only the owned rows in memory.
+ */
+public final class GraphPartition {
+  private final int shard;
+  private final int shards;
+  private final int vertices;
+  private final int[] offsets; // rows of the owned vertices, in vertex order
+  private final int[] targets;
+  private final String numbering;
+
+  private GraphPartition(
+      int shard, int shards, int vertices, int[] offsets, int[] targets, String numbering) {
+    this.shard = shard;
+    this.shards = shards;
+    this.vertices = vertices;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.numbering = numbering;
+  }
+
+  /**
+   * Copies the rows a shard owns out of the whole graph, without a numbering to check batches
+   * against.
+   *
+   * @param adjacency the whole graph
+   * @param shard this shard's index
+   * @param shards the number of shards
+   * @return the partition
+   * @throws IllegalArgumentException if {@code shard} is not between 0 and {@code shards - 1}
+   */
+  public static GraphPartition of(Adjacency adjacency, int shard, int shards) {
+    return of(adjacency, shard, shards, null);
+  }
+
+  /**
+   * Copies the rows a shard owns out of the whole graph.
+   *
+   * @param adjacency the whole graph
+   * @param shard this shard's index
+   * @param shards the number of shards
+   * @param numbering identifies the vertex numbering of {@code adjacency} (see {@link
+   *     SynonymGraph#getNumberingVersion()}), or null if unknown
+   * @return the partition
+   * @throws IllegalArgumentException if {@code shard} is not between 0 and {@code shards - 1}
+   */
+  public static GraphPartition of(Adjacency adjacency, int shard, int shards, String numbering) {
+    checkShard(shard, shards);
+    int V = adjacency.V();
+    int rows = V > shard ? (V - shard + shards - 1) / shards : 0;
+    int[] offsets = new int[rows + 1];
+    for (int r = 0; r < rows; r++)
+      offsets[r + 1] = offsets[r] + adjacency.degree(shard + r * shards);
+    int[] targets = new int[offsets[rows]];
+    int[] row = new int[adjacency.maxDegree()];
+    for (int r = 0; r < rows; r++) {
+      int n = adjacency.neighbors(shard + r * shards, row);
+      System.arraycopy(row, 0, targets, offsets[r], n);
+    }
+    return new GraphPartition(shard, shards, V, offsets, targets, numbering);
+  }
+
+  /**
+   * Reads the rows a shard owns straight from a thesaurus file, numbering the vertices in
+   * first-seen order as {@link SymbolGraphMemoryEfficient} does with {@link VertexOrdering#FILE}.
+   * Only the names seen so far and the owned rows are held, never the whole graph; the names are
+   * dropped once read. Each row is sorted, as {@link AdjacencyFormat#PACKED} lists it.
+   *
+   * @param filename the thesaurus, one line per word followed by its synonyms
+   * @param delimiter the delimiter between fields
+   * @param shard this shard's index
+   * @param shards the number of shards
+   * @param numbering identifies the vertex numbering of the file, or null if unknown
+   * @return the partition
+   * @throws IllegalArgumentException if {@code shard} is not between 0 and {@code shards - 1}
+   */
+  public static GraphPartition load(
+      String filename, String delimiter, int shard, int shards, String numbering) {
+    checkShard(shard, shards);
+
+    // first pass numbers the words as the symbol graph does
+    Map<String, Integer> index = new HashMap<>();
+    In in = new In(filename);
+    while (!in.isEmpty()) {
+      for (String word : in.readLine().split(delimiter)) index.putIfAbsent(word, index.size());
+    }
+    int V = index.size();
+    int rows = V > shard ? (V - shard + shards - 1) / shards : 0;
+
+    // second pass keeps each listing of an edge as (row, neighbour) from both of its ends that
+    // are owned; an edge listed on both words' lines is kept twice and deduplicated below
+    int[] listedRows = new int[16];
+    int[] listedTargets = new int[16];
+    int listed = 0;
+    in = new In(filename);
+    while (in.hasNextLine()) {
+      String[] a = in.readLine().split(delimiter);
+      int v = index.get(a[0]);
+      for (int i = 1; i < a.length; i++) {
+        int w = index.get(a[i]);
+        for (int k = 0; k < 2; k++) {
+          int from = k == 0 ? v : w;
+          if (owner(from, shards) != shard) continue;
+          if (listed == listedRows.length) {
+            listedRows = Arrays.copyOf(listedRows, 2 * listed);
+            listedTargets = Arrays.copyOf(listedTargets, 2 * listed);
+          }
+          listedRows[listed] = from / shards;
+          listedTargets[listed++] = k == 0 ? w : v;
+        }
+      }
+    }
+    index = null;
+
+    int[] offsets = new int[rows + 1];
+    for (int i = 0; i < listed; i++) offsets[listedRows[i] + 1]++;
+    for (int r = 0; r < rows; r++) offsets[r + 1] += offsets[r];
+    int[] fill = Arrays.copyOf(offsets, rows);
+    int[] targets = new int[listed];
+    for (int i = 0; i < listed; i++) targets[fill[listedRows[i]]++] = listedTargets[i];
+    listedRows = null;
+    listedTargets = null;
+
+    // sort each row and drop repeated neighbours, keeping a self-loop twice as Graph lists it
+    int size = 0;
+    int start = 0;
+    for (int r = 0; r < rows; r++) {
+      int end = offsets[r + 1];
+      Arrays.sort(targets, start, end);
+      offsets[r] = size;
+      int v = shard + r * shards;
+      int selfLoops = 0;
+      for (int i = start; i < end; i++) {
+        int w = targets[i];
+        if (w == v ? selfLoops++ >= 2 : i > start && w == targets[i - 1]) continue;
+        targets[size++] = w;
+      }
+      start = end;
+    }
+    offsets[rows] = size;
+    return new GraphPartition(shard, shards, V, offsets, Arrays.copyOf(targets, size), numbering);
+  }
+
+  private static void checkShard(int shard, int shards) {
+    if (shards < 1 || shard < 0 || shard >= shards) {
+      throw new IllegalArgumentException("Shard " + shard + " of " + shards + " does not exist");
+    }
+  }
+
+  /** Returns the shard that owns {@code v} among {@code shards}. */
+  public static int owner(int v, int shards) {
+    return v % shards;
+  }
+
+  /** Returns this shard's index. */
+  public int shard() {
+    return shard;
+  }
+
+  /** Returns the number of shards the graph is split into. */
+  public int shards() {
+    return shards;
+  }
+
+  /** Returns the number of vertices in the whole graph. */
+  public int V() {
+    return vertices;
+  }
+
+  /**
+   * Returns what identifies the vertex numbering of the rows, which a coordinator's batches must
+   * match.
+   *
+   * @return the numbering, or null if unknown
+   */
+  public String numbering() {
+    return numbering;
+  }
+
+  /** Returns the number of vertices this shard owns, which bounds a valid frontier batch. */
+  public int owned() {
+    return offsets.length - 1;
+  }
+
+  /**
+   * Expands one level of a breadth-first search for the frontier vertices this shard owns.
+   *
+   * @param frontier distinct vertices owned by this shard
+   * @return every neighbour of the frontier paired with the frontier vertex it was reached from,
+   *     flattened as {@code neighbour, parent, neighbour, parent, ...} in frontier order
+   * @throws IllegalArgumentException if a vertex is not owned by this shard or appears twice
+   */
+  public int[] expand(int[] frontier) {
+    if (frontier.length > owned()) {
+      throw new IllegalArgumentException(
+          "Frontier of " + frontier.length + " vertices exceeds the " + owned() + " owned");
+    }
+    // with each owned row counted at most once the reply is bounded by the partition
+    long[] seen = new long[(owned() + 63) >>> 6];
+    int size = 0;
+    for (int v : frontier) {
+      size += degree(v);
+      int row = v / shards;
+      if ((seen[row >>> 6] & (1L << row)) != 0) {
+        throw new IllegalArgumentException("Vertex " + v + " appears twice in the frontier");
+      }
+      seen[row >>> 6] |= 1L << row;
+    }
+    int[] pairs = new int[2 * size];
+    int n = 0;
+    for (int v : frontier) {
+      int row = v / shards;
+      for (int i = offsets[row]; i < offsets[row + 1]; i++) {
+        pairs[n++] = targets[i];
+        pairs[n++] = v;
+      }
+    }
+    return n == pairs.length ? pairs : Arrays.copyOf(pairs, n);
+  }
+
+  private int degree(int v) {
+    if (v < 0 || v >= vertices || owner(v, shards) != shard) {
+      throw new IllegalArgumentException("Vertex " + v + " is not owned by shard " + shard);
+    }
+    int row = v / shards;
+    return offsets[row + 1] - offsets[row];
+  }
+
+  /** Returns an estimate of the heap held by the partition, in bytes. */
+  public long estimatedBytes() {
+    return 4L * offsets.length + 4L * targets.length;
+  }
+}
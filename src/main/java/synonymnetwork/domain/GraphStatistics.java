@@ -0,0 +1,136 @@
+package synonymnetwork.domain;
+
+import java.util.List;
+import java.util.SortedMap;
+
+/** Immutable result of {@link GraphAnalytics}, shaped for serialization as a JSON response. */
+public class GraphStatistics {
+  private final int vertices;
+  private final int edges;
+  private final double averageDegree;
+  private final int maxDegree;
+  private final SortedMap<Integer, Integer> degreeHistogram;
+  private final int components;
+  private final int largestComponent;
+  private final SortedMap<Integer, Integer> componentSizeHistogram;
+  private final int approximateDiameter;
+  private final List<String> diameterEndpoints;
+  private final List<Hub> hubs;
+  private final long computeMillis;
+  private final long changes;
+
+  public GraphStatistics(
+      int vertices,
+      int edges,
+      double averageDegree,
+      int maxDegree,
+      SortedMap<Integer, Integer> degreeHistogram,
+      int components,
+      int largestComponent,
+      SortedMap<Integer, Integer> componentSizeHistogram,
+      int approximateDiameter,
+      List<String> diameterEndpoints,
+      List<Hub> hubs,
+      long computeMillis,
+      long changes) {
+    this.vertices = vertices;
+    this.edges = edges;
+    this.averageDegree = averageDegree;
+    this.maxDegree = maxDegree;
+    this.degreeHistogram = degreeHistogram;
+    this.components = components;
+    this.largestComponent = largestComponent;
+    this.componentSizeHistogram = componentSizeHistogram;
+    this.approximateDiameter = approximateDiameter;
+    this.diameterEndpoints = diameterEndpoints;
+    this.hubs = hubs;
+    this.computeMillis = computeMillis;
+    this.changes = changes;
+  }
+
+  public int getVertices() {
+    return vertices;
+  }
+
+  public int getEdges() {
+    return edges;
+  }
+
+  public double getAverageDegree() {
+    return averageDegree;
+  }
+
+  public int getMaxDegree() {
+    return maxDegree;
+  }
+
+  /** Degree mapped to the number of words with that many synonyms. */
+  public SortedMap<Integer, Integer> getDegreeHistogram() {
+    return degreeHistogram;
+  }
+
+  public int getComponents() {
+    return components;
+  }
+
+  public int getLargestComponent() {
+    return largestComponent;
+  }
+
+  /** Component size mapped to the number of components of that size. */
+  public SortedMap<Integer, Integer> getComponentSizeHistogram() {
+    return componentSizeHistogram;
+  }
+
+  /** Lower bound on the diameter of the largest component, found by double-sweep BFS. */
+  public int getApproximateDiameter() {
+    return approximateDiameter;
+  }
+
+  /** The two words that are {@link #getApproximateDiameter()} hops apart. */
+  public List<String> getDiameterEndpoints() {
+    return diameterEndpoints;
+  }
+
+  /** The most central words by PageRank, most central first. */
+  public List<Hub> getHubs() {
+    return hubs;
+  }
+
+  public long getComputeMillis() {
+    return computeMillis;
+  }
+
+  /**
+   * The runtime changes the statistics include: the graph described is the one whose version ends
+   * in this count, or has no count if it is 0.
+   */
+  public long getChanges() {
+    return changes;
+  }
+
+  /** A highly ranked word. */
+  public static class Hub {
+    private final String word;
+    private final int degree;
+    private final double pageRank;
+
+    public Hub(String word, int degree, double pageRank) {
+      this.word = word;
+      this.degree = degree;
+      this.pageRank = pageRank;
+    }
+
+    public String getWord() {
+      return word;
+    }
+
+    public int getDegree() {
+      return degree;
+    }
+
+    public double getPageRank() {
+      return pageRank;
+    }
+  }
+}
@@ -0,0 +1,274 @@
+package synonymnetwork.domain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A {@link PathCache} kept in a memory-mapped file, so computed paths survive restarts. The file is
+ * a header followed by fixed-size slots. A vertex pair hashes to a window of {@value #WINDOW}
+ * consecutive slots, any of which may hold it, so a lookup reads at most that many slots straight
+ * from the mapping and deserializes nothing. When the whole window is taken, a clock sweep over it
+ * evicts the first entry that has not been read since the hand last passed.
+ *
+ * <p>The file holds paths for one version at a time: the first path offered under another version
+ * empties it. Lookups may run on any number of threads alongside one writer; they read without
+ * locking and retry under a read lock only if a write overlapped them.
+ */
+public final class MappedPathStore implements PathCache, Closeable {
+  /** Longest path stored, in vertices; longer ones are rare enough to be searched again. */
+  public static final int MAX_VERTICES = 17;
+
+  private static final int MAGIC = 0x53504154; // "SPAT"
+  private static final int FORMAT = 1;
+  private static final int WINDOW = 8;
+
+  // header: magic, format, slot count, version length, version bytes
+  private static final int HEADER_BYTES = 256;
+  private static final int VERSION_OFFSET = 16;
+  private static final int MAX_VERSION_BYTES = HEADER_BYTES - VERSION_OFFSET;
+
+  // slot: key, length (0 empty, -1 unconnected), referenced flag, padding, vertices
+  private static final int SLOT_BYTES = 12 + 4 * MAX_VERTICES;
+  private static final int LENGTH = 8;
+  private static final int REFERENCED = 10;
+  private static final int VERTICES = 12;
+  private static final short UNCONNECTED = -1;
+
+  private final MappedByteBuffer buffer;
+  private final int slots;
+  private final StampedLock lock = new StampedLock();
+  private volatile String version; // guarded by lock for writes
+  private int entries; // guarded by lock
+  private int hand; // guarded by lock
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  private MappedPathStore(MappedByteBuffer buffer, int slots) {
+    this.buffer = buffer;
+    this.slots = slots;
+  }
+
+  /**
+   * Opens a store, creating the file if needed. A file written with a different size or format is
+   * started afresh.
+   *
+   * @param file the file holding the store
+   * @param maxBytes the largest the file may grow; it is created at about this size
+   * @return the store, holding whatever paths the file already had
+   * @throws IllegalArgumentException if {@code maxBytes} leaves room for fewer than {@value
+   *     #WINDOW} paths
+   * @throws IOException if the file cannot be created or mapped
+   */
+  public static MappedPathStore open(Path file, long maxBytes) throws IOException {
+    long limit = Math.min(maxBytes, Integer.MAX_VALUE); // one mapping covers the whole file
+    int slots = (int) ((limit - HEADER_BYTES) / SLOT_BYTES);
+    if (slots < WINDOW) {
+      throw new IllegalArgumentException("A path store of " + maxBytes + " bytes is too small");
+    }
+    long size = HEADER_BYTES + (long) slots * SLOT_BYTES;
+    MappedByteBuffer buffer;
+    try (FileChannel channel =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      if (channel.size() != size) channel.truncate(0); // mapping extends it with zeros
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+    MappedPathStore store = new MappedPathStore(buffer, slots);
+    if (buffer.getInt(0) == MAGIC && buffer.getInt(4) == FORMAT && buffer.getInt(8) == slots) {
+      store.version = store.readVersion();
+      for (int slot = 0; slot < slots; slot++) {
+        if (buffer.getShort(offset(slot) + LENGTH) != 0) store.entries++;
+      }
+    } else {
+      store.reset("");
+    }
+    return store;
+  }
+
+  @Override
+  public int[] get(String version, int s, int t) {
+    long key = key(s, t);
+    long stamp = lock.tryOptimisticRead();
+    String current = this.version;
+    int slot = find(key);
+    int[] path = slot < 0 ? null : read(slot);
+    if (!lock.validate(stamp)) {
+      stamp = lock.readLock();
+      try {
+        current = this.version;
+        slot = find(key);
+        path = slot < 0 ? null : read(slot);
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+    if (path == null || !version.equals(current)) {
+      misses.incrementAndGet();
+      return null;
+    }
+    // a racing write may clear the flag again, which only makes eviction slightly less accurate
+    buffer.put(offset(slot) + REFERENCED, (byte) 1);
+    hits.incrementAndGet();
+    return path;
+  }
+
+  @Override
+  public void put(String version, int s, int t, int[] path) {
+    if (path != null && path.length > MAX_VERTICES) return;
+    long key = key(s, t);
+    long stamp = lock.writeLock();
+    try {
+      if (!version.equals(this.version) && !reset(version)) return;
+      int slot = find(key);
+      if (slot < 0) slot = findEmpty(key);
+      if (slot < 0) {
+        slot = evict(key);
+      } else if (buffer.getShort(offset(slot) + LENGTH) == 0) {
+        entries++;
+      }
+      int offset = offset(slot);
+      // the slot reads as empty until the length is written last, so a process killed midway
+      // cannot leave the new key on the old path
+      buffer.putShort(offset + LENGTH, (short) 0);
+      buffer.putLong(offset, key);
+      if (path == null) {
+        buffer.putShort(offset + LENGTH, UNCONNECTED);
+      } else {
+        for (int i = 0; i < path.length; i++) buffer.putInt(offset + VERTICES + 4 * i, path[i]);
+        buffer.putShort(offset + LENGTH, (short) path.length);
+      }
+      buffer.put(offset + REFERENCED, (byte) 0);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /** Returns the number of paths held, unconnected pairs included. */
+  public int size() {
+    long stamp = lock.readLock();
+    try {
+      return entries;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /** Returns the number of paths the file has room for. */
+  public int capacity() {
+    return slots;
+  }
+
+  /** Returns the number of lookups answered from the store. */
+  public long hitCount() {
+    return hits.get();
+  }
+
+  /** Returns the number of lookups the store could not answer. */
+  public long missCount() {
+    return misses.get();
+  }
+
+  /** Writes the paths stored so far to the file. */
+  public void flush() {
+    long stamp = lock.readLock();
+    try {
+      buffer.force();
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /** Flushes the store; the mapping itself is released once the store is unreachable. */
+  @Override
+  public void close() {
+    flush();
+  }
+
+  // the slot holding the key, or -1
+  private int find(long key) {
+    int start = window(key);
+    for (int i = 0; i < WINDOW; i++) {
+      int slot = (start + i) % slots;
+      int offset = offset(slot);
+      if (buffer.getShort(offset + LENGTH) != 0 && buffer.getLong(offset) == key) return slot;
+    }
+    return -1;
+  }
+
+  private int findEmpty(long key) {
+    int start = window(key);
+    for (int i = 0; i < WINDOW; i++) {
+      int slot = (start + i) % slots;
+      if (buffer.getShort(offset(slot) + LENGTH) == 0) return slot;
+    }
+    return -1;
+  }
+
+  // clock sweep over the key's window: referenced entries get a second chance
+  private int evict(long key) {
+    int start = window(key);
+    for (int i = 0; ; i++) {
+      int slot = (start + (hand + i) % WINDOW) % slots;
+      int flag = offset(slot) + REFERENCED;
+      if (buffer.get(flag) == 0) {
+        hand = (hand + i + 1) % WINDOW;
+        return slot;
+      }
+      buffer.put(flag, (byte) 0);
+    }
+  }
+
+  // the path in a slot; a torn read is caught by the caller's stamp validation
+  private int[] read(int slot) {
+    int offset = offset(slot);
+    short length = buffer.getShort(offset + LENGTH);
+    if (length == UNCONNECTED) return new int[0];
+    if (length < 1 || length > MAX_VERTICES) return null;
+    int[] path = new int[length];
+    for (int i = 0; i < length; i++) path[i] = buffer.getInt(offset + VERTICES + 4 * i);
+    return path;
+  }
+
+  // empties the store for a new version; false if the version is too long to record
+  private boolean reset(String version) {
+    byte[] bytes = version.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > MAX_VERSION_BYTES) return false;
+    for (int slot = 0; slot < slots; slot++) buffer.putShort(offset(slot) + LENGTH, (short) 0);
+    buffer.putInt(0, MAGIC);
+    buffer.putInt(4, FORMAT);
+    buffer.putInt(8, slots);
+    buffer.putInt(12, bytes.length);
+    buffer.put(VERSION_OFFSET, bytes);
+    this.version = version;
+    entries = 0;
+    return true;
+  }
+
+  private String readVersion() {
+    int length = buffer.getInt(12);
+    if (length < 0 || length > MAX_VERSION_BYTES) return "";
+    byte[] bytes = new byte[length];
+    buffer.get(VERSION_OFFSET, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private int window(long key) {
+    long h = key * 0x9E3779B97F4A7C15L; // Fibonacci hashing spreads neighbouring pairs apart
+    return (int) Long.remainderUnsigned(h ^ (h >>> 32), slots);
+  }
+
+  private static int offset(int slot) {
+    return HEADER_BYTES + slot * SLOT_BYTES;
+  }
+
+  private static long key(int s, int t) {
+    return ((long) s << 32) | (t & 0xFFFFFFFFL);
+  }
+}
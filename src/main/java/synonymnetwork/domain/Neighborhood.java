@@ -0,0 +1,144 @@
+package synonymnetwork.domain;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * The ego graph of a word: every vertex within a given number of synonym hops of it, up to a cap on
+ * the number of vertices, plus the edges among them. Vertices are numbered locally 0 through {@link
+ * #size()} - 1 in breadth-first order, so local 0 is the centre word. Edges are not stored; {@link
+ * #forEachEdge(EdgeVisitor)} enumerates them from the adjacency, which lets a caller stream a large
+ * neighbourhood without materializing its edge list.
+ */
+public class Neighborhood {
+
+  /** Receives the induced edges of a neighbourhood as pairs of local indices. */
+  @FunctionalInterface
+  public interface EdgeVisitor {
+    void edge(int a, int b) throws IOException;
+  }
+
+  private final Adjacency adjacency;
+  private final IntFunction<String> names;
+  private final int[] vertices; // local index -> vertex
+  private final int[] depths; // local index -> hops from the centre
+  private final int[] localIndex; // vertex -> local index, or -1 outside the neighbourhood
+  private final boolean truncated;
+
+  private Neighborhood(
+      Adjacency adjacency,
+      IntFunction<String> names,
+      int[] vertices,
+      int[] depths,
+      int[] localIndex,
+      boolean truncated) {
+    this.adjacency = adjacency;
+    this.names = names;
+    this.vertices = vertices;
+    this.depths = depths;
+    this.localIndex = localIndex;
+    this.truncated = truncated;
+  }
+
+  /**
+   * Collects the neighbourhood of {@code source} by breadth-first search, stopping at {@code
+   * maxDepth} hops or {@code maxNodes} vertices, whichever comes first.
+   *
+   * @param sg the symbol graph to search
+   * @param source the centre vertex
+   * @param maxDepth the largest number of hops from the centre
+   * @param maxNodes the largest number of vertices to include
+   * @return the neighbourhood
+   */
+  public static Neighborhood around(
+      SymbolGraphMemoryEfficient sg, int source, int maxDepth, int maxNodes) {
+    return around(sg.adjacency(), sg::nameOf, source, maxDepth, maxNodes);
+  }
+
+  /**
+   * Collects the neighbourhood of {@code source} in any adjacency, such as a graph with runtime
+   * changes (see {@link DeltaOverlay}), naming vertices with {@code names}.
+   *
+   * @param adjacency the graph to search
+   * @param names the word of each vertex
+   * @param source the centre vertex
+   * @param maxDepth the largest number of hops from the centre
+   * @param maxNodes the largest number of vertices to include
+   * @return the neighbourhood
+   */
+  public static Neighborhood around(
+      Adjacency adjacency, IntFunction<String> names, int source, int maxDepth, int maxNodes) {
+    int[] localIndex = new int[adjacency.V()];
+    Arrays.fill(localIndex, -1);
+    int[] vertices = new int[Math.min(maxNodes, adjacency.V())];
+    int[] depths = new int[vertices.length];
+    int[] neighbors = new int[adjacency.maxDegree()];
+    boolean truncated = false;
+
+    int size = 0;
+    localIndex[source] = size;
+    vertices[size++] = source;
+    // the vertex array doubles as the BFS queue
+    for (int head = 0; head < size && !truncated; head++) {
+      if (depths[head] == maxDepth) break;
+      int n = adjacency.neighbors(vertices[head], neighbors);
+      for (int i = 0; i < n; i++) {
+        int w = neighbors[i];
+        if (localIndex[w] != -1) continue;
+        if (size == vertices.length) {
+          truncated = true;
+          break;
+        }
+        localIndex[w] = size;
+        depths[size] = depths[head] + 1;
+        vertices[size++] = w;
+      }
+    }
+    return new Neighborhood(
+        adjacency,
+        names,
+        Arrays.copyOf(vertices, size),
+        Arrays.copyOf(depths, size),
+        localIndex,
+        truncated);
+  }
+
+  /** Returns the number of vertices in the neighbourhood. */
+  public int size() {
+    return vertices.length;
+  }
+
+  /** Returns the word at local index {@code i}. */
+  public String name(int i) {
+    return names.apply(vertices[i]);
+  }
+
+  /** Returns the number of hops from the centre word to local index {@code i}. */
+  public int depth(int i) {
+    return depths[i];
+  }
+
+  /** Returns whether the vertex cap cut the search short of the requested depth. */
+  public boolean isTruncated() {
+    return truncated;
+  }
+
+  /**
+   * Calls {@code visitor} once for every edge whose endpoints are both in the neighbourhood, with
+   * the smaller local index first. Self-loops are skipped.
+   *
+   * @param visitor receives each edge
+   * @throws IOException if the visitor does
+   */
+  public void forEachEdge(EdgeVisitor visitor) throws IOException {
+    int[] neighbors = new int[adjacency.maxDegree()];
+    for (int a = 0; a < vertices.length; a++) {
+      int n = adjacency.neighbors(vertices[a], neighbors);
+      for (int i = 0; i < n; i++) {
+        int b = localIndex[neighbors[i]];
+        if (b > a) visitor.edge(a, b);
+      }
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package synonymnetwork.domain;
+
+import edu.princeton.cs.algs4.Graph;
+import java.util.Arrays;
+
+/**
+ * {@link Adjacency} stored in compressed sparse row form: the neighbours of {@code v} are {@code
+ * targets[offsets[v]]} through {@code targets[offsets[v + 1] - 1]}, sorted ascending. The one
+ * exception is the intermediate of {@link #inGraphOrder}, which {@link #renumbered} sorts.
+ */
+public class PackedAdjacency implements Adjacency {
+  private final int[] offsets;
+  private final int[] targets;
+  private final int maxDegree;
+
+  private PackedAdjacency(int[] offsets, int[] targets) {
+    this.offsets = offsets;
+    this.targets = targets;
+    int max = 0;
+    for (int v = 0; v + 1 < offsets.length; v++) max = Math.max(max, offsets[v + 1] - offsets[v]);
+    this.maxDegree = max;
+  }
+
+  /**
+   * Copies {@code graph} into packed form with each neighbour list sorted.
+   *
+   * @param graph the graph to copy
+   * @return the packed adjacency
+   */
+  public static PackedAdjacency of(Graph graph) {
+    int V = graph.V();
+    int[] offsets = new int[V + 1];
+    for (int v = 0; v < V; v++) offsets[v + 1] = offsets[v] + graph.degree(v);
+    int[] targets = new int[offsets[V]];
+    for (int v = 0; v < V; v++) {
+      int i = offsets[v];
+      for (int w : graph.adj(v)) targets[i++] = w;
+      Arrays.sort(targets, offsets[v], offsets[v + 1]);
+    }
+    return new PackedAdjacency(offsets, targets);
+  }
+
+  /**
+   * Fills rows straight from an edge list, each listing its vertex's neighbours newest edge first
+   * as {@link Graph#adj} would after adding the same edges, so a {@link VertexOrdering} that
+   * follows list order numbers the vertices the same either way. The rows are left unsorted.
+   *
+   * @param V the number of vertices
+   * @param from one endpoint of each edge
+   * @param to the other endpoint of each edge
+   * @param n the number of edges
+   * @return the rows in graph order
+   */
+  static PackedAdjacency inGraphOrder(int V, int[] from, int[] to, int n) {
+    int[] offsets = new int[V + 1];
+    for (int i = 0; i < n; i++) {
+      offsets[from[i] + 1]++;
+      offsets[to[i] + 1]++;
+    }
+    for (int v = 0; v < V; v++) offsets[v + 1] += offsets[v];
+
+    // fill each row from its end, so the last edge added comes first like in a Bag
+    int[] end = Arrays.copyOfRange(offsets, 1, V + 1);
+    int[] targets = new int[offsets[V]];
+    for (int i = 0; i < n; i++) {
+      targets[--end[from[i]]] = to[i];
+      targets[--end[to[i]]] = from[i];
+    }
+    return new PackedAdjacency(offsets, targets);
+  }
+
+  /**
+   * Copies this adjacency with vertex {@code v} renumbered to {@code order[v]}, each neighbour list
+   * sorted.
+   *
+   * @param order array mapping each old vertex index to its new index
+   * @return the renumbered adjacency
+   */
+  PackedAdjacency renumbered(int[] order) {
+    int V = V();
+    int[] renumberedOffsets = new int[V + 1];
+    for (int v = 0; v < V; v++) renumberedOffsets[order[v] + 1] = degree(v);
+    for (int v = 0; v < V; v++) renumberedOffsets[v + 1] += renumberedOffsets[v];
+
+    int[] renumberedTargets = new int[targets.length];
+    for (int v = 0; v < V; v++) {
+      int start = renumberedOffsets[order[v]];
+      int i = start;
+      for (int p = offsets[v]; p < offsets[v + 1]; p++) renumberedTargets[i++] = order[targets[p]];
+      Arrays.sort(renumberedTargets, start, i);
+    }
+    return new PackedAdjacency(renumberedOffsets, renumberedTargets);
+  }
+
+  @Override
+  public int V() {
+    return offsets.length - 1;
+  }
+
+  @Override
+  public int E() {
+    return targets.length / 2;
+  }
+
+  @Override
+  public int degree(int v) {
+    return offsets[v + 1] - offsets[v];
+  }
+
+  @Override
+  public int maxDegree() {
+    return maxDegree;
+  }
+
+  @Override
+  public int neighbors(int v, int[] dst) {
+    int n = offsets[v + 1] - offsets[v];
+    System.arraycopy(targets, offsets[v], dst, 0, n);
+    return n;
+  }
+
+  @Override
+  public long estimatedBytes() {
+    return 4L * offsets.length + 4L * targets.length;
+  }
+}
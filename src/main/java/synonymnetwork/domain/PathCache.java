@@ -0,0 +1,30 @@
+package synonymnetwork.domain;
+
+/**
+ * Shortest paths computed earlier, as consulted by {@link SynonymGraph#findPath(String, String,
+ * PathCache)}. Paths are keyed by the vertex numbers of their ends, which are only meaningful
+ * together with the version they were stored under.
+ */
+public interface PathCache {
+
+  /**
+   * Looks up the path between two vertices.
+   *
+   * @param version identifies the graph and its vertex numbering
+   * @param s the source vertex
+   * @param t the target vertex
+   * @return the vertices of the path, an empty array if the vertices are known not to be connected,
+   *     or null if the pair is not cached under this version
+   */
+  int[] get(String version, int s, int t);
+
+  /**
+   * Offers a computed path. The cache is free to ignore it.
+   *
+   * @param version identifies the graph and its vertex numbering
+   * @param s the source vertex
+   * @param t the target vertex
+   * @param path the vertices of the path, or null if the vertices are not connected
+   */
+  void put(String version, int s, int t, int[] path);
+}
@@ -0,0 +1,35 @@
+package synonymnetwork.domain;
+
+/**
+ * Single-pair shortest path search over an {@link Adjacency}. Implementations are chosen through
+ * {@link PathSearchEngine} and must be safe to call from many request threads at once.
+ */
+@FunctionalInterface
+public interface PathSearch {
+
+  /**
+   * Finds a shortest path from {@code s} to {@code t}.
+   *
+   * @param adjacency the graph to search
+   * @param s the source vertex
+   * @param t the target vertex
+   * @return the vertices of the path from {@code s} to {@code t} inclusive, or {@code null} if
+   *     {@code t} is not reachable from {@code s}
+   */
+  int[] shortestPath(Adjacency adjacency, int s, int t);
+
+  /**
+   * Finds a shortest path like {@link #shortestPath(Adjacency, int, int)}, counting the neighbour
+   * lists the search read, for the flight recorder. Engines count as a by-product of their own
+   * loops rather than through a wrapped adjacency; a search that does not count adds nothing.
+   *
+   * @param adjacency the graph to search
+   * @param s the source vertex
+   * @param t the target vertex
+   * @param expanded has the count added to its first element
+   * @return the vertices of the path, or {@code null} if {@code t} is not reachable from {@code s}
+   */
+  default int[] shortestPath(Adjacency adjacency, int s, int t, long[] expanded) {
+    return shortestPath(adjacency, s, t);
+  }
+}
@@ -0,0 +1,82 @@
+package synonymnetwork.domain;
+
+/**
+ * Search engines available for the shortest-path queries behind findPath. Every engine returns a
+ * path of the same (shortest) length; when several shortest paths exist they may pick different
+ * ones.
+ *
+ * <ul>
+ *   <li>{@link #SEQUENTIAL} is the single-threaded {@link BreadthFirstPathSearch}, which returns
+ *       the same path as algs4's BreadthFirstPaths and is fastest on a thesaurus of this size.
+ *   <li>{@link #DIRECTION_OPTIMIZING} is the level-synchronous {@link
+ *       DirectionOptimizingPathSearch}, which expands large frontiers in parallel and switches to
+ *       bottom-up levels once the frontier covers much of the graph. It pays off on graphs with
+ *       millions of edges.
+ * </ul>
+ */
+public enum PathSearchEngine {
+  SEQUENTIAL {
+    @Override
+    public PathSearch create(int parallelism) {
+      return new PathSearch() {
+        @Override
+        public int[] shortestPath(Adjacency adjacency, int s, int t) {
+          return BreadthFirstPathSearch.shortestPath(adjacency, s, t);
+        }
+
+        @Override
+        public int[] shortestPath(Adjacency adjacency, int s, int t, long[] expanded) {
+          return BreadthFirstPathSearch.shortestPath(adjacency, s, t, expanded);
+        }
+      };
+    }
+  },
+
+  BITSET {
+    @Override
+    public PathSearch create(int parallelism) {
+      return new PathSearch() {
+        @Override
+        public int[] shortestPath(Adjacency adjacency, int s, int t) {
+          return BitsetPathSearch.shortestPath(adjacency, s, t);
+        }
+
+        @Override
+        public int[] shortestPath(Adjacency adjacency, int s, int t, long[] expanded) {
+          return BitsetPathSearch.shortestPath(adjacency, s, t, expanded);
+        }
+      };
+    }
+  },
+
+  DIRECTION_OPTIMIZING {
+    @Override
+    public PathSearch create(int parallelism) {
+      return new DirectionOptimizingPathSearch(parallelism);
+    }
+
+    // parallel chunks race to claim a vertex, so the parent it keeps depends on the scheduling
+    @Override
+    public boolean isDeterministic() {
+      return false;
+    }
+  };
+
+  /**
+   * Creates a search of this kind.
+   *
+   * @param parallelism worker threads for engines that run in parallel; 0 uses every available
+   *     processor
+   * @return the search
+   */
+  public abstract PathSearch create(int parallelism);
+
+  /**
+   * Tells whether searches of this kind always return the same path for the same graph and words.
+   *
+   * @return false if one of several shortest paths is picked by thread scheduling
+   */
+  public boolean isDeterministic() {
+    return true;
+  }
+}
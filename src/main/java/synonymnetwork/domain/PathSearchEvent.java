@@ -0,0 +1,38 @@
+package synonymnetwork.domain;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for one shortest-path search. Only searches slower than the threshold are
+ * recorded, so recording can stay on under production load.
+ */
+@Name("synonymnetwork.PathSearch")
+@Label("Path Search")
+@Category("Synonym Network")
+@Description("A shortest-path search between two words")
+@StackTrace(false)
+@Threshold("20 ms")
+class PathSearchEvent extends Event {
+  @Label("Source")
+  String source;
+
+  @Label("Target")
+  String target;
+
+  @Label("Engine")
+  String engine;
+
+  @Label("Vertices Expanded")
+  @Description("Neighbour lists the search read, or 0 if its engine does not count them")
+  long expanded;
+
+  @Label("Path Length")
+  @Description("Words on the path, or 0 if the words are not connected")
+  int length;
+}
@@ -0,0 +1,32 @@
+package synonymnetwork.domain;
+
+/**
+ * Each vertex's most preferred neighbours, best first, as produced by {@link SynonymRanking}. The
+ * lists are stored back to back in one array: the ranking of {@code v} is {@code
+ * ranked[offsets[v]]} through {@code ranked[offsets[v + 1] - 1]}.
+ */
+public class RankedNeighbors {
+  private final int[] offsets;
+  private final int[] ranked;
+
+  RankedNeighbors(int[] offsets, int[] ranked) {
+    this.offsets = offsets;
+    this.ranked = ranked;
+  }
+
+  /** Returns how many ranked neighbours are kept for {@code v}. */
+  public int size(int v) {
+    return offsets[v + 1] - offsets[v];
+  }
+
+  /**
+   * Returns the neighbour of {@code v} at position {@code i} of its ranking.
+   *
+   * @param v the vertex
+   * @param i the rank, 0 being the most preferred
+   * @return the neighbour at that rank
+   */
+  public int get(int v, int i) {
+    return ranked[offsets[v] + i];
+  }
+}
@@ -0,0 +1,19 @@
+package synonymnetwork.domain;
+
+/**
+ * Follows a breadth-first path search one level at a time, as run by {@link
+ * BreadthFirstPathSearch#shortestPath(Adjacency, int, int, SearchProgressListener)}, and may
+ * abandon it between levels.
+ */
+@FunctionalInterface
+public interface SearchProgressListener {
+
+  /**
+   * Called each time a level of the search has been discovered in full.
+   *
+   * @param level the distance of the level from the source
+   * @param frontierSize the number of vertices first reached at that distance
+   * @return true to carry on, false to abandon the search
+   */
+  boolean levelReached(int level, int frontierSize);
+}
@@ -0,0 +1,20 @@
+package synonymnetwork.domain;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Carries frontier batches from a {@link ShardedPathSearch} to the shards holding a {@link
+ * GraphPartition} each, and their expansions back.
+ */
+public interface ShardTransport {
+
+  /**
+   * Asks a shard to expand part of a frontier.
+   *
+   * @param shard the shard's index
+   * @param frontier vertices owned by that shard
+   * @return the shard's {@link GraphPartition#expand(int[])} result, completed exceptionally if the
+   *     shard cannot be reached or fails
+   */
+  CompletableFuture<int[]> expand(int shard, int[] frontier);
+}
@@ -0,0 +1,149 @@
+package synonymnetwork.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shortest path by level-synchronous breadth-first search over a graph split across shards (see
+ * {@link GraphPartition}). For each level the coordinator splits the frontier by owner, sends every
+ * shard its part at once and merges the neighbours that come back, so a query costs one round trip
+ * per level and at most one message per shard in each. The shards keep no per-query state: the
+ * coordinator holds the parent of every discovered vertex, and only the adjacency is partitioned.
+ *
+ * <p>The adjacency passed to {@link #shortestPath(Adjacency, int, int)} is only asked for its
+ * vertex count, which must match the shards'. Paths have the same length as the other engines';
+ * when there are several shortest paths the one found may differ. A search fails rather than use a
+ * shard's reply that names a vertex out of range or a parent the shard was not sent.
+ */
+public final class ShardedPathSearch implements PathSearch {
+  private final int shards;
+  private final ShardTransport transport;
+  private final LongAdder messages = new LongAdder();
+  private final LongAdder verticesSent = new LongAdder();
+  private final LongAdder pairsReceived = new LongAdder();
+
+  /**
+   * Creates a search over shards reached through {@code transport}.
+   *
+   * @param shards the number of shards
+   * @param transport carries the frontier batches
+   */
+  public ShardedPathSearch(int shards, ShardTransport transport) {
+    this.shards = shards;
+    this.transport = transport;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws CompletionException if a shard cannot be reached or fails
+   * @throws IllegalStateException if a shard replies with a vertex out of range or a parent it was
+   *     not sent
+   */
+  @Override
+  public int[] shortestPath(Adjacency adjacency, int s, int t) {
+    return shortestPath(adjacency, s, t, new long[1]);
+  }
+
+  /**
+   * {@inheritDoc} The count is of the frontier vertices sent, whose lists the shards read.
+   *
+   * @throws CompletionException if a shard cannot be reached or fails
+   * @throws IllegalStateException if a shard replies with a vertex out of range or a parent it was
+   *     not sent
+   */
+  @Override
+  public int[] shortestPath(Adjacency adjacency, int s, int t, long[] expanded) {
+    if (s == t) return new int[] {s};
+
+    int V = adjacency.V();
+    int[] parent = new int[V];
+    Arrays.fill(parent, -1);
+    parent[s] = s;
+    long[] inFrontier = new long[(V + 63) >>> 6];
+    int[] frontier = {s};
+    int size = 1;
+    int[] counts = new int[shards];
+    while (size > 0) {
+      // split the frontier by owner
+      Arrays.fill(counts, 0);
+      for (int i = 0; i < size; i++) {
+        int v = frontier[i];
+        counts[GraphPartition.owner(v, shards)]++;
+        inFrontier[v >>> 6] |= 1L << v;
+      }
+      int[][] parts = new int[shards][];
+      for (int shard = 0; shard < shards; shard++) parts[shard] = new int[counts[shard]];
+      Arrays.fill(counts, 0);
+      for (int i = 0; i < size; i++) {
+        int shard = GraphPartition.owner(frontier[i], shards);
+        parts[shard][counts[shard]++] = frontier[i];
+      }
+
+      List<CompletableFuture<int[]>> replies = new ArrayList<>(shards);
+      for (int shard = 0; shard < shards; shard++) {
+        if (parts[shard].length == 0) {
+          replies.add(null);
+          continue;
+        }
+        replies.add(transport.expand(shard, parts[shard]));
+        messages.increment();
+        verticesSent.add(parts[shard].length);
+        expanded[0] += parts[shard].length;
+      }
+
+      // merge in shard order, so the path found does not depend on reply timing
+      int[] next = new int[16];
+      int sent = size;
+      size = 0;
+      for (int shard = 0; shard < shards; shard++) {
+        if (replies.get(shard) == null) continue;
+        int[] pairs = replies.get(shard).join();
+        if (pairs.length % 2 != 0) {
+          throw new IllegalStateException("Shard " + shard + " replied with an odd pair count");
+        }
+        pairsReceived.add(pairs.length / 2);
+        for (int i = 0; i < pairs.length; i += 2) {
+          int w = pairs[i];
+          int p = pairs[i + 1];
+          if (w < 0
+              || w >= V
+              || p < 0
+              || p >= V
+              || GraphPartition.owner(p, shards) != shard
+              || (inFrontier[p >>> 6] & (1L << p)) == 0) {
+            throw new IllegalStateException(
+                "Shard " + shard + " replied with pair " + w + "," + p + " outside its frontier");
+          }
+          if (parent[w] != -1) continue;
+          parent[w] = p;
+          if (size == next.length) next = Arrays.copyOf(next, 2 * size);
+          next[size++] = w;
+        }
+      }
+      if (parent[t] != -1) return BreadthFirstPathSearch.pathTo(parent, s, t);
+      for (int i = 0; i < sent; i++) inFrontier[frontier[i] >>> 6] &= ~(1L << frontier[i]);
+      frontier = next;
+    }
+    return null;
+  }
+
+  /** Returns the number of frontier batches sent to shards so far. */
+  public long messageCount() {
+    return messages.sum();
+  }
+
+  /** Returns the number of frontier vertices sent to shards so far. */
+  public long verticesSent() {
+    return verticesSent.sum();
+  }
+
+  /** Returns the number of neighbour-parent pairs received from shards so far. */
+  public long pairsReceived() {
+    return pairsReceived.sum();
+  }
+}
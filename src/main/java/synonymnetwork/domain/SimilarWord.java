@@ -0,0 +1,26 @@
+package synonymnetwork.domain;
+
+/** A word found similar to another, with its score and the number of synonyms the two share. */
+public class SimilarWord {
+  private final String word;
+  private final double score;
+  private final int shared;
+
+  public SimilarWord(String word, double score, int shared) {
+    this.word = word;
+    this.score = score;
+    this.shared = shared;
+  }
+
+  public String getWord() {
+    return word;
+  }
+
+  public double getScore() {
+    return score;
+  }
+
+  public int getShared() {
+    return shared;
+  }
+}
@@ -0,0 +1,210 @@
+package synonymnetwork.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.IntFunction;
+
+/**
+ * Finds the words most similar to a word by the synonyms they share. Neighbour lists are held in
+ * compressed sparse row form, sorted ascending without duplicates or self-loops, so the synonyms
+ * two words share are found by intersecting two sorted runs: by merging when the runs are of
+ * similar length, and by galloping through the longer one when it is more than {@value
+ * #GALLOP_RATIO} times the shorter, which keeps pairing an ordinary word with a hub cheap.
+ *
+ * <p>Candidates are the words two hops away, reached only through synonyms of at most a given
+ * degree, since a hub would make nearly every word a candidate while adding little to any score.
+ * Each candidate is then scored over its full neighbour list, hubs included.
+ */
+public final class SimilarityIndex {
+  private static final int GALLOP_RATIO = 16;
+
+  private final int[] offsets;
+  private final int[] targets;
+  // words already seen as candidates, one bit per vertex, reused by each request thread and
+  // cleared again after each query, so a query allocates only for the candidates it finds
+  private final ThreadLocal<long[]> seenBits;
+
+  private SimilarityIndex(int[] offsets, int[] targets) {
+    this.offsets = offsets;
+    this.targets = targets;
+    int words = (offsets.length - 1 + 63) >>> 6;
+    this.seenBits = ThreadLocal.withInitial(() -> new long[words]);
+  }
+
+  /**
+   * Builds the sorted neighbour lists of an adjacency.
+   *
+   * @param adjacency the graph
+   * @return the index
+   */
+  public static SimilarityIndex of(Adjacency adjacency) {
+    int V = adjacency.V();
+    int[] offsets = new int[V + 1];
+    int[] targets = new int[2 * adjacency.E()];
+    int[] row = new int[adjacency.maxDegree()];
+    int size = 0;
+    for (int v = 0; v < V; v++) {
+      int n = adjacency.neighbors(v, row);
+      Arrays.sort(row, 0, n);
+      for (int i = 0; i < n; i++) {
+        int w = row[i];
+        if (w == v || (i > 0 && row[i - 1] == w)) continue;
+        if (size == targets.length) targets = Arrays.copyOf(targets, 2 * size + 1);
+        targets[size++] = w;
+      }
+      offsets[v + 1] = size;
+    }
+    return new SimilarityIndex(offsets, Arrays.copyOf(targets, size));
+  }
+
+  /** Returns the number of distinct synonyms of {@code v}. */
+  public int degree(int v) {
+    return offsets[v + 1] - offsets[v];
+  }
+
+  /**
+   * Finds the words most similar to {@code v}.
+   *
+   * @param v the word's vertex
+   * @param k the number of words wanted
+   * @param measure how shared synonyms are scored
+   * @param maxHubDegree synonyms with more synonyms than this are not used to find candidates
+   * @param names the word of each vertex
+   * @return up to {@code k} words, most similar first; ties go to the lower vertex number
+   */
+  public List<SimilarWord> mostSimilar(
+      int v, int k, SimilarityMeasure measure, int maxHubDegree, IntFunction<String> names) {
+    long[] seen = seenBits.get();
+    int[] common = new int[degree(v)];
+    // worst of the best k at the head; only words that make the cut are kept
+    PriorityQueue<Candidate> best = new PriorityQueue<>();
+    try {
+      seen[v >>> 6] |= 1L << v;
+      for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+        int u = targets[i];
+        if (degree(u) > maxHubDegree) continue;
+        for (int j = offsets[u]; j < offsets[u + 1]; j++) {
+          int w = targets[j];
+          if ((seen[w >>> 6] & (1L << w)) != 0) continue;
+          seen[w >>> 6] |= 1L << w;
+          int c =
+              intersect(
+                  targets, offsets[v], offsets[v + 1], targets, offsets[w], offsets[w + 1], common);
+          Candidate candidate = new Candidate(w, score(measure, v, w, common, c), c);
+          if (best.size() < k) {
+            best.add(candidate);
+          } else if (candidate.compareTo(best.peek()) > 0) {
+            best.poll();
+            best.add(candidate);
+          }
+        }
+      }
+    } finally {
+      // leave the thread's bitset clear for its next query
+      seen[v >>> 6] = 0;
+      for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+        int u = targets[i];
+        if (degree(u) > maxHubDegree) continue;
+        for (int j = offsets[u]; j < offsets[u + 1]; j++) seen[targets[j] >>> 6] = 0;
+      }
+    }
+
+    List<SimilarWord> similar = new ArrayList<>(best.size());
+    while (!best.isEmpty()) {
+      Candidate candidate = best.poll();
+      similar.add(
+          new SimilarWord(names.apply(candidate.vertex), candidate.score, candidate.shared));
+    }
+    Collections.reverse(similar);
+    return similar;
+  }
+
+  // ordered from least to most similar: lower score, then higher vertex number
+  private record Candidate(int vertex, double score, int shared) implements Comparable<Candidate> {
+    @Override
+    public int compareTo(Candidate other) {
+      return score != other.score
+          ? Double.compare(score, other.score)
+          : Integer.compare(other.vertex, vertex);
+    }
+  }
+
+  private double score(SimilarityMeasure measure, int v, int w, int[] common, int c) {
+    return switch (measure) {
+      case JACCARD -> (double) c / (degree(v) + degree(w) - c);
+      case ADAMIC_ADAR -> {
+        double sum = 0;
+        // a shared synonym is adjacent to both words, so its degree is at least 2
+        for (int i = 0; i < c; i++) sum += 1 / Math.log(degree(common[i]));
+        yield sum;
+      }
+    };
+  }
+
+  /**
+   * Writes the values two ascending runs without duplicates have in common into {@code out}, in
+   * ascending order.
+   *
+   * @param a the first array
+   * @param aFrom the start of the first run, inclusive
+   * @param aTo the end of the first run, exclusive
+   * @param b the second array
+   * @param bFrom the start of the second run, inclusive
+   * @param bTo the end of the second run, exclusive
+   * @param out receives the common values; must hold the length of the shorter run
+   * @return the number of common values
+   */
+  static int intersect(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo, int[] out) {
+    if (aTo - aFrom > bTo - bFrom) return intersect(b, bFrom, bTo, a, aFrom, aTo, out);
+    if ((long) (aTo - aFrom) * GALLOP_RATIO < bTo - bFrom) {
+      return gallop(a, aFrom, aTo, b, bFrom, bTo, out);
+    }
+    int count = 0;
+    int i = aFrom;
+    int j = bFrom;
+    while (i < aTo && j < bTo) {
+      int x = a[i];
+      int y = b[j];
+      if (x < y) {
+        i++;
+      } else if (x > y) {
+        j++;
+      } else {
+        out[count++] = x;
+        i++;
+        j++;
+      }
+    }
+    return count;
+  }
+
+  // for each value of the short run, doubles the step through the long run until it passes the
+  // value, then binary searches the last step; the long run is never scanned from its start again
+  private static int gallop(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo, int[] out) {
+    int count = 0;
+    int lo = bFrom;
+    for (int i = aFrom; i < aTo && lo < bTo; i++) {
+      int x = a[i];
+      if (b[lo] > x) continue;
+      // b[lo + step / 2] < x once the loop ends, and b[lo + step] >= x unless past the end
+      int step = 1;
+      while (lo + step < bTo && b[lo + step] < x) step <<= 1;
+      int found = Arrays.binarySearch(b, lo + (step >>> 1), Math.min(lo + step + 1, bTo), x);
+      if (found >= 0) {
+        out[count++] = x;
+        lo = found + 1;
+      } else {
+        lo = -found - 1;
+      }
+    }
+    return count;
+  }
+
+  /** Returns an estimate of the heap held by the index, in bytes. */
+  public long estimatedBytes() {
+    return 4L * offsets.length + 4L * targets.length;
+  }
+}
@@ -0,0 +1,17 @@
+package synonymnetwork.domain;
+
+/**
+ * How the similarity of two words is scored from the synonyms they share, as used by {@link
+ * SimilarityIndex}.
+ *
+ * <ul>
+ *   <li>{@link #JACCARD} is the shared synonyms as a fraction of all synonyms of either word, so a
+ *       rare word is not swamped by words with huge synonym lists.
+ *   <li>{@link #ADAMIC_ADAR} sums 1 / ln(degree) over the shared synonyms, so sharing an obscure
+ *       synonym counts for more than sharing a hub such as "set" or "run".
+ * </ul>
+ */
+public enum SimilarityMeasure {
+  JACCARD,
+  ADAMIC_ADAR
+}
@@ -46,9 +46,10 @@ package synonymnetwork.domain;
 import edu.princeton.cs.algs4.Graph;
 import edu.princeton.cs.algs4.In;
 import edu.princeton.cs.algs4.ST;
-import edu.princeton.cs.algs4.SeparateChainingHashST;
 import edu.princeton.cs.algs4.StdIn;
 import edu.princeton.cs.algs4.StdOut;
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
 
 /**
  * The {@code SymbolGraph} class represents an undirected graph, where the vertex names are
@@ -71,7 +72,9 @@ import edu.princeton.cs.algs4.StdOut;
 public class SymbolGraphMemoryEfficient {
   private ST<String, Integer> st; // string -> index
   private String[] keys; // index -> string
-  private Graph graph; // the underlying graph
+  private Graph graph; // the underlying graph, only retained for AdjacencyFormat.GRAPH
+  private Adjacency adjacency; // the adjacency in the selected format
+  private long[] reciprocal; // sorted (min << 32 | max) of edges listed on both endpoints' lines
 
   /**
    * Initializes a graph from a file using the specified delimiter. Each line in the file contains
@@ -82,6 +85,54 @@ public class SymbolGraphMemoryEfficient {
    * @param delimiter the delimiter between fields
    */
   public SymbolGraphMemoryEfficient(String filename, String delimiter) {
+    this(filename, delimiter, VertexOrdering.FILE);
+  }
+
+  /**
+   * Initializes a graph from a file using the specified delimiter, then renumbers the vertices
+   * with the given ordering. The renumbering is applied to the symbol table, the keys array and the
+   * adjacency together, so every index handed out by this object already uses the new numbering.
+   *
+   * @param filename the name of the file
+   * @param delimiter the delimiter between fields
+   * @param ordering the vertex numbering to use; {@link VertexOrdering#FILE} keeps file order
+   */
+  public SymbolGraphMemoryEfficient(String filename, String delimiter, VertexOrdering ordering) {
+    this(filename, delimiter, ordering, AdjacencyFormat.GRAPH);
+  }
+
+  /**
+   * Initializes a graph from a file, renumbers its vertices and builds the adjacency in the given
+   * format. Unless the format is {@link AdjacencyFormat#GRAPH}, the adjacency is filled straight
+   * from the edges read, without building a {@link Graph} first.
+   *
+   * @param filename the name of the file
+   * @param delimiter the delimiter between fields
+   * @param ordering the vertex numbering to use; {@link VertexOrdering#FILE} keeps file order
+   * @param format the in-memory representation of the adjacency
+   */
+  public SymbolGraphMemoryEfficient(
+      String filename, String delimiter, VertexOrdering ordering, AdjacencyFormat format) {
+    this(filename, delimiter, ordering, format, UnaryOperator.identity());
+  }
+
+  /**
+   * Initializes a graph from a file like {@link #SymbolGraphMemoryEfficient(String, String,
+   * VertexOrdering, AdjacencyFormat)}, passing each distinct vertex name through {@code words}
+   * before it is kept, for instance to share the strings with other graphs.
+   *
+   * @param filename the name of the file
+   * @param delimiter the delimiter between fields
+   * @param ordering the vertex numbering to use; {@link VertexOrdering#FILE} keeps file order
+   * @param format the in-memory representation of the adjacency
+   * @param words returns the string to keep for a vertex name, equal to it
+   */
+  public SymbolGraphMemoryEfficient(
+      String filename,
+      String delimiter,
+      VertexOrdering ordering,
+      AdjacencyFormat format,
+      UnaryOperator<String> words) {
     st = new ST<String, Integer>();
 
     // First pass builds the index by reading strings to associate
@@ -91,7 +142,7 @@ public class SymbolGraphMemoryEfficient {
     while (!in.isEmpty()) {
       String[] a = in.readLine().split(delimiter);
       for (int i = 0; i < a.length; i++) {
-        if (!st.contains(a[i])) st.put(a[i], st.size());
+        if (!st.contains(a[i])) st.put(words.apply(a[i]), st.size());
       }
     }
 
@@ -101,28 +152,189 @@ public class SymbolGraphMemoryEfficient {
       keys[st.get(name)] = name;
     }
 
-    // edgeTracking symbol table tracks edges in order to avoid duplicating edges in
-    // the graph.
-    SeparateChainingHashST<String, Boolean> edgeTracker = new SeparateChainingHashST<>();
+    // edgeTracker tracks edges in order to avoid duplicating edges in the graph, and records
+    // which endpoints' lines list each edge. The distinct edges are kept in the order first
+    // listed, which is the order they would have been added to a Graph.
+    EdgeTracker edgeTracker = new EdgeTracker();
+    int[] from = new int[16];
+    int[] to = new int[16];
+    int edges = 0;
 
-    // second pass builds the graph by connecting first vertex on each
+    // second pass collects the edges by connecting first vertex on each
     // line to all others
-    graph = new Graph(st.size());
     in = new In(filename);
     while (in.hasNextLine()) {
       String[] a = in.readLine().split(delimiter);
       int v = st.get(a[0]);
       for (int i = 1; i < a.length; i++) {
         int w = st.get(a[i]);
-        // create string representation of edge with smaller vertex coming first
-        String edge = (v < w ? v + "-" + w : w + "-" + v);
         // Check if edge already exists
-        if (!edgeTracker.contains(edge)) {
-          edgeTracker.put(edge, true); // Mark the edge as added
-          graph.addEdge(v, w);
+        if (edgeTracker.mark(pairKey(v, w), v <= w ? 1 : 2) == 0) {
+          if (edges == from.length) {
+            from = Arrays.copyOf(from, 2 * edges);
+            to = Arrays.copyOf(to, 2 * edges);
+          }
+          from[edges] = v;
+          to[edges++] = w;
         }
       }
     }
+
+    reciprocal = edgeTracker.listedTwice();
+    edgeTracker = null;
+    build(from, to, edges, ordering, format);
+  }
+
+  /**
+   * Initializes a graph from vertex names and the edges between them, for instance a graph rebuilt
+   * from a {@link DeltaOverlay}, then renumbers its vertices and builds the adjacency as the file
+   * constructor does.
+   *
+   * @param keys the name of each vertex
+   * @param from one endpoint of each edge, with vertices numbered as in {@code keys}
+   * @param to the other endpoint of each edge
+   * @param edges the number of edges in {@code from} and {@code to}
+   * @param reciprocal sorted pair keys of the edges to treat as listed from both sides
+   * @param ordering the vertex numbering to use; {@link VertexOrdering#FILE} keeps the given one
+   * @param format the in-memory representation of the adjacency
+   */
+  public SymbolGraphMemoryEfficient(
+      String[] keys,
+      int[] from,
+      int[] to,
+      int edges,
+      long[] reciprocal,
+      VertexOrdering ordering,
+      AdjacencyFormat format) {
+    st = new ST<String, Integer>();
+    for (int v = 0; v < keys.length; v++) st.put(keys[v], v);
+    this.keys = keys.clone();
+    this.reciprocal = reciprocal.clone();
+    build(from, to, edges, ordering, format);
+  }
+
+  // builds the adjacency of the edges from[i]-to[i], i < n, in the adjacency format and
+  // renumbers the vertices with ordering. The compact formats are filled straight from the edges,
+  // so no Graph is ever held for them.
+  private void build(int[] from, int[] to, int n, VertexOrdering ordering, AdjacencyFormat format) {
+    if (format == AdjacencyFormat.GRAPH) {
+      graph = new Graph(keys.length);
+      for (int i = 0; i < n; i++) graph.addEdge(from[i], to[i]);
+      if (ordering != VertexOrdering.FILE) {
+        int[] order = ordering.permutation(new GraphAdjacency(graph));
+        renumber(order);
+        graph = renumbered(graph, order);
+      }
+      adjacency = new GraphAdjacency(graph);
+      return;
+    }
+
+    // rows listed as a Graph would list them, so every ordering numbers the vertices as it does
+    // for GRAPH; renumbered sorts them
+    PackedAdjacency rows = PackedAdjacency.inGraphOrder(keys.length, from, to, n);
+    int[] order = ordering.permutation(rows);
+    if (ordering != VertexOrdering.FILE) renumber(order);
+    PackedAdjacency packed = rows.renumbered(order);
+    adjacency = format == AdjacencyFormat.VARINT ? VarintAdjacency.of(packed) : packed;
+  }
+
+  // key of the undirected edge v-w, the same whichever endpoint comes first
+  static long pairKey(int v, int w) {
+    return ((long) Math.min(v, w) << 32) | Math.max(v, w);
+  }
+
+  // applies order[old] = new to the symbol table, the keys array and the reciprocal edges
+  private void renumber(int[] order) {
+    int V = keys.length;
+    String[] renumberedKeys = new String[V];
+    for (int v = 0; v < V; v++) {
+      renumberedKeys[order[v]] = keys[v];
+      st.put(keys[v], order[v]);
+    }
+    keys = renumberedKeys;
+
+    for (int i = 0; i < reciprocal.length; i++) {
+      reciprocal[i] = pairKey(order[(int) (reciprocal[i] >>> 32)], order[(int) reciprocal[i]]);
+    }
+    Arrays.sort(reciprocal);
+  }
+
+  // copies graph with order[old] = new applied
+  private static Graph renumbered(Graph graph, int[] order) {
+    int V = graph.V();
+    int[] oldIndex = new int[V];
+    for (int v = 0; v < V; v++) oldIndex[order[v]] = v;
+
+    // rebuild in new index order so each vertex's adjacency is allocated next to its neighbours'
+    Graph renumbered = new Graph(V);
+    for (int v = 0; v < V; v++) {
+      boolean selfLoopPending = false; // a self-loop appears twice in its own adjacency list
+      for (int w : graph.adj(oldIndex[v])) {
+        if (v < order[w]) renumbered.addEdge(v, order[w]);
+        else if (v == order[w] && (selfLoopPending = !selfLoopPending)) renumbered.addEdge(v, v);
+      }
+    }
+    return renumbered;
+  }
+
+  /**
+   * Open-addressing table of the edges seen while reading the file, keyed by {@link #pairKey} and
+   * holding which endpoints' lines list each edge: 1 for the smaller vertex, 2 for the larger.
+   * Primitive arrays keep it at a few bytes per edge, against a string and several objects per
+   * edge for a symbol table.
+   */
+  private static final class EdgeTracker {
+    private long[] keys = new long[1024]; // pair key + 1, so 0 marks an empty slot
+    private byte[] sides = new byte[1024];
+    private int size;
+
+    // adds side to the sides listing the edge and returns the ones listed before, 0 if new
+    int mark(long key, int side) {
+      if (2 * size >= keys.length) resize();
+      int i = slot(keys, key + 1);
+      int listed = sides[i];
+      if (listed == 0) {
+        keys[i] = key + 1;
+        size++;
+      }
+      sides[i] = (byte) (listed | side);
+      return listed;
+    }
+
+    // the edges listed from both ends as sorted pair keys
+    long[] listedTwice() {
+      long[] edges = new long[16];
+      int n = 0;
+      for (int i = 0; i < keys.length; i++) {
+        if (sides[i] != 3) continue;
+        if (n == edges.length) edges = Arrays.copyOf(edges, 2 * n);
+        edges[n++] = keys[i] - 1;
+      }
+      edges = Arrays.copyOf(edges, n);
+      Arrays.sort(edges);
+      return edges;
+    }
+
+    private void resize() {
+      long[] oldKeys = keys;
+      byte[] oldSides = sides;
+      keys = new long[2 * oldKeys.length];
+      sides = new byte[2 * oldKeys.length];
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldSides[i] == 0) continue;
+        int j = slot(keys, oldKeys[i]);
+        keys[j] = oldKeys[i];
+        sides[j] = oldSides[i];
+      }
+    }
+
+    // the slot holding k, or the empty slot where it belongs
+    private static int slot(long[] keys, long k) {
+      int mask = keys.length - 1;
+      int i = (int) ((k * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+      while (keys[i] != 0 && keys[i] != k) i = (i + 1) & mask;
+      return i;
+    }
   }
 
   /**
@@ -171,17 +383,50 @@ public class SymbolGraphMemoryEfficient {
 
   /**
    * Returns the graph associated with the symbol graph. It is the client's responsibility not to
-   * mutate the graph.
+   * mutate the graph. When the adjacency is held in a compact format, a new {@link Graph} is
+   * materialized from it on every call; prefer {@link #adjacency()} in that case.
    *
    * @return the graph associated with the symbol graph
    */
   public Graph graph() {
-    return graph;
+    if (graph != null) return graph;
+    Graph copy = new Graph(adjacency.V());
+    int[] neighbors = new int[adjacency.maxDegree()];
+    for (int v = 0; v < adjacency.V(); v++) {
+      int n = adjacency.neighbors(v, neighbors);
+      boolean selfLoopPending = false;
+      for (int i = 0; i < n; i++) {
+        if (v < neighbors[i]) copy.addEdge(v, neighbors[i]);
+        else if (v == neighbors[i] && (selfLoopPending = !selfLoopPending)) copy.addEdge(v, v);
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Tells whether the edge between {@code v} and {@code w} was listed from both sides, that is each
+   * word's line in the input names the other as a synonym.
+   *
+   * @param v one endpoint
+   * @param w the other endpoint
+   * @return true if both words list each other
+   */
+  public boolean isReciprocal(int v, int w) {
+    return Arrays.binarySearch(reciprocal, pairKey(v, w)) >= 0;
+  }
+
+  /**
+   * Returns the adjacency of the symbol graph in the format chosen at construction.
+   *
+   * @return the adjacency associated with the symbol graph
+   */
+  public Adjacency adjacency() {
+    return adjacency;
   }
 
   // throw an IllegalArgumentException unless {@code 0 <= v < V}
   private void validateVertex(int v) {
-    int V = graph.V();
+    int V = keys.length;
     if (v < 0 || v >= V)
       throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V - 1));
   }
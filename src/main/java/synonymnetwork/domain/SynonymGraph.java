@@ -1,22 +1,26 @@
 package synonymnetwork.domain;
 
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvException;
-import edu.princeton.cs.algs4.BreadthFirstPaths;
 import edu.princeton.cs.algs4.Graph;
 import edu.princeton.cs.algs4.In;
-import edu.princeton.cs.algs4.SeparateChainingHashST;
 import edu.princeton.cs.algs4.StdRandom;
 import edu.princeton.cs.algs4.SymbolGraph;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 /**
  * SynonymGraph represents a graph-based structure for exploring relationships between words and
@@ -39,8 +43,8 @@ import java.util.Set;
  *
  * <ul>
  *   <li>edu.princeton.cs.algs4.Graph
- *   <li>edu.princeton.cs.algs4.BreadthFirstPaths
  *   <li>edu.princeton.cs.algs4.ST
+ *   <li>Adjacency - the neighbour lists, in the format selected by AdjacencyFormat.
  *   <li>SymbolGraphMemoryEfficient - a custom implementation of SymbolGraph Class.
  * </ul>
  *
@@ -60,55 +64,391 @@ import java.util.Set;
  * @version 1.2
  */
 public class SynonymGraph {
-  private SymbolGraphMemoryEfficient sg;
-  private Graph graph;
-  private SeparateChainingHashST<String, String> wordDefinitions;
+  // ranked synonyms kept per word beyond the number shown, to make room for path words skipped
+  private static final int RANKING_SLACK = 8;
+  // symbol table node, name and lookup index slots, ranked synonyms and edge weights per word
+  private static final int WORD_BYTES = 160;
+
+  private volatile State state;
+  private final List<GraphChange> pending =
+      new ArrayList<>(); // not yet in the base; guarded by this
+  private volatile long changeCount;
+  private final Object compactionLock = new Object();
+  private VertexOrdering ordering;
+  private AdjacencyFormat format;
+  private SynonymRanking ranking;
+  private int synonymsPerWord;
+  private PathSearch pathSearch = BreadthFirstPathSearch::shortestPath;
+  private String pathEngine = PathSearchEngine.SEQUENTIAL.name(); // as recorded in PathSearchEvent
+  private volatile WordDefinitions wordDefinitions;
+  private String contentHash;
 
   /** Constructor initializes fields. */
   public SynonymGraph() {
-    try {
-      // Get input streams for the resources
-      InputStream thesaurusStream = getClass().getClassLoader().getResourceAsStream("mthesaur.txt");
-      if (thesaurusStream == null) {
-        throw new RuntimeException("Cannot find mthesaur.txt in resources");
-      }
+    this(VertexOrdering.FILE);
+  }
 
-      // Create temporary file for thesaurus since SymbolGraphMemoryEfficient needs a file path
-      File tempThesaurus = File.createTempFile("mthesaur", ".txt");
-      tempThesaurus.deleteOnExit();
-      Files.copy(thesaurusStream, tempThesaurus.toPath(), StandardCopyOption.REPLACE_EXISTING);
+  /**
+   * Constructor initializes fields, numbering the graph's vertices with the given ordering.
+   *
+   * @param ordering vertex numbering applied while the graph is built
+   */
+  public SynonymGraph(VertexOrdering ordering) {
+    this(ordering, AdjacencyFormat.GRAPH);
+  }
+
+  /**
+   * Constructor initializes fields, numbering the graph's vertices with the given ordering and
+   * holding the adjacency in the given format.
+   *
+   * @param ordering vertex numbering applied while the graph is built
+   * @param format in-memory representation of the adjacency
+   */
+  public SynonymGraph(VertexOrdering ordering, AdjacencyFormat format) {
+    this(ordering, format, SynonymRanking.ADJACENCY, 4);
+  }
+
+  /**
+   * Constructor initializes fields and precomputes each word's synonym ranking.
+   *
+   * @param ordering vertex numbering applied while the graph is built
+   * @param format in-memory representation of the adjacency
+   * @param ranking preference order used to pick the synonyms shown for a word
+   * @param synonymsPerWord number of synonyms returned for each word on a path
+   */
+  public SynonymGraph(
+      VertexOrdering ordering,
+      AdjacencyFormat format,
+      SynonymRanking ranking,
+      int synonymsPerWord) {
+    this(ordering, format, ranking, synonymsPerWord, WordDefinitions.load());
+  }
 
-      // Initialize the graph with the temporary file
-      this.sg = new SymbolGraphMemoryEfficient(tempThesaurus.getAbsolutePath(), ",");
-      this.graph = sg.graph();
-      wordDefinitions = fillWordDefinitions();
+  /**
+   * Constructor that builds the graph only, for callers that load the definitions separately.
+   *
+   * @param ordering vertex numbering applied while the graph is built
+   * @param format in-memory representation of the adjacency
+   * @param ranking preference order used to pick the synonyms shown for a word
+   * @param synonymsPerWord number of synonyms returned for each word on a path
+   * @param wordDefinitions the definitions, or null to attach them later
+   */
+  public SynonymGraph(
+      VertexOrdering ordering,
+      AdjacencyFormat format,
+      SynonymRanking ranking,
+      int synonymsPerWord,
+      WordDefinitions wordDefinitions) {
+    this(
+        openThesaurus(),
+        UnaryOperator.identity(),
+        ordering,
+        format,
+        ranking,
+        synonymsPerWord,
+        wordDefinitions);
+  }
 
-      thesaurusStream.close();
+  /**
+   * Constructor that builds the graph from a thesaurus other than mthesaur.txt, for instance one of
+   * several served side by side.
+   *
+   * @param thesaurus the thesaurus, one line per word followed by its synonyms, comma separated;
+   *     the stream is closed
+   * @param words returns the string to keep for each word, equal to it, for instance to share the
+   *     strings with other graphs
+   * @param ordering vertex numbering applied while the graph is built
+   * @param format in-memory representation of the adjacency
+   * @param ranking preference order used to pick the synonyms shown for a word
+   * @param synonymsPerWord number of synonyms returned for each word on a path
+   * @param wordDefinitions the definitions, or null to attach them later
+   */
+  public SynonymGraph(
+      InputStream thesaurus,
+      UnaryOperator<String> words,
+      VertexOrdering ordering,
+      AdjacencyFormat format,
+      SynonymRanking ranking,
+      int synonymsPerWord,
+      WordDefinitions wordDefinitions) {
+    this.ordering = ordering;
+    this.format = format;
+    this.ranking = ranking;
+    this.synonymsPerWord = synonymsPerWord;
+    this.wordDefinitions = wordDefinitions;
+    // Fingerprint of the thesaurus, fed as the file is read
+    MessageDigest sourceDigest = newSourceDigest();
+    SymbolGraphMemoryEfficient sg =
+        readThesaurus(
+            thesaurus,
+            sourceDigest,
+            file -> {
+              GraphBuildEvent event = GraphBuildEvent.start("symbol-graph");
+              SymbolGraphMemoryEfficient built =
+                  new SymbolGraphMemoryEfficient(file, ",", ordering, format, words);
+              event.finish(built.adjacency());
+              return built;
+            });
+    this.state = buildState(sg, 0, "0");
+    contentHash = HexFormat.of().formatHex(sourceDigest.digest());
+  }
+
+  /**
+   * Reads the neighbour lists one shard owns straight from mthesaur.txt, without building the
+   * graph, for a process that only answers for its shard. The vertices are numbered as a graph
+   * built with {@link VertexOrdering#FILE} numbers them.
+   *
+   * @param shard the shard's index
+   * @param shards the number of shards
+   * @return the partition, whose numbering is the {@link #getNumberingVersion()} of such a graph
+   */
+  public static GraphPartition loadPartition(int shard, int shards) {
+    MessageDigest sourceDigest = newSourceDigest();
+    // the digest is complete once the file is written, before the partition is read from it
+    return readThesaurus(
+        openThesaurus(),
+        sourceDigest,
+        file ->
+            GraphPartition.load(
+                file,
+                ",",
+                shard,
+                shards,
+                numberingVersion(
+                    HexFormat.of().formatHex(sourceDigest.digest()), VertexOrdering.FILE)));
+  }
+
+  // Copies the thesaurus to a temporary file, since both loaders read it twice and need a path,
+  // feeding sourceDigest on the way, and hands the file's path to load
+  private static <T> T readThesaurus(
+      InputStream thesaurus, MessageDigest sourceDigest, Function<String, T> load) {
+    File tempThesaurus = null;
+    try (InputStream thesaurusStream = thesaurus) {
+      tempThesaurus = File.createTempFile("mthesaur", ".txt");
+      tempThesaurus.deleteOnExit();
+      Files.copy(
+          new DigestInputStream(thesaurusStream, sourceDigest),
+          tempThesaurus.toPath(),
+          StandardCopyOption.REPLACE_EXISTING);
+      return load.apply(tempThesaurus.getAbsolutePath());
     } catch (IOException e) {
       throw new RuntimeException("Error initializing SynonymGraph: " + e.getMessage(), e);
+    } finally {
+      // the file is fully read by now; graphs loaded on demand must not leave files behind
+      if (tempThesaurus != null) tempThesaurus.delete();
     }
   }
 
-  private SeparateChainingHashST<String, String> fillWordDefinitions() {
-    SeparateChainingHashST<String, String> st = new SeparateChainingHashST<>();
+  private static MessageDigest newSourceDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
 
-    try (InputStream dictStream = getClass().getClassLoader().getResourceAsStream("dict.csv");
-        BufferedReader reader = new BufferedReader(new InputStreamReader(dictStream));
-        CSVReader csvReader = new CSVReader(reader)) {
+  private static String numberingVersion(String contentHash, VertexOrdering ordering) {
+    return contentHash.substring(0, 24) + "-" + ordering.name();
+  }
 
-      if (dictStream == null) {
-        throw new RuntimeException("Cannot find dict.csv in resources");
-      }
+  private static InputStream openThesaurus() {
+    InputStream thesaurusStream =
+        SynonymGraph.class.getClassLoader().getResourceAsStream("mthesaur.txt");
+    if (thesaurusStream == null) {
+      throw new RuntimeException("Cannot find mthesaur.txt in resources");
+    }
+    return thesaurusStream;
+  }
+
+  // the base graph with everything derived from it, without runtime changes
+  private State buildState(SymbolGraphMemoryEfficient sg, long changes, String numbering) {
+    GraphBuildEvent event = GraphBuildEvent.start("lookup-index");
+    WordLookupIndex lookupIndex = new WordLookupIndex(sg);
+    event.finish(sg.adjacency());
+    event = GraphBuildEvent.start("ranking");
+    RankedNeighbors rankedSynonyms = ranking.rank(sg.adjacency(), synonymsPerWord + RANKING_SLACK);
+    event.finish(sg.adjacency());
+    event = GraphBuildEvent.start("edge-weights");
+    EdgeWeights weights = EdgeWeights.of(sg);
+    event.finish(sg.adjacency());
+    return new State(
+        sg,
+        lookupIndex,
+        rankedSynonyms,
+        DeltaOverlay.over(sg, weights),
+        changes,
+        changes,
+        numbering);
+  }
+
+  /**
+   * Returns the symbol graph backing this graph. It is the client's responsibility not to mutate
+   * it. Runtime changes are not part of it until they are compacted, after which a new symbol graph
+   * is returned.
+   *
+   * @return the underlying symbol graph
+   */
+  public SymbolGraphMemoryEfficient getSymbolGraph() {
+    return state.sg;
+  }
 
-      List<String[]> rows = csvReader.readAll();
-      for (String[] row : rows) {
-        st.put(row[0], row[1]);
+  /**
+   * Returns the number of runtime changes folded into the symbol graph that {@link
+   * #getSymbolGraph()} returns: 0 until the first compaction.
+   *
+   * @return the change count the symbol graph reflects
+   */
+  public long getCompactedChangeCount() {
+    return state.compacted;
+  }
+
+  /**
+   * Returns the graph as it is now, runtime changes included, numbered and named as by the overlay.
+   * Like the symbol graph it is never modified; a later change or compaction replaces it.
+   *
+   * @return the current graph
+   */
+  public DeltaOverlay getCurrentGraph() {
+    return state.overlay;
+  }
+
+  /**
+   * Applies one runtime change. It is visible to every query started after this returns; queries
+   * already running finish on the graph they started with.
+   *
+   * @param change the change
+   * @return true if the graph changed, false if it already was as the change asks
+   * @throws IllegalArgumentException if the change names a word that is not in the graph, or links
+   *     a word to itself
+   */
+  public synchronized boolean apply(GraphChange change) {
+    State current = state;
+    DeltaOverlay overlay = change.applyTo(current.overlay);
+    if (overlay == current.overlay) return false;
+    state = current.withOverlay(overlay, current.changes + 1);
+    pending.add(change);
+    changeCount++;
+    return true;
+  }
+
+  /**
+   * Returns the number of changes applied since the graph was loaded, including compacted ones.
+   *
+   * @return the change count
+   */
+  public long getChangeCount() {
+    return changeCount;
+  }
+
+  /**
+   * Returns the number of changes held in the overlay rather than in the base graph.
+   *
+   * @return the pending change count
+   */
+  public int getPendingChanges() {
+    return state.overlay.size();
+  }
+
+  /**
+   * Folds the runtime changes into a fresh base graph, with its rankings, edge weights and lookup
+   * index rebuilt. Queries and changes carry on meanwhile; changes made during the rebuild are
+   * applied again on top of the new base before it replaces the old one.
+   *
+   * @return the number of changes folded into the base
+   */
+  public int compact() {
+    synchronized (compactionLock) {
+      State snapshot;
+      int folded;
+      synchronized (this) {
+        snapshot = state;
+        folded = pending.size();
+      }
+      if (folded == 0) return 0;
+      // compaction renumbers the vertices, differently depending on where the changes were folded
+      GraphBuildEvent event = GraphBuildEvent.start("compaction");
+      SymbolGraphMemoryEfficient compacted = snapshot.overlay.compact(ordering, format);
+      event.finish(compacted.adjacency());
+      State rebuilt = buildState(compacted, snapshot.changes, keyOrder(compacted));
+      synchronized (this) {
+        DeltaOverlay overlay = rebuilt.overlay;
+        List<GraphChange> later = new ArrayList<>(pending.subList(folded, pending.size()));
+        for (GraphChange change : later) overlay = change.applyTo(overlay);
+        pending.clear();
+        pending.addAll(later);
+        state = rebuilt.withOverlay(overlay, state.changes);
       }
-    } catch (IOException | CsvException e) {
-      throw new RuntimeException("Error loading dictionary: " + e.getMessage(), e);
+      return folded;
     }
+  }
 
-    return st;
+  // a digest of the words in vertex order, which is what the vertex numbers mean
+  private static String keyOrder(SymbolGraphMemoryEfficient sg) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+    int V = sg.adjacency().V();
+    for (int v = 0; v < V; v++) {
+      digest.update(sg.nameOf(v).getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) '\n');
+    }
+    return HexFormat.of().formatHex(digest.digest(), 0, 12);
+  }
+
+  /**
+   * Returns an estimate of the heap held by this graph, in bytes: the adjacency and the per-word
+   * tables, but not the word strings themselves, which may be shared, nor the definitions.
+   *
+   * @return the estimated size
+   */
+  public long estimatedBytes() {
+    State s = state;
+    return s.graph.estimatedBytes() + WORD_BYTES * s.graph.V();
+  }
+
+  /**
+   * Returns a SHA-256 fingerprint of the thesaurus this graph was built from, as hex. Two graphs
+   * built from the same file have the same hash; the definitions have their own.
+   *
+   * @return the content hash
+   */
+  public String getContentHash() {
+    return contentHash;
+  }
+
+  /**
+   * Identifies how the vertices were numbered when the graph was loaded: the thesaurus and the
+   * vertex ordering. A {@link GraphPartition} with the same numbering gives every word the same
+   * vertex number as this graph's base did before any compaction.
+   *
+   * @return the numbering version
+   */
+  public String getNumberingVersion() {
+    return numberingVersion(contentHash, ordering);
+  }
+
+  /**
+   * Replaces the search used by findPath, for example with a parallel engine for a large graph.
+   *
+   * @param pathSearch the shortest-path search to use
+   */
+  public void setPathSearch(PathSearch pathSearch) {
+    this.pathSearch = pathSearch;
+    this.pathEngine = "CUSTOM";
+  }
+
+  /**
+   * Replaces the search used by findPath with one of the built-in engines.
+   *
+   * @param engine the engine
+   * @param parallelism worker threads for engines that run in parallel; 0 uses every processor
+   */
+  public void setPathSearch(PathSearchEngine engine, int parallelism) {
+    this.pathSearch = engine.create(parallelism);
+    this.pathEngine = engine.name();
   }
 
   /**
@@ -118,9 +458,18 @@ public class SynonymGraph {
    * @return the definition of the word provided.
    */
   public String findWordDefinition(String word) {
-    if (wordDefinitions.get(word) == null) return "This word is not currently in our dictionary.";
+    WordDefinitions definitions = wordDefinitions;
+    if (definitions == null) throw new IllegalStateException("Definitions are not loaded yet");
+    return definitions.find(word);
+  }
 
-    return wordDefinitions.get(word);
+  /**
+   * Attaches definitions to a graph built without them.
+   *
+   * @param wordDefinitions the definitions findWordDefinition answers from
+   */
+  public void setWordDefinitions(WordDefinitions wordDefinitions) {
+    this.wordDefinitions = wordDefinitions;
   }
 
   /**
@@ -130,7 +479,71 @@ public class SynonymGraph {
    * @return boolean value
    */
   public boolean truthOrFalse(String word) {
-    return (sg.contains(word)) ? true : false;
+    return (state.overlay.contains(word)) ? true : false;
+  }
+
+  /**
+   * Returns words that start with the given prefix, ignoring case, for autocompletion.
+   *
+   * @param prefix The beginning of a word.
+   * @param limit The maximum number of words to return.
+   * @return Alphabetically ordered words starting with the prefix. Words added at runtime are only
+   *     suggested once compacted into the base graph.
+   */
+  public List<String> suggestWords(String prefix, int limit) {
+    State s = state;
+    List<String> words = s.lookupIndex.wordsWithPrefix(prefix, limit);
+    if (!s.overlay.isEmpty()) words.removeIf(word -> !s.overlay.contains(word));
+    return words;
+  }
+
+  /**
+   * Returns the words closest in spelling to the given word, for did-you-mean hints.
+   *
+   * @param word The possibly misspelled word.
+   * @param maxDistance The maximum number of single-character edits.
+   * @param limit The maximum number of words to return.
+   * @return Words ordered from the fewest edits away. Words added at runtime are only found once
+   *     compacted into the base graph.
+   */
+  public List<String> findSimilarSpellings(String word, int maxDistance, int limit) {
+    State s = state;
+    List<String> words = s.lookupIndex.closestWords(word, maxDistance, limit);
+    if (!s.overlay.isEmpty()) words.removeIf(match -> !s.overlay.contains(match));
+    return words;
+  }
+
+  /**
+   * Collects the words within a number of synonym hops of a word, breadth first.
+   *
+   * @param word The centre word.
+   * @param depth The largest number of hops to include.
+   * @param maxNodes The largest number of words to include.
+   * @return The neighbourhood, or null if the word is not in the graph.
+   */
+  public Neighborhood findNeighborhood(String word, int depth, int maxNodes) {
+    State s = state;
+    if (!s.overlay.contains(word)) return null;
+    return Neighborhood.around(
+        s.graph, s.overlay::nameOf, s.overlay.indexOf(word), depth, maxNodes);
+  }
+
+  /**
+   * Finds the words that share the most synonyms with a word. The sorted neighbour lists this
+   * searches are built on first use after each change to the graph.
+   *
+   * @param word The word to compare against.
+   * @param k The largest number of words to return.
+   * @param measure How shared synonyms are scored.
+   * @param maxHubDegree Synonyms with more synonyms than this are not followed to find candidates.
+   * @return Up to k words, most similar first, or null if the word is not in the graph.
+   */
+  public List<SimilarWord> findSimilarWords(
+      String word, int k, SimilarityMeasure measure, int maxHubDegree) {
+    State s = state;
+    if (!s.overlay.contains(word)) return null;
+    return s.similarity()
+        .mostSimilar(s.overlay.indexOf(word), k, measure, maxHubDegree, s.overlay::nameOf);
   }
 
   /**
@@ -143,29 +556,144 @@ public class SynonymGraph {
    *     exists
    */
   public List<String> findPath(String start, String end) {
+    State s = state;
     // check if the words are in the graph
-    if (!sg.contains(start) || !sg.contains(end)) {
+    if (!s.overlay.contains(start) || !s.overlay.contains(end)) {
       return null;
     }
 
     // get the start and end vertices
-    int startVertex = sg.indexOf(start);
-    int endVertex = sg.indexOf(end);
+    int startVertex = s.overlay.indexOf(start);
+    int endVertex = s.overlay.indexOf(end);
 
     // use bfs to find the shortest path
-    BreadthFirstPaths bfs = new BreadthFirstPaths(graph, startVertex);
+    return toWords(s, search(s, startVertex, endVertex, pathEngine, pathSearch::shortestPath));
+  }
+
+  /**
+   * Finds a shortest path like {@link #findPath(String, String)}, answering from a cache of
+   * earlier results when it holds the pair and offering it the path otherwise. The cache is keyed
+   * by vertex number together with a version string that changes whenever runtime changes or a
+   * compaction may have changed paths or renumbered vertices. A cached path that does not run
+   * from the first word to the last over vertices of the graph, as a store cut off mid-write may
+   * hold, is searched again.
+   *
+   * @param start the first word
+   * @param end the last word
+   * @param cache earlier results
+   * @return the words of the path, or null if either word is missing or they are not connected
+   */
+  public List<String> findPath(String start, String end, PathCache cache) {
+    State s = state;
+    if (!s.overlay.contains(start) || !s.overlay.contains(end)) {
+      return null;
+    }
+    int startVertex = s.overlay.indexOf(start);
+    int endVertex = s.overlay.indexOf(end);
+    String version = s.version();
+    int[] vertices = cache.get(version, startVertex, endVertex);
+    if (vertices != null && vertices.length > 0 && !isPath(vertices, startVertex, endVertex, s)) {
+      vertices = null; // a damaged entry; search again and overwrite it
+    }
+    if (vertices == null) {
+      vertices = search(s, startVertex, endVertex, pathEngine, pathSearch::shortestPath);
+      cache.put(version, startVertex, endVertex, vertices);
+    } else if (vertices.length == 0) {
+      return null; // known to be unconnected
+    }
+    return toWords(s, vertices);
+  }
 
-    // return message if there is no path
-    if (!bfs.hasPathTo(endVertex)) {
+  /**
+   * Finds a shortest path like {@link #findPath(String, String)}, reporting the size of each level
+   * of the search as it goes. The search is always the sequential breadth-first one, whatever
+   * search has been set, so the path is the one the default search returns.
+   *
+   * @param start the first word
+   * @param end the last word
+   * @param listener told about each level, and asked whether to go on
+   * @return the words of the path, or null if either word is missing or they are not connected
+   * @throws java.util.concurrent.CancellationException if the listener abandoned the search
+   */
+  public List<String> findPath(String start, String end, SearchProgressListener listener) {
+    State s = state;
+    if (!s.overlay.contains(start) || !s.overlay.contains(end)) {
       return null;
     }
+    return toWords(
+        s,
+        search(
+            s,
+            s.overlay.indexOf(start),
+            s.overlay.indexOf(end),
+            "STREAM",
+            (graph, from, to, expanded) ->
+                BreadthFirstPathSearch.shortestPath(graph, from, to, listener, expanded)));
+  }
 
-    // return path of vertices as a list of words
-    List<String> path = new ArrayList<>();
-    for (int vertex : bfs.pathTo(endVertex)) {
-      path.add(sg.nameOf(vertex));
+  /**
+   * Finds the path between two words with the lowest total cost, where strongly linked synonyms
+   * (listed by each other, sharing synonyms) cost less than weak ones (see {@link EdgeWeights}).
+   * The path may have more words than the shortest one but avoids obscure links.
+   *
+   * @param start The starting word to find a path from
+   * @param end The target word to find a path to
+   * @return List of words forming the lowest-cost path from start to end, or null if no path exists
+   */
+  public List<String> findWeightedPath(String start, String end) {
+    State s = state;
+    if (!s.overlay.contains(start) || !s.overlay.contains(end)) {
+      return null;
     }
+    int[] path =
+        search(
+            s,
+            s.overlay.indexOf(start),
+            s.overlay.indexOf(end),
+            "WEIGHTED",
+            (graph, from, to, expanded) ->
+                WeightedPathSearch.shortestPath(graph, s.overlay.weights(), from, to, expanded));
+    return toWords(s, path);
+  }
 
+  // runs a search, recorded as a PathSearchEvent when it takes longer than the event's threshold;
+  // the engine counts the lists it expanded in its own loops, so recording adds no per-vertex cost
+  private static int[] search(State s, int from, int to, String engine, CountedSearch search) {
+    long[] expanded = new long[1];
+    PathSearchEvent event = new PathSearchEvent();
+    event.begin();
+    int[] path = search.shortestPath(s.graph, from, to, expanded);
+    event.end();
+    if (event.shouldCommit()) {
+      event.source = s.overlay.nameOf(from);
+      event.target = s.overlay.nameOf(to);
+      event.engine = engine;
+      event.expanded = expanded[0];
+      event.length = path == null ? 0 : path.length;
+      event.commit();
+    }
+    return path;
+  }
+
+  // whether a cached path runs from s to t over vertices of the graph
+  private static boolean isPath(int[] vertices, int from, int to, State s) {
+    if (vertices[0] != from || vertices[vertices.length - 1] != to) return false;
+    int V = s.graph.V();
+    for (int v : vertices) {
+      if (v < 0 || v >= V) return false;
+    }
+    return true;
+  }
+
+  // return path of vertices as a list of words, or null when there is no path
+  private static List<String> toWords(State s, int[] vertices) {
+    if (vertices == null) {
+      return null;
+    }
+    List<String> path = new ArrayList<>(vertices.length);
+    for (int vertex : vertices) {
+      path.add(s.overlay.nameOf(vertex));
+    }
     return path;
   }
 
@@ -197,7 +725,10 @@ public class SynonymGraph {
    *     depth level
    */
   public List<String> generateWordAtDepth(String startWord, int targetDepth) {
-    if (!sg.contains(startWord)) return null;
+    State s = state;
+    if (!s.overlay.contains(startWord)) return null;
+    WordGenerationEvent event = new WordGenerationEvent();
+    event.begin();
 
     // NEW: Maximum attempts counter
     final int MAX_ATTEMPTS = 100;
@@ -213,8 +744,8 @@ public class SynonymGraph {
       for (int i = 0; i < targetDepth; i++) {
         String previousWord = randomWordPath.get(randomWordPath.size() - 1);
         List<String> adjList = new ArrayList<>();
-        for (int v : graph.adj(sg.indexOf(previousWord))) {
-          String adjacentWord = sg.nameOf(v);
+        for (int v : s.graph.adj(s.overlay.indexOf(previousWord))) {
+          String adjacentWord = s.overlay.nameOf(v);
           if (!randomWordPath.contains(adjacentWord)) {
             adjList.add(adjacentWord);
           }
@@ -232,42 +763,68 @@ public class SynonymGraph {
 
       // NEW: Check for valid path before returning
       if (pathFound && randomWordPath.size() == targetDepth + 1) {
-        return randomWordPath;
+        return recordGeneration(event, startWord, targetDepth, attempt + 1, randomWordPath);
       }
     }
     // NEW: Return null if no valid path found after all attempts
-    return null;
+    return recordGeneration(event, startWord, targetDepth, MAX_ATTEMPTS, null);
+  }
+
+  private static List<String> recordGeneration(
+      WordGenerationEvent event,
+      String startWord,
+      int targetDepth,
+      int attempts,
+      List<String> path) {
+    event.end();
+    if (event.shouldCommit()) {
+      event.startWord = startWord;
+      event.targetDepth = targetDepth;
+      event.attempts = attempts;
+      event.found = path != null;
+      event.commit();
+    }
+    return path;
   }
 
   /**
-   * Gets a limited number of synonyms for words in the path from start to end
+   * Gets a limited number of synonyms for words in the path from start to end. Each word's synonyms
+   * are the highest ranked ones that are not themselves on the path, best first.
    *
    * @param path List of words forming the path
    * @return Map of each word in path to its limited set of synonyms
    */
   public Map<String, Set<String>> getPathSynonyms(List<String> path) {
     if (path == null) return null;
+    State s = state;
+    DeltaOverlay words = s.overlay;
 
-    Map<String, Set<String>> allSynonyms = new HashMap<>();
-    int maxSynonymsPerWord = 4; // Limit the number of synonyms per word
+    // Words on the path are never offered as synonyms
+    Set<Integer> pathVertices = new HashSet<>();
+    for (String word : path) {
+      if (words.contains(word)) pathVertices.add(words.indexOf(word));
+    }
 
-    // For each word in the path, get limited adjacent vertices
+    Map<String, Set<String>> allSynonyms = new HashMap<>();
     for (String word : path) {
-      Set<String> synonyms = new HashSet<>();
-      int wordVertex = sg.indexOf(word);
-
-      // Get all adjacent vertices
-      int count = 0;
-      for (int adj : graph.adj(wordVertex)) {
-        String synonym = sg.nameOf(adj);
-        // Only add synonym if it's not in the main path and we haven't hit our limit
-        if (!path.contains(synonym) && count < maxSynonymsPerWord) {
-          synonyms.add(synonym);
-          count++;
+      Set<String> synonyms = new LinkedHashSet<>();
+      if (words.contains(word)) {
+        int wordVertex = words.indexOf(word);
+        // A word added or whose links changed at runtime is not ranked until compaction; its
+        // synonyms are taken in adjacency order instead
+        int[] unranked = null;
+        if (words.isChanged(wordVertex) || wordVertex >= s.sg.adjacency().V()) {
+          unranked = new int[s.graph.degree(wordVertex)];
+          s.graph.neighbors(wordVertex, unranked);
+        }
+        int candidates = unranked != null ? unranked.length : s.rankedSynonyms.size(wordVertex);
+        // Take the best ranked synonyms until we hit our limit
+        for (int i = 0; i < candidates; i++) {
+          int synonym = unranked != null ? unranked[i] : s.rankedSynonyms.get(wordVertex, i);
+          if (!pathVertices.contains(synonym)) synonyms.add(words.nameOf(synonym));
+          if (synonyms.size() >= synonymsPerWord) break;
         }
-        if (count >= maxSynonymsPerWord) break;
       }
-
       allSynonyms.put(word, synonyms);
     }
 
@@ -387,4 +944,65 @@ public class SynonymGraph {
     System.out.println(sg.findWordDefinition(word));
     System.out.println();
   }
+
+  // a search in the form of PathSearch#shortestPath(Adjacency, int, int, long[])
+  @FunctionalInterface
+  private interface CountedSearch {
+    int[] shortestPath(Adjacency graph, int from, int to, long[] expanded);
+  }
+
+  /**
+   * The base graph with everything derived from it, and the runtime changes on top. Each query
+   * reads the current state once, so it never mixes two versions of the graph; changes and
+   * compaction publish a new state rather than modify this one.
+   */
+  private static final class State {
+    final SymbolGraphMemoryEfficient sg;
+    final WordLookupIndex lookupIndex;
+    final RankedNeighbors rankedSynonyms;
+    final DeltaOverlay overlay;
+    final Adjacency graph; // the base adjacency until there are changes, then the overlay
+    final long changes; // runtime changes reflected, folded into the base or in the overlay
+    final long compacted; // runtime changes folded into the base
+    final String numbering; // "0" as loaded, else a digest of the compacted base's word order
+    private volatile SimilarityIndex similarity; // built once, on first use; others wait for it
+
+    State(
+        SymbolGraphMemoryEfficient sg,
+        WordLookupIndex lookupIndex,
+        RankedNeighbors rankedSynonyms,
+        DeltaOverlay overlay,
+        long changes,
+        long compacted,
+        String numbering) {
+      this.sg = sg;
+      this.lookupIndex = lookupIndex;
+      this.rankedSynonyms = rankedSynonyms;
+      this.overlay = overlay;
+      this.graph = overlay.isEmpty() ? sg.adjacency() : overlay;
+      this.changes = changes;
+      this.compacted = compacted;
+      this.numbering = numbering;
+    }
+
+    SimilarityIndex similarity() {
+      SimilarityIndex index = similarity;
+      if (index == null) {
+        synchronized (this) {
+          index = similarity;
+          if (index == null) similarity = index = SimilarityIndex.of(graph);
+        }
+      }
+      return index;
+    }
+
+    State withOverlay(DeltaOverlay overlay, long changes) {
+      return new State(sg, lookupIndex, rankedSynonyms, overlay, changes, compacted, numbering);
+    }
+
+    // changes whenever the paths or the vertex numbers may have
+    String version() {
+      return changes + "." + numbering;
+    }
+  }
 }
@@ -0,0 +1,89 @@
+package synonymnetwork.domain;
+
+import java.util.Arrays;
+
+/**
+ * Orders of preference among a word's synonyms, used to pick the few shown next to each word on a
+ * path. The ordering is computed once when the graph is built and kept as a truncated per-vertex
+ * list (see {@link RankedNeighbors}), so choosing the top <em>k</em> is a slice, not a sort.
+ *
+ * <ul>
+ *   <li>{@link #ADJACENCY} keeps adjacency order, the original first-N behaviour.
+ *   <li>{@link #DEGREE} prefers well-connected synonyms, which tend to be common words.
+ *   <li>{@link #SHARED_NEIGHBORS} prefers synonyms whose own synonyms overlap most with the word's
+ *       (Jaccard similarity of the neighbourhoods). Build time grows with the sum of squared
+ *       degrees, so it is the slowest to compute.
+ * </ul>
+ */
+public enum SynonymRanking {
+  ADJACENCY,
+  DEGREE,
+  SHARED_NEIGHBORS;
+
+  /**
+   * Computes the preferred order of every vertex's neighbours, keeping at most {@code capacity} per
+   * vertex. A vertex is never ranked among its own synonyms.
+   *
+   * @param adjacency the graph
+   * @param capacity how many ranked neighbours to keep for each vertex
+   * @return the truncated rankings
+   */
+  public RankedNeighbors rank(Adjacency adjacency, int capacity) {
+    int V = adjacency.V();
+    int[] neighbors = new int[adjacency.maxDegree()];
+
+    int[] offsets = new int[V + 1];
+    for (int v = 0; v < V; v++) {
+      int n = withoutSelf(v, neighbors, adjacency.neighbors(v, neighbors));
+      offsets[v + 1] = offsets[v] + Math.min(capacity, n);
+    }
+    int[] ranked = new int[offsets[V]];
+
+    // (score, position) packed so that an ascending primitive sort gives descending score with
+    // ties left in adjacency order
+    long[] keys = new long[adjacency.maxDegree()];
+    int[] mark = new int[this == SHARED_NEIGHBORS ? V : 0];
+    Arrays.fill(mark, -1);
+    int[] other = new int[this == SHARED_NEIGHBORS ? adjacency.maxDegree() : 0];
+
+    for (int v = 0; v < V; v++) {
+      int n = withoutSelf(v, neighbors, adjacency.neighbors(v, neighbors));
+      int keep = offsets[v + 1] - offsets[v];
+      if (this == ADJACENCY) {
+        System.arraycopy(neighbors, 0, ranked, offsets[v], keep);
+        continue;
+      }
+
+      if (this == SHARED_NEIGHBORS) {
+        for (int i = 0; i < n; i++) mark[neighbors[i]] = v;
+      }
+      for (int i = 0; i < n; i++) {
+        int w = neighbors[i];
+        float score;
+        if (this == DEGREE) {
+          score = adjacency.degree(w);
+        } else {
+          int m = adjacency.neighbors(w, other);
+          int shared = 0;
+          for (int j = 0; j < m; j++) {
+            if (mark[other[j]] == v) shared++;
+          }
+          score = (float) shared / (n + m - shared);
+        }
+        keys[i] = ((long) (Integer.MAX_VALUE - Float.floatToIntBits(score)) << 32) | i;
+      }
+      Arrays.sort(keys, 0, n);
+      for (int i = 0; i < keep; i++) ranked[offsets[v] + i] = neighbors[(int) keys[i]];
+    }
+    return new RankedNeighbors(offsets, ranked);
+  }
+
+  // drops self-loops from buffer[0..n), returning the new length
+  private static int withoutSelf(int v, int[] buffer, int n) {
+    int kept = 0;
+    for (int i = 0; i < n; i++) {
+      if (buffer[i] != v) buffer[kept++] = buffer[i];
+    }
+    return kept;
+  }
+}
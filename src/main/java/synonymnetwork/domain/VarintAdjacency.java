@@ -0,0 +1,130 @@
+package synonymnetwork.domain;
+
+import edu.princeton.cs.algs4.Graph;
+import java.util.Arrays;
+
+/**
+ * {@link Adjacency} that stores each sorted neighbour list as gaps encoded in LEB128 varints. The
+ * first neighbour is stored as a zig-zag encoded difference from the vertex itself, so a
+ * bandwidth-reducing {@link VertexOrdering} such as RCM shrinks the encoding further; every later
+ * neighbour is stored as the (non-negative) gap from the previous one. Most gaps fit in one byte.
+ *
+ * <p>The bytes of vertex {@code v} span {@code data[offsets[v]]} through {@code data[offsets[v + 1]
+ * - 1]}. Each value ends on a byte with the high bit clear, so the degree is the number of such
+ * bytes and no separate count is stored.
+ */
+public class VarintAdjacency implements Adjacency {
+  private final int[] offsets;
+  private final byte[] data;
+  private final int edges;
+  private final int maxDegree;
+
+  private VarintAdjacency(int[] offsets, byte[] data, int edges, int maxDegree) {
+    this.offsets = offsets;
+    this.data = data;
+    this.edges = edges;
+    this.maxDegree = maxDegree;
+  }
+
+  /**
+   * Encodes {@code graph}, sorting each neighbour list first.
+   *
+   * @param graph the graph to encode
+   * @return the compressed adjacency
+   */
+  public static VarintAdjacency of(Graph graph) {
+    return of(new GraphAdjacency(graph));
+  }
+
+  /**
+   * Encodes {@code adjacency}, sorting each neighbour list first.
+   *
+   * @param adjacency the adjacency to encode
+   * @return the compressed adjacency
+   */
+  public static VarintAdjacency of(Adjacency adjacency) {
+    int V = adjacency.V();
+    int[] offsets = new int[V + 1];
+    byte[] data = new byte[Math.max(16, 2 * adjacency.E())];
+    int size = 0;
+    int[] scratch = new int[adjacency.maxDegree()];
+
+    for (int v = 0; v < V; v++) {
+      int n = adjacency.neighbors(v, scratch);
+      Arrays.sort(scratch, 0, n);
+
+      // worst case is five bytes per value
+      if (data.length - size < 5 * n)
+        data = Arrays.copyOf(data, Math.max(2 * data.length, size + 5 * n));
+      int previous = v;
+      for (int i = 0; i < n; i++) {
+        int value = i == 0 ? zigZag(scratch[0] - v) : scratch[i] - previous;
+        previous = scratch[i];
+        while ((value & ~0x7F) != 0) {
+          data[size++] = (byte) (value | 0x80);
+          value >>>= 7;
+        }
+        data[size++] = (byte) value;
+      }
+      offsets[v + 1] = size;
+    }
+    return new VarintAdjacency(
+        offsets, Arrays.copyOf(data, size), adjacency.E(), adjacency.maxDegree());
+  }
+
+  private static int zigZag(int n) {
+    return (n << 1) ^ (n >> 31);
+  }
+
+  private static int unZigZag(int n) {
+    return (n >>> 1) ^ -(n & 1);
+  }
+
+  @Override
+  public int V() {
+    return offsets.length - 1;
+  }
+
+  @Override
+  public int E() {
+    return edges;
+  }
+
+  @Override
+  public int degree(int v) {
+    int count = 0;
+    for (int p = offsets[v], end = offsets[v + 1]; p < end; p++) {
+      if (data[p] >= 0) count++;
+    }
+    return count;
+  }
+
+  @Override
+  public int maxDegree() {
+    return maxDegree;
+  }
+
+  @Override
+  public int neighbors(int v, int[] dst) {
+    int p = offsets[v];
+    int end = offsets[v + 1];
+    int n = 0;
+    int current = v;
+    while (p < end) {
+      int b = data[p++];
+      int value = b & 0x7F;
+      for (int shift = 7; b < 0; shift += 7) {
+        b = data[p++];
+        value |= (b & 0x7F) << shift;
+      }
+      current = n == 0 ? v + unZigZag(value) : current + value;
+      dst[n++] = current;
+    }
+    return n;
+  }
+
+  @Override
+  public long estimatedBytes() {
+    return 4L * offsets.length + data.length;
+  }
+}
@@ -0,0 +1,125 @@
+package synonymnetwork.domain;
+
+import java.util.Arrays;
+
+/**
+ * Strategies for renumbering the vertices of an {@link Adjacency} so that vertices visited close
+ * together in a search also sit close together in the per-vertex arrays. Each strategy produces a
+ * permutation {@code order} where {@code order[v]} is the new index of old vertex {@code v}.
+ *
+ * <ul>
+ *   <li>{@link #FILE} keeps the first-seen order from the input file.
+ *   <li>{@link #BFS} numbers vertices in breadth-first order, one component at a time.
+ *   <li>{@link #RCM} uses Reverse Cuthill-McKee, which keeps the bandwidth of the adjacency small.
+ *   <li>{@link #DEGREE} numbers vertices by decreasing degree, so hubs share cache lines.
+ * </ul>
+ */
+public enum VertexOrdering {
+  FILE {
+    @Override
+    public int[] permutation(Adjacency graph) {
+      int[] order = new int[graph.V()];
+      for (int v = 0; v < order.length; v++) order[v] = v;
+      return order;
+    }
+  },
+
+  BFS {
+    @Override
+    public int[] permutation(Adjacency graph) {
+      return invert(breadthFirstSequence(graph, false));
+    }
+  },
+
+  RCM {
+    @Override
+    public int[] permutation(Adjacency graph) {
+      int[] sequence = breadthFirstSequence(graph, true);
+      // reversing the Cuthill-McKee sequence is what reduces fill and bandwidth
+      for (int i = 0, j = sequence.length - 1; i < j; i++, j--) {
+        int tmp = sequence[i];
+        sequence[i] = sequence[j];
+        sequence[j] = tmp;
+      }
+      return invert(sequence);
+    }
+  },
+
+  DEGREE {
+    @Override
+    public int[] permutation(Adjacency graph) {
+      int V = graph.V();
+      // sort by descending degree, ties broken by the original index so the order is stable
+      long[] packed = new long[V];
+      for (int v = 0; v < V; v++) {
+        packed[v] = ((long) (Integer.MAX_VALUE - graph.degree(v)) << 32) | v;
+      }
+      Arrays.sort(packed);
+      int[] sequence = new int[V];
+      for (int i = 0; i < V; i++) sequence[i] = (int) packed[i];
+      return invert(sequence);
+    }
+  };
+
+  /**
+   * Computes the renumbering for {@code graph}.
+   *
+   * @param graph the adjacency to renumber
+   * @return array mapping each old vertex index to its new index
+   */
+  public abstract int[] permutation(Adjacency graph);
+
+  /**
+   * Visits every component breadth first and returns the vertices in visiting order. When {@code
+   * byDegree} is set, each component starts at a vertex of minimum degree and neighbours are
+   * enqueued in increasing degree order (the Cuthill-McKee rule); otherwise components start at
+   * their lowest index and neighbours follow adjacency order.
+   */
+  private static int[] breadthFirstSequence(Adjacency graph, boolean byDegree) {
+    int V = graph.V();
+    boolean[] marked = new boolean[V];
+    int[] sequence = new int[V];
+    int head = 0;
+    int tail = 0;
+
+    Integer[] roots = new Integer[V];
+    for (int v = 0; v < V; v++) roots[v] = v;
+    if (byDegree) Arrays.sort(roots, (a, b) -> Integer.compare(graph.degree(a), graph.degree(b)));
+
+    int[] neighbors = new int[graph.maxDegree()];
+    for (int root : roots) {
+      if (marked[root]) continue;
+      marked[root] = true;
+      sequence[tail++] = root;
+      while (head < tail) {
+        int v = sequence[head++];
+        int n = graph.neighbors(v, neighbors);
+        int first = tail;
+        for (int i = 0; i < n; i++) {
+          int w = neighbors[i];
+          if (!marked[w]) {
+            marked[w] = true;
+            sequence[tail++] = w;
+          }
+        }
+        if (byDegree) sortByDegree(graph, sequence, first, tail);
+      }
+    }
+    return sequence;
+  }
+
+  // sorts a[from..to) by ascending degree, ties by index, via packed (degree, vertex) keys
+  private static void sortByDegree(Adjacency graph, int[] a, int from, int to) {
+    long[] packed = new long[to - from];
+    for (int i = from; i < to; i++) packed[i - from] = ((long) graph.degree(a[i]) << 32) | a[i];
+    Arrays.sort(packed);
+    for (int i = from; i < to; i++) a[i] = (int) packed[i - from];
+  }
+
+  // turns a visiting sequence (new -> old) into a renumbering (old -> new)
+  private static int[] invert(int[] sequence) {
+    int[] order = new int[sequence.length];
+    for (int i = 0; i < sequence.length; i++) order[sequence[i]] = i;
+    return order;
+  }
+}
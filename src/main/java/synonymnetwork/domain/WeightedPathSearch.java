@@ -0,0 +1,89 @@
+package synonymnetwork.domain;
+
+import java.util.Arrays;
+
+/**
+ * Single-pair lowest-cost path over an {@link Adjacency} with small integer {@link EdgeWeights}, by
+ * Dijkstra's algorithm on a Dial bucket queue. With costs of at most <em>C</em>, every tentative
+ * distance in the queue lies within <em>C</em> of the one being settled, so <em>C</em> + 1 circular
+ * buckets of plain {@code int} stacks replace the heap: each push and pop is O(1) and no boxing
+ * takes place. The search stops as soon as the target is settled.
+ */
+public final class WeightedPathSearch {
+
+  private WeightedPathSearch() {}
+
+  /**
+   * Finds a lowest-cost path from {@code s} to {@code t}.
+   *
+   * @param adjacency the graph to search
+   * @param weights the cost of every edge of {@code adjacency}
+   * @param s the source vertex
+   * @param t the target vertex
+   * @return the vertices of the path from {@code s} to {@code t} inclusive, or {@code null} if
+   *     {@code t} is not reachable from {@code s}
+   */
+  public static int[] shortestPath(Adjacency adjacency, EdgeWeights weights, int s, int t) {
+    return shortestPath(adjacency, weights, s, t, null);
+  }
+
+  /**
+   * Finds the same path as {@link #shortestPath(Adjacency, EdgeWeights, int, int)}, counting the
+   * neighbour lists read (see {@link PathSearch#shortestPath(Adjacency, int, int, long[])}).
+   *
+   * @param adjacency the graph to search
+   * @param weights the cost of every edge of {@code adjacency}
+   * @param s the source vertex
+   * @param t the target vertex
+   * @param expanded has the count added to its first element, or null to not count
+   * @return the vertices of the path, or {@code null} if {@code t} is not reachable from {@code s}
+   */
+  public static int[] shortestPath(
+      Adjacency adjacency, EdgeWeights weights, int s, int t, long[] expanded) {
+    if (s == t) return new int[] {s};
+
+    int V = adjacency.V();
+    int[] distTo = new int[V];
+    Arrays.fill(distTo, Integer.MAX_VALUE);
+    int[] edgeTo = new int[V];
+    int[] neighbors = new int[adjacency.maxDegree()];
+
+    int buckets = EdgeWeights.MAX_WEIGHT + 1;
+    int[][] bucket = new int[buckets][16];
+    int[] size = new int[buckets];
+    int queued = 0;
+    int settled = 0;
+
+    distTo[s] = 0;
+    edgeTo[s] = s;
+    bucket[0][size[0]++] = s;
+    queued++;
+    for (int d = 0; queued > 0; d++) {
+      int b = d % buckets;
+      while (size[b] > 0) {
+        int v = bucket[b][--size[b]];
+        queued--;
+        if (distTo[v] != d) continue; // stale entry, v was settled at a lower cost
+        if (v == t) {
+          if (expanded != null) expanded[0] += settled;
+          return BreadthFirstPathSearch.pathTo(edgeTo, s, t);
+        }
+        settled++;
+        int n = adjacency.neighbors(v, neighbors);
+        for (int i = 0; i < n; i++) {
+          int w = neighbors[i];
+          int dist = d + weights.weight(v, i);
+          if (dist >= distTo[w]) continue;
+          distTo[w] = dist;
+          edgeTo[w] = v;
+          int nb = dist % buckets;
+          if (size[nb] == bucket[nb].length) bucket[nb] = Arrays.copyOf(bucket[nb], 2 * size[nb]);
+          bucket[nb][size[nb]++] = w;
+          queued++;
+        }
+      }
+    }
+    if (expanded != null) expanded[0] += settled;
+    return null;
+  }
+}
@@ -0,0 +1,119 @@
+package synonymnetwork.domain;
+
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvException;
+import edu.princeton.cs.algs4.SeparateChainingHashST;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.UnaryOperator;
+
+/**
+ * The word definitions read from dict.csv. They are independent of the synonym graph, so they can
+ * be loaded at the same time as it and attached with {@link
+ * SynonymGraph#setWordDefinitions(WordDefinitions)} once both are ready.
+ */
+public class WordDefinitions {
+  private static final String NOT_IN_DICTIONARY = "This word is not currently in our dictionary.";
+  // hash node, definition string header and array, excluding the word, which graphs may share
+  private static final int ENTRY_BYTES = 80;
+
+  private final SeparateChainingHashST<String, String> definitions;
+  private final String contentHash;
+  private final long estimatedBytes;
+
+  private WordDefinitions(
+      SeparateChainingHashST<String, String> definitions, String contentHash, long estimatedBytes) {
+    this.definitions = definitions;
+    this.contentHash = contentHash;
+    this.estimatedBytes = estimatedBytes;
+  }
+
+  /**
+   * Reads dict.csv from the classpath.
+   *
+   * @return the definitions
+   * @throws RuntimeException if dict.csv is missing or cannot be parsed
+   */
+  public static WordDefinitions load() {
+    InputStream dictStream = WordDefinitions.class.getClassLoader().getResourceAsStream("dict.csv");
+    if (dictStream == null) {
+      throw new RuntimeException("Cannot find dict.csv in resources");
+    }
+    return load(dictStream, UnaryOperator.identity());
+  }
+
+  /**
+   * Reads definitions in the dict.csv format (word, definition) from a stream, which is closed.
+   *
+   * @param dictStream the definitions
+   * @param words returns the string to keep for a word, equal to it, for instance to share the
+   *     strings with a graph
+   * @return the definitions
+   * @throws RuntimeException if the stream cannot be read or parsed
+   */
+  public static WordDefinitions load(InputStream dictStream, UnaryOperator<String> words) {
+    SeparateChainingHashST<String, String> st = new SeparateChainingHashST<>();
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+    long bytes = 0;
+    try (CSVReader csvReader =
+        new CSVReader(
+            new BufferedReader(new InputStreamReader(new DigestInputStream(dictStream, digest))))) {
+      for (String[] row : csvReader.readAll()) {
+        st.put(words.apply(row[0]), row[1]);
+        bytes += ENTRY_BYTES + row[1].length();
+      }
+    } catch (IOException | CsvException e) {
+      throw new RuntimeException("Error loading dictionary: " + e.getMessage(), e);
+    }
+    return new WordDefinitions(st, HexFormat.of().formatHex(digest.digest()), bytes);
+  }
+
+  /**
+   * Returns the definition of a word.
+   *
+   * @param word the word
+   * @return its definition, or a note saying the dictionary does not have it
+   */
+  public String find(String word) {
+    DefinitionLookupEvent event = new DefinitionLookupEvent();
+    event.begin();
+    String definition = definitions.get(word);
+    event.end();
+    if (event.shouldCommit()) {
+      event.word = word;
+      event.found = definition != null;
+      event.commit();
+    }
+    return definition == null ? NOT_IN_DICTIONARY : definition;
+  }
+
+  /** Returns the number of words defined. */
+  public int size() {
+    return definitions.size();
+  }
+
+  /**
+   * Returns a SHA-256 fingerprint of the dict.csv these definitions were read from, as hex.
+   *
+   * @return the content hash
+   */
+  public String getContentHash() {
+    return contentHash;
+  }
+
+  /** Returns an estimate of the heap held by the definitions, in bytes. */
+  public long estimatedBytes() {
+    return estimatedBytes;
+  }
+}
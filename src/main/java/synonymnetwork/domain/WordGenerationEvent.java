@@ -0,0 +1,31 @@
+package synonymnetwork.domain;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/** Flight recorder event for generating a random chain of synonyms from a word. */
+@Name("synonymnetwork.WordGeneration")
+@Label("Word Generation")
+@Category("Synonym Network")
+@Description("Random walks from a word until one reaches the target depth")
+@StackTrace(false)
+@Threshold("20 ms")
+class WordGenerationEvent extends Event {
+  @Label("Start Word")
+  String startWord;
+
+  @Label("Target Depth")
+  int targetDepth;
+
+  @Label("Attempts")
+  @Description("Random walks tried, the last one included")
+  int attempts;
+
+  @Label("Found")
+  boolean found;
+}
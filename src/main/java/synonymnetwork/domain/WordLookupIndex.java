@@ -0,0 +1,183 @@
+package synonymnetwork.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Approximate lookups over the vertex names of a {@link SymbolGraphMemoryEfficient}, built once
+ * when the graph is loaded. The only structure is the vertices sorted by lower-cased name, which
+ * doubles as an implicit trie: every set of names sharing a prefix is one contiguous run.
+ *
+ * <ul>
+ *   <li>Prefix search binary-searches for the start of the run and reads it in order.
+ *   <li>Did-you-mean search walks the sorted names like a trie, computing one Levenshtein row per
+ *       character. Rows are shared by all names with the same prefix, and as soon as every entry of
+ *       a row exceeds the allowed distance the whole run under that prefix is skipped by binary
+ *       search. This is the trie traversal of a Levenshtein automaton without building either
+ *       structure explicitly.
+ * </ul>
+ */
+public class WordLookupIndex {
+  private final SymbolGraphMemoryEfficient sg;
+  private final String[] folded; // lower-cased names in sorted order
+  private final int[] vertices; // vertex of each entry of folded
+  private final int maxLength;
+
+  /**
+   * Builds the index over every vertex name of {@code sg}.
+   *
+   * @param sg the symbol graph whose names are indexed
+   */
+  public WordLookupIndex(SymbolGraphMemoryEfficient sg) {
+    this.sg = sg;
+    int V = sg.adjacency().V();
+
+    String[] names = new String[V];
+    Integer[] order = new Integer[V];
+    int longest = 0;
+    for (int v = 0; v < V; v++) {
+      names[v] = sg.nameOf(v).toLowerCase();
+      order[v] = v;
+      longest = Math.max(longest, names[v].length());
+    }
+    Arrays.sort(order, Comparator.comparing((Integer v) -> names[v]).thenComparing(v -> v));
+
+    folded = new String[V];
+    vertices = new int[V];
+    for (int i = 0; i < V; i++) {
+      vertices[i] = order[i];
+      folded[i] = names[order[i]];
+    }
+    maxLength = longest;
+  }
+
+  /**
+   * Returns up to {@code limit} words starting with {@code prefix}, ignoring case, in alphabetical
+   * order.
+   *
+   * @param prefix the prefix typed so far
+   * @param limit maximum number of words to return
+   * @return matching words
+   */
+  public List<String> wordsWithPrefix(String prefix, int limit) {
+    List<String> words = new ArrayList<>(Math.min(limit, 16));
+    if (prefix.isEmpty()) return words;
+    String key = prefix.toLowerCase();
+    for (int i = lowerBound(key); i < folded.length && words.size() < limit; i++) {
+      if (!folded[i].startsWith(key)) break;
+      words.add(sg.nameOf(vertices[i]));
+    }
+    return words;
+  }
+
+  /**
+   * Returns up to {@code limit} words within {@code maxDistance} edits of {@code word}, ignoring
+   * case, closest first and alphabetical within the same distance.
+   *
+   * @param word the possibly misspelled word
+   * @param maxDistance maximum Levenshtein distance of a match
+   * @param limit maximum number of words to return
+   * @return the closest words
+   */
+  public List<String> closestWords(String word, int maxDistance, int limit) {
+    if (limit <= 0 || folded.length == 0) return new ArrayList<>();
+    String query = word.toLowerCase();
+    int m = query.length();
+    // every word is at least m - maxLength edits away, and the rows below would cost O(m) per node
+    if (m > maxLength + maxDistance) return new ArrayList<>();
+
+    // rows[d] is the Levenshtein row of the query against the first d characters of `current`
+    int[][] rows = new int[maxLength + 1][m + 1];
+    for (int j = 0; j <= m; j++) rows[0][j] = j;
+    String current = "";
+    int validRows = 0; // rows[1..validRows] belong to the prefixes of current
+
+    // matches packed as (distance, position in sorted order), so one sort ranks them
+    long[] matches = new long[16];
+    int found = 0;
+
+    int i = 0;
+    while (i < folded.length) {
+      String name = folded[i];
+      int depth = Math.min(validRows, commonPrefix(current, name));
+      current = name;
+      boolean pruned = false;
+      while (depth < name.length()) {
+        int[] above = rows[depth];
+        int[] row = rows[++depth];
+        char c = name.charAt(depth - 1);
+        row[0] = depth;
+        int rowMin = depth;
+        for (int j = 1; j <= m; j++) {
+          int cost = query.charAt(j - 1) == c ? 0 : 1;
+          row[j] = Math.min(Math.min(row[j - 1] + 1, above[j] + 1), above[j - 1] + cost);
+          if (row[j] < rowMin) rowMin = row[j];
+        }
+        if (rowMin > maxDistance) {
+          // no extension of this prefix can come back within range
+          validRows = depth;
+          i = endOfRun(i, name, depth);
+          pruned = true;
+          break;
+        }
+      }
+      if (pruned) continue;
+      validRows = depth;
+      int distance = rows[depth][m];
+      if (distance <= maxDistance) {
+        if (found == matches.length) matches = Arrays.copyOf(matches, 2 * found);
+        matches[found++] = ((long) distance << 32) | i;
+      }
+      i++;
+    }
+
+    // ascending distance, then sorted-name position, which is alphabetical
+    Arrays.sort(matches, 0, found);
+    List<String> words = new ArrayList<>(Math.min(limit, found));
+    for (int k = 0; k < found && k < limit; k++) {
+      words.add(sg.nameOf(vertices[(int) matches[k]]));
+    }
+    return words;
+  }
+
+  private static int commonPrefix(String a, String b) {
+    int n = Math.min(a.length(), b.length());
+    int i = 0;
+    while (i < n && a.charAt(i) == b.charAt(i)) i++;
+    return i;
+  }
+
+  // first position whose name is not less than key
+  private int lowerBound(String key) {
+    int lo = 0;
+    int hi = folded.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (folded[mid].compareTo(key) < 0) lo = mid + 1;
+      else hi = mid;
+    }
+    return lo;
+  }
+
+  // first position after `from` whose name does not start with the first `length` characters of
+  // prefix; runs are usually short, so gallop forward before binary searching
+  private int endOfRun(int from, String prefix, int length) {
+    int lo = from + 1;
+    int step = 1;
+    while (lo < folded.length && folded[lo].regionMatches(0, prefix, 0, length)) {
+      from = lo;
+      lo += step;
+      step <<= 1;
+    }
+    int hi = Math.min(lo, folded.length);
+    lo = from + 1;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (folded[mid].regionMatches(0, prefix, 0, length)) lo = mid + 1;
+      else hi = mid;
+    }
+    return lo;
+  }
+}
@@ -0,0 +1,100 @@
+package synonymnetwork.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that adapts to measured latency with additive increase, multiplicative decrease
+ * (AIMD). Requests beyond the current limit are refused straight away instead of queueing.
+ *
+ * <ul>
+ *   <li>A request that finishes within the latency threshold while the limit is at least half used
+ *       raises the limit by one over a full limit's worth of requests (about +1 per round trip).
+ *   <li>A request slower than the threshold cuts the limit by the backoff ratio, so a saturated CPU
+ *       quickly brings the number of requests in flight down to what it can serve in time. As in
+ *       TCP, the limit is cut at most once per window of a limit's worth of completions: the slow
+ *       requests of one overloaded round trip finish together and count as one sign of overload,
+ *       not one each.
+ * </ul>
+ */
+public class AdaptiveConcurrencyLimiter {
+  private static final double BACKOFF_RATIO = 0.9;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final long latencyThresholdNanos;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final LongAdder rejected = new LongAdder();
+  private double limit; // guarded by this
+  // completions since the limit was last cut, saturating; guarded by this
+  private long sinceBackoff = Long.MAX_VALUE;
+
+  /**
+   * Creates a limiter.
+   *
+   * @param initialLimit concurrent requests allowed before any measurement
+   * @param minLimit the limit never drops below this
+   * @param maxLimit the limit never grows above this
+   * @param latencyThresholdNanos slower requests count as a sign of overload
+   */
+  public AdaptiveConcurrencyLimiter(
+      int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos) {
+    this.minLimit = Math.max(1, minLimit);
+    this.maxLimit = Math.max(this.minLimit, maxLimit);
+    this.latencyThresholdNanos = latencyThresholdNanos;
+    this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+  }
+
+  /**
+   * Admits a request if fewer than the current limit are in flight. Every admitted request must be
+   * followed by exactly one {@link #release(long)}.
+   *
+   * @return true if the request may proceed
+   */
+  public boolean tryAcquire() {
+    int max = getLimit();
+    while (true) {
+      int current = inFlight.get();
+      if (current >= max) {
+        rejected.increment();
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) return true;
+    }
+  }
+
+  /**
+   * Ends an admitted request and adjusts the limit from its latency.
+   *
+   * @param latencyNanos how long the request took
+   */
+  public void release(long latencyNanos) {
+    int wasInFlight = inFlight.getAndDecrement();
+    synchronized (this) {
+      if (sinceBackoff < Long.MAX_VALUE) sinceBackoff++;
+      if (latencyNanos > latencyThresholdNanos) {
+        if (sinceBackoff >= limit) {
+          limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+          sinceBackoff = 0;
+        }
+      } else if (wasInFlight * 2 >= limit) {
+        limit = Math.min(maxLimit, limit + 1.0 / limit);
+      }
+    }
+  }
+
+  /** Current number of concurrent requests allowed. */
+  public synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  /** Number of requests currently admitted. */
+  public int inFlightCount() {
+    return inFlight.get();
+  }
+
+  /** Number of requests refused since startup. */
+  public long rejectedCount() {
+    return rejected.sum();
+  }
+}
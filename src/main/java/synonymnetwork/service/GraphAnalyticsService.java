@@ -0,0 +1,132 @@
+package synonymnetwork.service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import synonymnetwork.domain.GraphAnalytics;
+import synonymnetwork.domain.GraphStatistics;
+import synonymnetwork.domain.SymbolGraphMemoryEfficient;
+import synonymnetwork.domain.SynonymGraph;
+
+/**
+ * Service that computes whole-graph statistics once the application is up. The analysis runs on a
+ * background thread with its own fork-join pool, so startup and request handling are never blocked
+ * by it. It describes the base graph, so it is run again once a compaction has folded runtime
+ * changes into a new one; meanwhile the previous statistics are served, with the number of changes
+ * they include.
+ */
+@Service
+public class GraphAnalyticsService {
+  private static final Logger log = LoggerFactory.getLogger(GraphAnalyticsService.class);
+
+  @Autowired private GraphService graphService;
+
+  @Value("${synonym.analytics.enabled:true}")
+  private boolean enabled;
+
+  // Worker threads for the parallel phases; 0 uses every available processor
+  @Value("${synonym.analytics.parallelism:0}")
+  private int parallelism;
+
+  @Value("${synonym.analytics.hubs:25}")
+  private int hubCount;
+
+  private final ExecutorService executor =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "graph-analytics");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private volatile GraphStatistics statistics;
+  private volatile boolean settled;
+  private long analysedChanges = -1; // the compacted change count last analysed, on the executor
+
+  /**
+   * Starts the analysis in the background once the application has finished starting and the graph
+   * is loaded.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void computeInBackground() {
+    if (enabled) {
+      graphService
+          .graphLoaded()
+          .whenCompleteAsync((synonymGraph, failure) -> compute(synonymGraph), executor);
+    } else {
+      settled = true;
+    }
+  }
+
+  /**
+   * Analyses the graph again in the background if a compaction has replaced the base graph since
+   * the last analysis. Does nothing while analytics are disabled or the first analysis is pending.
+   */
+  public void refresh() {
+    SynonymGraph synonymGraph = graphService.getSynonymGraph();
+    if (enabled && settled && synonymGraph != null) {
+      executor.execute(() -> compute(synonymGraph));
+    }
+  }
+
+  private void compute(SynonymGraph synonymGraph) {
+    if (synonymGraph == null) {
+      settled = true;
+      return;
+    }
+    // the count read twice around the graph tells that no compaction came in between
+    long changes;
+    SymbolGraphMemoryEfficient sg;
+    do {
+      changes = synonymGraph.getCompactedChangeCount();
+      sg = synonymGraph.getSymbolGraph();
+    } while (changes != synonymGraph.getCompactedChangeCount());
+    if (changes == analysedChanges) return;
+    analysedChanges = changes;
+    int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      statistics = GraphAnalytics.analyze(sg, changes, pool, hubCount);
+      log.info(
+          "Graph analytics finished in {} ms on {} threads",
+          statistics.getComputeMillis(),
+          threads);
+    } catch (RuntimeException e) {
+      log.error("Graph analytics failed", e);
+    } finally {
+      pool.shutdown();
+      settled = true;
+    }
+  }
+
+  /**
+   * Gets the statistics of the loaded graph.
+   *
+   * @return the statistics, or null while they are still being computed
+   */
+  public GraphStatistics getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * Tells whether the analysis is no longer pending: it finished, failed or is disabled.
+   *
+   * @return true once nothing more will be computed
+   */
+  public boolean isSettled() {
+    return settled;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
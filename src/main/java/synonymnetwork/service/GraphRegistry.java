@@ -0,0 +1,209 @@
+package synonymnetwork.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import synonymnetwork.domain.AdjacencyFormat;
+import synonymnetwork.domain.SynonymGraph;
+import synonymnetwork.domain.SynonymRanking;
+import synonymnetwork.domain.VertexOrdering;
+import synonymnetwork.domain.WordDefinitions;
+
+/**
+ * Serves the thesauri configured besides the default one, such as one per language or per content
+ * rating, selected by name. A graph named {@code es} is read from the file set as {@code
+ * synonym.graphs.es.thesaurus} on first use, with its definitions from {@code
+ * synonym.graphs.es.definitions}, or sharing the default dictionary when that is not set.
+ *
+ * <p>Once the estimated memory of the loaded graphs passes the budget, the least recently used are
+ * dropped and read again from their files when next asked for. Words are interned while loading, so
+ * graphs with overlapping vocabularies hold one copy of each shared word. The default graph is the
+ * one GraphService manages; it is always loaded and not counted against the budget.
+ */
+@Service
+public class GraphRegistry {
+  private static final Logger log = LoggerFactory.getLogger(GraphRegistry.class);
+
+  /** Name under which the default graph is served. */
+  public static final String DEFAULT_GRAPH = "default";
+
+  private static final String PREFIX = "synonym.graphs.";
+  private static final Pattern NAME = Pattern.compile("[a-z0-9][a-z0-9_-]{0,31}");
+
+  @Autowired private GraphService graphService;
+  @Autowired private Environment environment;
+  @Autowired private MeterRegistry meterRegistry;
+
+  // Estimated memory the named graphs may take together before the least recently used is dropped
+  @Value("${synonym.graphs.memory-budget-mb:512}")
+  private long memoryBudgetMegabytes;
+
+  // Named graphs are built with the same settings as the default one
+  @Value("${synonym.graph.vertex-order:FILE}")
+  private VertexOrdering vertexOrdering;
+
+  @Value("${synonym.graph.adjacency-format:GRAPH}")
+  private AdjacencyFormat adjacencyFormat;
+
+  @Value("${synonym.synonyms.ranking:DEGREE}")
+  private SynonymRanking synonymRanking;
+
+  @Value("${synonym.synonyms.per-word:4}")
+  private int synonymsPerWord;
+
+  private final Map<String, LoadedGraph> graphs =
+      new LinkedHashMap<>(16, 0.75f, true); // least recently used first; guarded by itself
+  private final SingleFlight<String, SynonymGraph> loads = new SingleFlight<>();
+  private final Set<String> metered = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Tells whether a graph name selects the default graph.
+   *
+   * @param name the name from the request, possibly null
+   * @return true for no name, an empty one or {@value #DEFAULT_GRAPH}
+   */
+  public static boolean isDefault(String name) {
+    return name == null || name.isBlank() || DEFAULT_GRAPH.equals(name);
+  }
+
+  /**
+   * Gets a graph by name, loading it if it is not in memory. Concurrent requests for a graph being
+   * loaded wait for the one load.
+   *
+   * @param name the graph's name; null or {@value #DEFAULT_GRAPH} selects the default graph
+   * @return the graph, or null if no graph of that name is configured or the default graph is still
+   *     loading
+   * @throws UncheckedIOException if the graph's files cannot be read
+   */
+  public SynonymGraph getGraph(String name) {
+    if (isDefault(name)) {
+      return graphService.getSynonymGraph();
+    }
+    LoadedGraph loaded;
+    synchronized (graphs) {
+      loaded = graphs.get(name);
+    }
+    if (loaded != null) {
+      meterRegistry.counter("synonym.graphs.requests", "graph", name, "result", "hit").increment();
+      return loaded.graph();
+    }
+    if (!isConfigured(name)) {
+      return null;
+    }
+    meterRegistry.counter("synonym.graphs.requests", "graph", name, "result", "miss").increment();
+    return loads.execute(name, () -> load(name));
+  }
+
+  /**
+   * Tells whether a named graph is configured, loaded or not.
+   *
+   * @param name the graph's name
+   * @return true if it can be served
+   */
+  public boolean isConfigured(String name) {
+    return isDefault(name)
+        || (NAME.matcher(name).matches() && environment.containsProperty(thesaurusProperty(name)));
+  }
+
+  private SynonymGraph load(String name) {
+    synchronized (graphs) {
+      LoadedGraph loaded = graphs.get(name); // loaded while this caller was on its way here
+      if (loaded != null) return loaded.graph();
+    }
+    long start = System.nanoTime();
+    Path thesaurus = Path.of(environment.getProperty(thesaurusProperty(name)));
+    String definitionsFile = environment.getProperty(PREFIX + name + ".definitions");
+    SynonymGraph graph;
+    long bytes;
+    try {
+      WordDefinitions definitions;
+      if (definitionsFile == null) {
+        graphService.loaded().join(); // the default dictionary
+        definitions = graphService.getWordDefinitions();
+        bytes = 0;
+      } else {
+        definitions =
+            WordDefinitions.load(Files.newInputStream(Path.of(definitionsFile)), String::intern);
+        bytes = definitions.estimatedBytes();
+      }
+      graph =
+          new SynonymGraph(
+              Files.newInputStream(thesaurus),
+              String::intern,
+              vertexOrdering,
+              adjacencyFormat,
+              synonymRanking,
+              synonymsPerWord,
+              definitions);
+      bytes += graph.estimatedBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not load graph '" + name + "'", e);
+    }
+
+    synchronized (graphs) {
+      graphs.put(name, new LoadedGraph(graph, bytes));
+      evictOver(memoryBudgetMegabytes * 1024 * 1024, name);
+    }
+    if (metered.add(name)) {
+      Gauge.builder("synonym.graphs.memory", () -> bytesOf(name))
+          .description("Estimated heap held by a named graph while it is loaded")
+          .baseUnit("bytes")
+          .tag("graph", name)
+          .register(meterRegistry);
+    }
+    log.info(
+        "Loaded graph '{}' from {} in {} ms, about {} MB",
+        name,
+        thesaurus,
+        (System.nanoTime() - start) / 1_000_000,
+        bytes / (1024 * 1024));
+    return graph;
+  }
+
+  // drops least recently used graphs until the rest fit, sparing the one just loaded; guarded by
+  // graphs
+  private void evictOver(long budget, String keep) {
+    long total = graphs.values().stream().mapToLong(LoadedGraph::bytes).sum();
+    Iterator<Map.Entry<String, LoadedGraph>> entries = graphs.entrySet().iterator();
+    while (total > budget && entries.hasNext()) {
+      Map.Entry<String, LoadedGraph> eldest = entries.next();
+      if (eldest.getKey().equals(keep)) continue;
+      total -= eldest.getValue().bytes();
+      entries.remove();
+      meterRegistry.counter("synonym.graphs.evictions", "graph", eldest.getKey()).increment();
+      log.info("Dropped graph '{}' to stay within the memory budget", eldest.getKey());
+    }
+  }
+
+  // looks the graph up without counting as a use of it
+  private long bytesOf(String name) {
+    synchronized (graphs) {
+      for (Map.Entry<String, LoadedGraph> entry : graphs.entrySet()) {
+        if (entry.getKey().equals(name)) return entry.getValue().bytes();
+      }
+      return 0;
+    }
+  }
+
+  private static String thesaurusProperty(String name) {
+    return PREFIX + name + ".thesaurus";
+  }
+
+  // a graph in memory with its estimated size
+  private record LoadedGraph(SynonymGraph graph, long bytes) {}
+}
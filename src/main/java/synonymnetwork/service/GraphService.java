@@ -1,42 +1,359 @@
 package synonymnetwork.service;
 
 import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
+import synonymnetwork.domain.AdjacencyFormat;
+import synonymnetwork.domain.GraphPartition;
+import synonymnetwork.domain.Neighborhood;
+import synonymnetwork.domain.PathSearchEngine;
+import synonymnetwork.domain.SimilarWord;
+import synonymnetwork.domain.SimilarityMeasure;
 import synonymnetwork.domain.SynonymGraph;
+import synonymnetwork.domain.SynonymRanking;
+import synonymnetwork.domain.VertexOrdering;
+import synonymnetwork.domain.WordDefinitions;
 
 /**
  * Service class that manages the SynonymGraph instance. Provides centralized access to the graph
  * functionality.
+ *
+ * <p>The graph and the definitions are loaded in independent startup stages, each on its own
+ * thread, so the application accepts requests while they load. Until a stage has finished the
+ * methods that depend on it must not be called; requests for them are answered with 503 (see
+ * StartupStageInterceptor), and background services wait on {@link #graphLoaded()} or {@link
+ * #loaded()}. If a stage fails the application exits with status 1.
+ *
+ * <p>A shard without peers (see ShardService) runs neither stage. It reads only its own rows of the
+ * thesaurus in a partition stage instead, so {@link #graphLoaded()} and {@link #loaded()} never
+ * complete there and only the shard endpoint is served.
  */
 @Service
 public class GraphService {
+  private static final Logger log = LoggerFactory.getLogger(GraphService.class);
 
-  private SynonymGraph synonymGraph;
+  private static final int MAX_LOOKUP_RESULTS = 100;
+  private static final int MAX_EDIT_DISTANCE = 3;
+  private static final int MAX_SPELLING_LENGTH = 100;
+  private static final int MAX_NEIGHBORHOOD_DEPTH = 6;
+  private static final int MAX_NEIGHBORHOOD_NODES = 20_000;
+  private static final int MAX_SIMILAR_WORDS = 100;
+
+  @Autowired private ApplicationContext applicationContext;
+
+  private volatile SynonymGraph synonymGraph;
+  private volatile WordDefinitions wordDefinitions;
+  private volatile String graphVersion;
+  private CompletableFuture<SynonymGraph> graphLoaded;
+  private CompletableFuture<Void> loaded;
+  private CompletableFuture<GraphPartition> partitionLoaded;
+  private Map<SimilarKey, SimilarWords> similarWordsCache; // guarded by itself
+
+  // Cache-friendly renumbering of the vertices: FILE, BFS, RCM or DEGREE
+  @Value("${synonym.graph.vertex-order:FILE}")
+  private VertexOrdering vertexOrdering;
+
+  // Adjacency representation: GRAPH, PACKED or VARINT (smallest, slightly more CPU per lookup)
+  @Value("${synonym.graph.adjacency-format:GRAPH}")
+  private AdjacencyFormat adjacencyFormat;
+
+  // How the synonyms shown next to each path word are chosen: ADJACENCY, DEGREE or
+  // SHARED_NEIGHBORS
+  @Value("${synonym.synonyms.ranking:DEGREE}")
+  private SynonymRanking synonymRanking;
+
+  // Synonyms returned for each word on a path, at least 1
+  @Value("${synonym.synonyms.per-word:4}")
+  private int synonymsPerWord;
+
+  // Shortest-path search: SEQUENTIAL, BITSET, or DIRECTION_OPTIMIZING for millions of edges
+  @Value("${synonym.path.engine:SEQUENTIAL}")
+  private PathSearchEngine pathSearchEngine;
+
+  // Worker threads of a parallel path engine; 0 uses every available processor
+  @Value("${synonym.path.parallelism:0}")
+  private int pathParallelism;
+
+  // Synonyms with more synonyms than this are not followed when looking for similar words
+  @Value("${synonym.similar.max-hub-degree:500}")
+  private int similarMaxHubDegree;
+
+  // Words whose similar words are kept, least recently asked for evicted first
+  @Value("${synonym.similar.cache-size:10000}")
+  private int similarCacheSize;
+
+  // This instance's shard index and the number of shards; a count of 1 means not a shard
+  @Value("${synonym.shard.index:0}")
+  private int shardIndex;
+
+  @Value("${synonym.shard.count:1}")
+  private int shardCount;
+
+  // Shards this instance coordinates; a shard with none loads only its own rows
+  @Value("${synonym.shard.peers:}")
+  private String shardPeers;
 
   /**
-   * Initialize the synonym graph after the service is constructed. This method is called
-   * automatically by Spring after dependency injection.
+   * Starts loading the graph and the definitions, each on its own thread. This method is called
+   * automatically by Spring after dependency injection and returns at once; the time each stage
+   * takes is logged when it finishes.
+   *
+   * @throws IllegalArgumentException if a setting is out of range, which stops the application
    */
   @PostConstruct
   public void initialize() {
-    this.synonymGraph = new SynonymGraph();
+    validateSettings();
+    long start = System.nanoTime();
+    similarWordsCache =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<SimilarKey, SimilarWords> eldest) {
+            return size() > similarCacheSize;
+          }
+        };
+    if (isShardOnly()) {
+      partitionLoaded =
+          runStage("partition", () -> SynonymGraph.loadPartition(shardIndex, shardCount));
+      graphLoaded = new CompletableFuture<>();
+      loaded = new CompletableFuture<>();
+      return;
+    }
+    graphLoaded = runStage("graph", this::loadGraph);
+    partitionLoaded =
+        shardCount > 1
+            ? graphLoaded.thenApply(
+                graph ->
+                    GraphPartition.of(
+                        graph.getSymbolGraph().adjacency(),
+                        shardIndex,
+                        shardCount,
+                        graph.getNumberingVersion()))
+            : new CompletableFuture<>();
+    CompletableFuture<WordDefinitions> definitionsLoaded =
+        runStage("definitions", this::loadDefinitions);
+    loaded =
+        graphLoaded.thenAcceptBoth(
+            definitionsLoaded,
+            (graph, definitions) -> {
+              graph.setWordDefinitions(definitions);
+              this.graphVersion = computeGraphVersion(graph, definitions);
+              log.info("All startup stages finished in {} ms", millisSince(start));
+            });
+  }
+
+  private void validateSettings() {
+    if (synonymsPerWord < 1) {
+      throw new IllegalArgumentException(
+          "synonym.synonyms.per-word must be at least 1, not " + synonymsPerWord);
+    }
+    if (pathParallelism < 0) {
+      throw new IllegalArgumentException(
+          "synonym.path.parallelism must not be negative, not " + pathParallelism);
+    }
+    if (similarMaxHubDegree < 1) {
+      throw new IllegalArgumentException(
+          "synonym.similar.max-hub-degree must be at least 1, not " + similarMaxHubDegree);
+    }
+    if (similarCacheSize < 0) {
+      throw new IllegalArgumentException(
+          "synonym.similar.cache-size must not be negative, not " + similarCacheSize);
+    }
+    if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+      throw new IllegalArgumentException(
+          "synonym.shard.index must be between 0 and synonym.shard.count - 1, not "
+              + shardIndex
+              + " of "
+              + shardCount);
+    }
+    // other orders number the vertices from the whole graph, which such a shard never builds
+    if (isShardOnly() && vertexOrdering != VertexOrdering.FILE) {
+      throw new IllegalArgumentException(
+          "synonym.graph.vertex-order must be FILE on a shard without peers, not "
+              + vertexOrdering);
+    }
+  }
+
+  private SynonymGraph loadGraph() {
+    SynonymGraph graph =
+        new SynonymGraph(vertexOrdering, adjacencyFormat, synonymRanking, synonymsPerWord, null);
+    graph.setPathSearch(pathSearchEngine, pathParallelism);
+    this.synonymGraph = graph;
+    return graph;
+  }
+
+  private WordDefinitions loadDefinitions() {
+    WordDefinitions definitions = WordDefinitions.load();
+    this.wordDefinitions = definitions;
+    return definitions;
+  }
+
+  // runs one stage on a thread of its own, completing the future with its result or failure
+  private <T> CompletableFuture<T> runStage(String name, Supplier<T> stage) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    Thread thread =
+        new Thread(
+            () -> {
+              long start = System.nanoTime();
+              try {
+                T value = stage.get();
+                log.info("Startup stage '{}' finished in {} ms", name, millisSince(start));
+                result.complete(value);
+              } catch (Throwable e) {
+                // an Error such as running out of heap while building must fail the stage too
+                log.error("Startup stage '{}' failed after {} ms", name, millisSince(start), e);
+                result.completeExceptionally(e);
+                exit(name);
+              }
+            },
+            "load-" + name);
+    thread.setDaemon(true);
+    thread.start();
+    return result;
+  }
+
+  // Without the stage its endpoints would answer 503 for good while /health says the process is
+  // fine, so stop it as the load in @PostConstruct used to and leave the restart to the supervisor
+  private void exit(String stage) {
+    log.error("Stopping the application because startup stage '{}' failed", stage);
+    System.exit(SpringApplication.exit(applicationContext, () -> 1));
+  }
+
+  private static long millisSince(long start) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+
+  // the source files plus every setting that changes which paths and synonyms are returned
+  private String computeGraphVersion(SynonymGraph graph, WordDefinitions definitions) {
+    String settings =
+        String.join(
+            "|",
+            graph.getContentHash(),
+            definitions.getContentHash(),
+            vertexOrdering.name(),
+            adjacencyFormat.name(),
+            synonymRanking.name(),
+            Integer.toString(synonymsPerWord),
+            pathSearchEngine.name());
+    try {
+      byte[] digest =
+          MessageDigest.getInstance("SHA-256").digest(settings.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest, 0, 12);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * Gets a future completed with the graph once the graph stage has finished, before the
+   * definitions are necessarily loaded. Actions added to it run on the loading thread.
+   *
+   * @return the future, completed exceptionally if the graph could not be loaded
+   */
+  public CompletableFuture<SynonymGraph> graphLoaded() {
+    return graphLoaded;
+  }
+
+  /**
+   * Gets a future completed with this shard's rows once they are loaded: after the graph, or on
+   * their own on a shard without peers. It never completes if this instance is not a shard.
+   *
+   * @return the future, completed exceptionally if the rows could not be loaded
+   */
+  public CompletableFuture<GraphPartition> partitionLoaded() {
+    return partitionLoaded;
+  }
+
+  /**
+   * Tells whether this instance is a shard that coordinates no others, which loads only its own
+   * rows of the graph and serves nothing but the shard endpoint.
+   *
+   * @return true for a shard without peers
+   */
+  public boolean isShardOnly() {
+    return shardCount > 1 && shardPeers.isBlank();
+  }
+
+  /**
+   * Gets a future completed once every startup stage has finished.
+   *
+   * @return the future, completed exceptionally if any stage failed
+   */
+  public CompletableFuture<Void> loaded() {
+    return loaded;
+  }
+
+  /**
+   * Tells whether the definitions have been loaded.
+   *
+   * @return true once getDefinition and getDefinitionsForPath can be called
+   */
+  public boolean areDefinitionsLoaded() {
+    return wordDefinitions != null;
   }
 
   /**
    * Gets the SynonymGraph instance.
    *
-   * @return The initialized SynonymGraph
+   * @return The initialized SynonymGraph, or null while the graph stage is running
    */
   public SynonymGraph getSynonymGraph() {
     return this.synonymGraph;
   }
 
+  /**
+   * Gets the version of the loaded graph. It changes whenever the source files, any setting that
+   * affects responses or the graph itself (through runtime changes) change, and stays the same
+   * across restarts otherwise, so it can be used as a cache validator.
+   *
+   * @return the graph version, as hex followed by the number of runtime changes if there are any,
+   *     or null until every startup stage has finished
+   */
+  public String getGraphVersion() {
+    String version = this.graphVersion;
+    if (version == null) {
+      return null;
+    }
+    long changes = this.synonymGraph.getChangeCount();
+    return changes == 0 ? version : version + "-" + changes;
+  }
+
+  /**
+   * Gets the version of the graph as loaded from the source files, leaving out runtime changes.
+   *
+   * @return the version, or null until every startup stage has finished
+   */
+  public String getContentVersion() {
+    return this.graphVersion;
+  }
+
+  /**
+   * Gets the definitions loaded from dict.csv.
+   *
+   * @return the definitions, or null while the definitions stage is running
+   */
+  public WordDefinitions getWordDefinitions() {
+    return this.wordDefinitions;
+  }
+
   public String getDefinition(String word) {
-    return this.synonymGraph.findWordDefinition(word);
+    return this.wordDefinitions.find(word);
   }
 
   /**
@@ -51,7 +368,7 @@ public class GraphService {
       return definitions;
     }
     for (String word : path) {
-      definitions.put(word, this.synonymGraph.findWordDefinition(word));
+      definitions.put(word, this.wordDefinitions.find(word));
     }
     return definitions;
   }
@@ -66,6 +383,92 @@ public class GraphService {
     return this.synonymGraph.truthOrFalse(word);
   }
 
+  /**
+   * Suggests words beginning with a prefix.
+   *
+   * @param prefix The prefix typed so far
+   * @param limit Maximum number of suggestions
+   * @return list of matching words, empty if the prefix is blank
+   */
+  public List<String> suggestWords(String prefix, int limit) {
+    if (prefix == null || prefix.isBlank() || limit < 1) {
+      return List.of();
+    }
+    return synonymGraph.suggestWords(prefix.trim(), Math.min(limit, MAX_LOOKUP_RESULTS));
+  }
+
+  /**
+   * Finds words spelled similarly to the given word.
+   *
+   * @param word The word as typed; longer than {@value #MAX_SPELLING_LENGTH} characters matches
+   *     nothing
+   * @param maxDistance Maximum number of edits, capped at {@value #MAX_EDIT_DISTANCE}
+   * @param limit Maximum number of words
+   * @return list of similar words, closest first
+   */
+  public List<String> didYouMean(String word, int maxDistance, int limit) {
+    if (word == null
+        || word.isBlank()
+        || word.length() > MAX_SPELLING_LENGTH
+        || maxDistance < 0
+        || limit < 1) {
+      return List.of();
+    }
+    return synonymGraph.findSimilarSpellings(
+        word.trim(), Math.min(maxDistance, MAX_EDIT_DISTANCE), Math.min(limit, MAX_LOOKUP_RESULTS));
+  }
+
+  /**
+   * Gets the local synonym network around a word.
+   *
+   * @param word The centre word
+   * @param depth Number of hops to explore, capped at {@value #MAX_NEIGHBORHOOD_DEPTH}
+   * @param maxNodes Maximum number of words, capped at {@value #MAX_NEIGHBORHOOD_NODES}
+   * @return the neighbourhood, or null if the word is not in the graph or the limits are invalid
+   */
+  public Neighborhood getNeighborhood(String word, int depth, int maxNodes) {
+    if (word == null || depth < 0 || maxNodes < 1) {
+      return null;
+    }
+    return synonymGraph.findNeighborhood(
+        word, Math.min(depth, MAX_NEIGHBORHOOD_DEPTH), Math.min(maxNodes, MAX_NEIGHBORHOOD_NODES));
+  }
+
+  /**
+   * Gets the words that share the most synonyms with a word. The best {@value #MAX_SIMILAR_WORDS}
+   * are computed once per word and measure and kept until the graph changes.
+   *
+   * @param word The word to compare against
+   * @param k Maximum number of words, capped at {@value #MAX_SIMILAR_WORDS}
+   * @param measure How shared synonyms are scored
+   * @return similar words, most similar first, or null if the word is not in the graph or k is
+   *     invalid
+   */
+  public List<SimilarWord> getSimilarWords(String word, int k, SimilarityMeasure measure) {
+    if (word == null || k < 1) {
+      return null;
+    }
+    SynonymGraph graph = synonymGraph;
+    long changes = graph.getChangeCount();
+    SimilarKey key = new SimilarKey(word, measure);
+    SimilarWords cached;
+    synchronized (similarWordsCache) {
+      cached = similarWordsCache.get(key);
+    }
+    if (cached == null || cached.changes != changes) {
+      List<SimilarWord> words =
+          graph.findSimilarWords(word, MAX_SIMILAR_WORDS, measure, similarMaxHubDegree);
+      if (words == null) {
+        return null;
+      }
+      cached = new SimilarWords(changes, words);
+      synchronized (similarWordsCache) {
+        similarWordsCache.put(key, cached);
+      }
+    }
+    return cached.words.subList(0, Math.min(k, cached.words.size()));
+  }
+
   public Map<String, Set<String>> getsPathToSynonyms(List<String> path) {
     return this.synonymGraph.getPathSynonyms(path);
   }
@@ -99,4 +502,9 @@ public class GraphService {
 
     return "No Path Found.";
   }
+
+  private record SimilarKey(String word, SimilarityMeasure measure) {}
+
+  // the best similar words, as of a number of runtime changes
+  private record SimilarWords(long changes, List<SimilarWord> words) {}
 }
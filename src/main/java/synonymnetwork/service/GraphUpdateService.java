@@ -0,0 +1,283 @@
+package synonymnetwork.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import synonymnetwork.domain.GraphChange;
+import synonymnetwork.domain.SynonymGraph;
+
+/**
+ * Service that changes the synonym graph at runtime. Changes go into the graph's delta overlay,
+ * where the next query sees them, and, if {@code synonym.updates.log-file} is set, are appended to
+ * a change log that is replayed when the application starts, so they survive restarts without
+ * editing the thesaurus. Once the overlay holds {@code synonym.updates.compaction-threshold}
+ * changes, a background thread folds it into a freshly built base graph and rewrites the log as the
+ * net effect of its changes, so it stays no longer than the difference from the thesaurus.
+ *
+ * <p>The log is replayed on the loading thread as soon as the graph stage finishes; the graph
+ * counts as ready only after that, so no response or change sees it without the logged changes.
+ *
+ * <p>The puzzle pair pool follows every change; the whole-graph analytics describe the base graph
+ * and are computed again after each compaction.
+ */
+@Service
+public class GraphUpdateService {
+  private static final Logger log = LoggerFactory.getLogger(GraphUpdateService.class);
+
+  @Autowired private GraphService graphService;
+  @Autowired private MeterRegistry meterRegistry;
+  @Autowired private GraphAnalyticsService graphAnalyticsService;
+
+  // Log of runtime changes, replayed at startup; empty keeps changes in memory only
+  @Value("${synonym.updates.log-file:}")
+  private String logFile;
+
+  // Changes held in the overlay before they are folded into a rebuilt base graph
+  @Value("${synonym.updates.compaction-threshold:1000}")
+  private int compactionThreshold;
+
+  private final ExecutorService compactor =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "graph-compaction");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private final AtomicBoolean compactionQueued = new AtomicBoolean();
+  private volatile boolean compacting;
+  private volatile boolean replayed;
+  private BufferedWriter changeLog; // guarded by this
+
+  /** Replays the change log once the graph is loaded and opens it for appending. */
+  @PostConstruct
+  public void initialize() {
+    graphService.graphLoaded().thenAccept(this::openChangeLog);
+  }
+
+  private synchronized void openChangeLog(SynonymGraph synonymGraph) {
+    Gauge.builder("synonym.updates.pending", synonymGraph, SynonymGraph::getPendingChanges)
+        .description("Runtime graph changes not yet compacted into the base graph")
+        .register(meterRegistry);
+    FunctionCounter.builder("synonym.updates.applied", synonymGraph, SynonymGraph::getChangeCount)
+        .description("Runtime graph changes applied since startup, replayed ones included")
+        .register(meterRegistry);
+
+    long start = System.nanoTime();
+    try {
+      if (!logFile.isEmpty()) {
+        Path path = Path.of(logFile);
+        if (Files.exists(path)) replay(synonymGraph, path);
+        changeLog =
+            Files.newBufferedWriter(
+                path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        compactIfNeeded(synonymGraph);
+      }
+      replayed = true;
+      log.info(
+          "Startup stage 'changes' finished in {} ms", (System.nanoTime() - start) / 1_000_000);
+    } catch (IOException | RuntimeException e) {
+      // the graph stays unready rather than serving without changes that were acknowledged
+      log.error("Startup stage 'changes' failed", e);
+    }
+  }
+
+  private void replay(SynonymGraph synonymGraph, Path path) throws IOException {
+    int applied = 0;
+    int skipped = 0;
+    for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+      if (line.isEmpty()) continue;
+      try {
+        synonymGraph.apply(GraphChange.parse(line));
+        applied++;
+      } catch (IllegalArgumentException e) {
+        // a line cut short by a crash, or a change the current thesaurus no longer allows
+        skipped++;
+        log.warn("Skipping graph change '{}': {}", line, e.getMessage());
+      }
+    }
+    log.info("Replayed {} graph changes from {} ({} skipped)", applied, path, skipped);
+  }
+
+  /**
+   * Tells whether the change log has been replayed onto the loaded graph, after which changes can
+   * be applied.
+   *
+   * @return true once the graph includes every logged change
+   */
+  public boolean isReplayed() {
+    return replayed;
+  }
+
+  /**
+   * Applies a change to the graph and records it in the change log.
+   *
+   * @param change the change
+   * @return true if the graph changed, false if it already was as the change asks
+   * @throws IllegalArgumentException if the change names a word that is not in the graph, or links
+   *     a word to itself
+   * @throws UncheckedIOException if the change could not be logged; it stays applied until restart
+   */
+  public synchronized boolean apply(GraphChange change) {
+    SynonymGraph synonymGraph = graphService.getSynonymGraph();
+    if (!synonymGraph.apply(change)) return false;
+    if (changeLog != null) {
+      try {
+        changeLog.write(change.toLine());
+        changeLog.newLine();
+        changeLog.flush();
+      } catch (IOException e) {
+        throw new UncheckedIOException("Could not record graph change", e);
+      }
+    }
+    compactIfNeeded(synonymGraph);
+    return true;
+  }
+
+  /**
+   * Starts folding the pending changes into a new base graph in the background.
+   *
+   * @return false if a compaction is already waiting to run
+   */
+  public boolean compactNow() {
+    return compactInBackground(graphService.getSynonymGraph());
+  }
+
+  private void compactIfNeeded(SynonymGraph synonymGraph) {
+    if (synonymGraph.getPendingChanges() >= compactionThreshold) {
+      compactInBackground(synonymGraph);
+    }
+  }
+
+  private boolean compactInBackground(SynonymGraph synonymGraph) {
+    if (!compactionQueued.compareAndSet(false, true)) return false;
+    compactor.execute(
+        () -> {
+          // changes arriving from now on may queue the next compaction
+          compactionQueued.set(false);
+          compacting = true;
+          long start = System.nanoTime();
+          try {
+            int folded = synonymGraph.compact();
+            if (folded > 0) {
+              log.info(
+                  "Compacted {} graph changes in {} ms",
+                  folded,
+                  (System.nanoTime() - start) / 1_000_000);
+              graphAnalyticsService.refresh();
+              rewriteChangeLog();
+            }
+          } catch (IOException e) {
+            log.error("Could not rewrite the graph change log", e);
+          } catch (RuntimeException e) {
+            log.error("Graph compaction failed", e);
+          } finally {
+            compacting = false;
+          }
+        });
+    return true;
+  }
+
+  // replaces the log with the net effect of its changes; appends wait, so none is lost
+  private synchronized void rewriteChangeLog() throws IOException {
+    if (changeLog == null) return;
+    Path path = Path.of(logFile);
+    List<GraphChange> changes = new ArrayList<>();
+    int lines = 0;
+    for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+      if (line.isEmpty()) continue;
+      lines++;
+      try {
+        changes.add(GraphChange.parse(line));
+      } catch (IllegalArgumentException e) {
+        // replay skips it too
+      }
+    }
+    List<GraphChange> folded = GraphChange.fold(changes);
+    Path rewritten = path.resolveSibling(path.getFileName() + ".tmp");
+    Files.write(
+        rewritten, folded.stream().map(GraphChange::toLine).toList(), StandardCharsets.UTF_8);
+    // the writer would keep appending to the replaced file
+    changeLog.close();
+    try {
+      Files.move(
+          rewritten, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      changeLog =
+          Files.newBufferedWriter(
+              path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+    log.info("Rewrote the graph change log from {} to {} changes", lines, folded.size());
+  }
+
+  /**
+   * Gets the state of the runtime changes.
+   *
+   * @return change counts, whether a compaction is running and the resulting graph version
+   */
+  public UpdateStatus getStatus() {
+    SynonymGraph synonymGraph = graphService.getSynonymGraph();
+    return new UpdateStatus(
+        synonymGraph.getChangeCount(),
+        synonymGraph.getPendingChanges(),
+        compacting,
+        graphService.getGraphVersion());
+  }
+
+  @PreDestroy
+  public synchronized void shutdown() throws IOException {
+    compactor.shutdownNow();
+    if (changeLog != null) changeLog.close();
+  }
+
+  /** Counts of the runtime changes made to the graph. */
+  public static class UpdateStatus {
+    private final long changeCount;
+    private final int pendingChanges;
+    private final boolean compacting;
+    private final String graphVersion;
+
+    public UpdateStatus(
+        long changeCount, int pendingChanges, boolean compacting, String graphVersion) {
+      this.changeCount = changeCount;
+      this.pendingChanges = pendingChanges;
+      this.compacting = compacting;
+      this.graphVersion = graphVersion;
+    }
+
+    public long getChangeCount() {
+      return changeCount;
+    }
+
+    public int getPendingChanges() {
+      return pendingChanges;
+    }
+
+    public boolean isCompacting() {
+      return compacting;
+    }
+
+    public String getGraphVersion() {
+      return graphVersion;
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package synonymnetwork.service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import synonymnetwork.domain.ShardTransport;
+
+/**
+ * Sends frontier batches to shards over HTTP as POST /api/shard/expand. Bodies are compact binary
+ * rather than JSON: a frontier is its vertex count followed by the vertices, and a reply is its
+ * pair count followed by the neighbour-parent pairs, all as big-endian 32-bit integers.
+ */
+public class HttpShardTransport implements ShardTransport {
+
+  /** Media type of the request and reply bodies. */
+  public static final String MEDIA_TYPE = "application/octet-stream";
+
+  /** Header naming the numbering version the coordinator numbered its vertices with. */
+  public static final String GRAPH_HEADER = "X-Shard-Graph";
+
+  private final List<URI> shards;
+  private final String apiKey;
+  private final Duration timeout;
+  private final Supplier<String> graphVersion;
+  private final HttpClient client;
+
+  /**
+   * Creates a transport to the given shards.
+   *
+   * @param baseUrls the base URL of each shard, in shard order, e.g. http://localhost:8081
+   * @param apiKey the key sent as x-api-key, or empty to send none
+   * @param timeout how long to wait for each reply
+   * @param graphVersion the numbering version sent in {@value #GRAPH_HEADER}, or a null result to
+   *     send none
+   */
+  public HttpShardTransport(
+      List<String> baseUrls, String apiKey, Duration timeout, Supplier<String> graphVersion) {
+    this.shards = baseUrls.stream().map(url -> URI.create(url + "/api/shard/expand")).toList();
+    this.apiKey = apiKey;
+    this.timeout = timeout;
+    this.graphVersion = graphVersion;
+    this.client =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(timeout)
+            .build();
+  }
+
+  @Override
+  public CompletableFuture<int[]> expand(int shard, int[] frontier) {
+    HttpRequest.Builder request =
+        HttpRequest.newBuilder(shards.get(shard))
+            .timeout(timeout)
+            .header("Content-Type", MEDIA_TYPE)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(encode(frontier)));
+    if (!apiKey.isEmpty()) request.header("x-api-key", apiKey);
+    String version = graphVersion.get();
+    if (version != null) request.header(GRAPH_HEADER, version);
+    return client
+        .sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+        .thenApply(
+            response -> {
+              if (response.statusCode() != 200) {
+                throw new IllegalStateException(
+                    "Shard " + shard + " answered " + response.statusCode());
+              }
+              return decode(response.body());
+            });
+  }
+
+  /** Encodes integers as their count followed by the values. */
+  public static byte[] encode(int[] values) {
+    ByteBuffer buffer = ByteBuffer.allocate(4 + 4 * values.length);
+    buffer.putInt(values.length);
+    buffer.asIntBuffer().put(values);
+    return buffer.array();
+  }
+
+  /** Returns the length of what {@link #encode(int[])} produces for {@code count} values. */
+  public static long encodedLength(int count) {
+    return 4 + 4L * count;
+  }
+
+  /**
+   * Decodes what {@link #encode(int[])} produced.
+   *
+   * @param bytes the encoded integers
+   * @return the values
+   * @throws IllegalArgumentException if the count does not match the length
+   */
+  public static int[] decode(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    if (bytes.length < 4 || buffer.getInt() != (bytes.length - 4) / 4 || bytes.length % 4 != 0) {
+      throw new IllegalArgumentException("Malformed shard message of " + bytes.length + " bytes");
+    }
+    int[] values = new int[(bytes.length - 4) / 4];
+    buffer.asIntBuffer().get(values);
+    return values;
+  }
+}
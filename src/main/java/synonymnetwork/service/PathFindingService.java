@@ -1,12 +1,26 @@
 package synonymnetwork.service;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Collections;
-import java.util.HashMap; // Required for Map
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import synonymnetwork.domain.MappedPathStore;
+import synonymnetwork.domain.PathCache;
 import synonymnetwork.domain.SynonymGraph; // Needed for direct calls from GraphService's
 
 // getSynonymGraph()
@@ -14,11 +28,90 @@ import synonymnetwork.domain.SynonymGraph; // Needed for direct calls from Graph
 /**
  * Service class that handles pathfinding operations between words. Extracts business logic from
  * PathFindingGUI.
+ *
+ * <p>With synonym.path.store.file set, unweighted shortest paths are also kept in a memory-mapped
+ * file that outlives the process, so after a restart the expensive pairs are answered from it
+ * instead of being searched again. Paths are written to it by a background thread, never by the
+ * request that found them.
  */
 @Service
 public class PathFindingService {
+  private static final Logger log = LoggerFactory.getLogger(PathFindingService.class);
+  private static final int STORE_QUEUE_CAPACITY = 1024;
 
   @Autowired private GraphService graphService;
+  @Autowired private GraphRegistry graphRegistry;
+  @Autowired private MeterRegistry meterRegistry;
+
+  // Identical concurrent queries share one search instead of each running their own BFS
+  @Value("${synonym.path.coalescing.enabled:true}")
+  private boolean coalescingEnabled;
+
+  // File keeping computed paths across restarts; empty keeps no paths
+  @Value("${synonym.path.store.file:}")
+  private String storeFile;
+
+  // Size of the path store file; the least recently read paths make way for new ones
+  @Value("${synonym.path.store.max-mb:64}")
+  private long storeMaxMegabytes;
+
+  private final SingleFlight<PathKey, List<String>> pathSearches = new SingleFlight<>();
+  private final ThreadPoolExecutor storeWriter =
+      new ThreadPoolExecutor(
+          1,
+          1,
+          0,
+          TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<>(STORE_QUEUE_CAPACITY),
+          runnable -> {
+            Thread thread = new Thread(runnable, "path-store-writer");
+            thread.setDaemon(true);
+            return thread;
+          },
+          // paths offered faster than they can be written are simply not stored
+          new ThreadPoolExecutor.DiscardPolicy());
+  private volatile MappedPathStore pathStore;
+
+  /**
+   * Registers the coalescing counters with the application's metrics registry, and opens the path
+   * store once the graph version is known.
+   */
+  @PostConstruct
+  public void registerMetrics() {
+    if (!storeFile.isEmpty()) {
+      graphService.loaded().thenRun(this::openStore);
+    }
+    FunctionCounter.builder("synonym.path.searches", pathSearches, SingleFlight::executionCount)
+        .description("Shortest-path searches actually executed")
+        .register(meterRegistry);
+    FunctionCounter.builder("synonym.path.coalesced", pathSearches, SingleFlight::coalescedCount)
+        .description("Shortest-path queries answered by joining an identical in-flight search")
+        .register(meterRegistry);
+    Gauge.builder("synonym.path.inflight", pathSearches, SingleFlight::inFlightCount)
+        .description("Distinct shortest-path searches currently running")
+        .register(meterRegistry);
+  }
+
+  private void openStore() {
+    try {
+      MappedPathStore store =
+          MappedPathStore.open(Path.of(storeFile), storeMaxMegabytes * 1024 * 1024);
+      Gauge.builder("synonym.path.store.size", store, MappedPathStore::size)
+          .description("Paths held in the path store file")
+          .register(meterRegistry);
+      FunctionCounter.builder("synonym.path.store.hits", store, MappedPathStore::hitCount)
+          .description("Shortest-path queries answered from the path store")
+          .register(meterRegistry);
+      FunctionCounter.builder("synonym.path.store.misses", store, MappedPathStore::missCount)
+          .description("Shortest-path queries the path store could not answer")
+          .register(meterRegistry);
+      pathStore = store;
+      log.info(
+          "Opened path store {} holding {} of {} paths", storeFile, store.size(), store.capacity());
+    } catch (IOException | RuntimeException e) {
+      log.error("Could not open path store {}; paths are not kept across restarts", storeFile, e);
+    }
+  }
 
   /**
    * Finds the shortest path between two words in the graph.
@@ -29,18 +122,61 @@ public class PathFindingService {
    *     exists.
    */
   public List<String> findShortestPath(String word1, String word2) {
-    // Retrieve the SynonymGraph instance from GraphService
-    // just returning the instance from getSynonymGraph()).
-    SynonymGraph sg = graphService.getSynonymGraph();
-    if (sg == null) {
+    return findShortestPath(word1, word2, false);
+  }
+
+  /**
+   * Finds the shortest path between two words, optionally weighing each link by how strong a
+   * synonym it is.
+   *
+   * @param word1 The starting word.
+   * @param word2 The target word.
+   * @param weighted true to minimize the total link cost rather than the number of links.
+   * @return List of words forming the path from word1 to word2, or empty list if no path exists.
+   */
+  public List<String> findShortestPath(String word1, String word2, boolean weighted) {
+    return findShortestPath(GraphRegistry.DEFAULT_GRAPH, word1, word2, weighted);
+  }
+
+  /**
+   * Finds the path between two words in a named graph (see {@link GraphRegistry}).
+   *
+   * @param graph The graph's name, or null for the default graph.
+   * @param word1 The starting word.
+   * @param word2 The target word.
+   * @param weighted true to minimize the total link cost rather than the number of links.
+   * @return List of words forming the path from word1 to word2, or empty list if no path exists or
+   *     there is no such graph.
+   */
+  public List<String> findShortestPath(String graph, String word1, String word2, boolean weighted) {
+    // Retrieve the SynonymGraph instance from GraphService, or the registry for a named graph
+    String name = GraphRegistry.isDefault(graph) ? GraphRegistry.DEFAULT_GRAPH : graph;
+    SynonymGraph sg = graphRegistry.getGraph(name);
+    if (sg == null || word1 == null || word2 == null) {
       return Collections.emptyList(); // Handle case where graph isn't initialized
     }
-    List<String> path = sg.findPath(word1, word2);
+    PathKey key = new PathKey(name, word1.trim(), word2.trim(), weighted);
+    List<String> path =
+        coalescingEnabled ? pathSearches.execute(key, () -> search(sg, key)) : search(sg, key);
     return path != null
         ? path
         : Collections.emptyList(); // Return empty list instead of null for no path
   }
 
+  // The result may be handed to several callers at once, so it is made read-only
+  private List<String> search(SynonymGraph sg, PathKey key) {
+    MappedPathStore store = pathStore;
+    List<String> path;
+    if (key.weighted()) {
+      path = sg.findWeightedPath(key.start(), key.end());
+    } else if (store != null && key.graph().equals(GraphRegistry.DEFAULT_GRAPH)) {
+      path = sg.findPath(key.start(), key.end(), new WriteBehindCache(store));
+    } else {
+      path = sg.findPath(key.start(), key.end());
+    }
+    return path != null ? Collections.unmodifiableList(path) : null;
+  }
+
   /**
    * Gets the connection level (path length) between two words.
    *
@@ -49,7 +185,20 @@ public class PathFindingService {
    * @return The minimum number of synonym connections, or -1 if no path exists.
    */
   public int getConnectionLevel(String word1, String word2) {
-    List<String> path = findShortestPath(word1, word2); // Use the already implemented method
+    return getConnectionLevel(GraphRegistry.DEFAULT_GRAPH, word1, word2);
+  }
+
+  /**
+   * Gets the connection level (path length) between two words in a named graph.
+   *
+   * @param graph The graph's name, or null for the default graph.
+   * @param word1 The starting word.
+   * @param word2 The target word.
+   * @return The minimum number of synonym connections, or -1 if no path exists.
+   */
+  public int getConnectionLevel(String graph, String word1, String word2) {
+    // Use the already implemented method
+    List<String> path = findShortestPath(graph, word1, word2, false);
     if (path.isEmpty()) { // Check if path is empty (meaning no path found)
       return -1; // Indicate no connection
     }
@@ -83,8 +232,20 @@ public class PathFindingService {
    * @return true if a path exists between the two words, false otherwise.
    */
   public boolean areWordsConnected(String word1, String word2) {
+    return areWordsConnected(GraphRegistry.DEFAULT_GRAPH, word1, word2);
+  }
+
+  /**
+   * Determines if two words are connected in a named graph.
+   *
+   * @param graph The graph's name, or null for the default graph.
+   * @param word1 The first word.
+   * @param word2 The second word.
+   * @return true if a path exists between the two words, false otherwise.
+   */
+  public boolean areWordsConnected(String graph, String word1, String word2) {
     // A path exists if findShortestPath returns a non-empty list.
-    return !findShortestPath(word1, word2).isEmpty();
+    return !findShortestPath(graph, word1, word2, false).isEmpty();
   }
 
   /**
@@ -102,18 +263,49 @@ public class PathFindingService {
     }
 
     int connectionLevel = path.size() - 1;
-    Map<String, Set<String>> synonyms = getPathSynonyms(word1, word2);
-
     SynonymGraph sg = graphService.getSynonymGraph();
-    Map<String, String> definitions = new HashMap<>();
-    for (String word : path) {
-      // Find word definition
-      definitions.put(word, sg.findWordDefinition(word));
-    }
+    // Reuse the path already found rather than searching a second time
+    Map<String, Set<String>> synonyms = sg.getPathSynonyms(path);
+
+    Map<String, String> definitions = graphService.getDefinitionsForPath(path);
 
     return new PathInfo(path, connectionLevel, synonyms, definitions);
   }
 
+  @PreDestroy
+  public void closeStore() throws InterruptedException {
+    storeWriter.shutdown();
+    storeWriter.awaitTermination(5, TimeUnit.SECONDS);
+    MappedPathStore store = pathStore;
+    if (store != null) store.close();
+  }
+
+  /**
+   * Reads from the path store directly, and hands what it is offered to the writer thread. The
+   * version names the loaded files and settings as well as the graph's changes and numbering.
+   */
+  private final class WriteBehindCache implements PathCache {
+    private final MappedPathStore store;
+
+    WriteBehindCache(MappedPathStore store) {
+      this.store = store;
+    }
+
+    @Override
+    public int[] get(String version, int s, int t) {
+      return store.get(graphService.getContentVersion() + "/" + version, s, t);
+    }
+
+    @Override
+    public void put(String version, int s, int t, int[] path) {
+      String storeVersion = graphService.getContentVersion() + "/" + version;
+      storeWriter.execute(() -> store.put(storeVersion, s, t, path));
+    }
+  }
+
+  /** Direction-sensitive key for a path query; words are trimmed before searching. */
+  private record PathKey(String graph, String start, String end, boolean weighted) {}
+
   /**
    * Simple DTO (Data Transfer Object) to encapsulate path information. This class is not part of
    * the original sources but is created to fulfill the return type requirement of getPathInfo and
@@ -0,0 +1,203 @@
+package synonymnetwork.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import synonymnetwork.domain.SynonymGraph;
+
+/**
+ * Service that streams a path search to the client while it runs. The breadth-first search runs on
+ * a worker thread and sends the size of every level as soon as it is known, then the path, then the
+ * synonyms and definition of each word on it, so a client has something to show long before a hard
+ * pair is answered in full.
+ *
+ * <p>A stream that is closed by the client, or times out, abandons its search at the next level, so
+ * nobody keeps paying for an answer nobody is waiting for. The workers are not queued behind: once
+ * all are busy further streams are refused.
+ */
+@Service
+public class PathStreamService {
+  private static final Logger log = LoggerFactory.getLogger(PathStreamService.class);
+
+  @Autowired private GraphService graphService;
+  @Autowired private MeterRegistry meterRegistry;
+
+  // Searches streamed at the same time; requests beyond this are answered with 503
+  @Value("${synonym.stream.workers:4}")
+  private int workers;
+
+  // Longest a stream stays open; its search is abandoned when it expires
+  @Value("${synonym.stream.timeout-ms:30000}")
+  private long timeoutMillis;
+
+  private ThreadPoolExecutor executor;
+  private final AtomicLong abandoned = new AtomicLong();
+
+  /** Starts the worker pool and registers its metrics. */
+  @PostConstruct
+  public void initialize() {
+    AtomicInteger threadCount = new AtomicInteger();
+    executor =
+        new ThreadPoolExecutor(
+            workers,
+            workers,
+            0,
+            TimeUnit.MILLISECONDS,
+            new SynchronousQueue<>(),
+            runnable -> {
+              Thread thread = new Thread(runnable, "path-stream-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    Gauge.builder("synonym.stream.active", executor, ThreadPoolExecutor::getActiveCount)
+        .description("Path searches currently being streamed")
+        .register(meterRegistry);
+    FunctionCounter.builder("synonym.stream.abandoned", abandoned, AtomicLong::get)
+        .description(
+            "Streamed path searches stopped because the client left or the stream timed out")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Starts streaming the search for a path between two words.
+   *
+   * @param word1 The starting word.
+   * @param word2 The target word.
+   * @return the stream the events are sent on, or null if every worker is busy
+   */
+  public SseEmitter stream(String word1, String word2) {
+    SseEmitter emitter = new SseEmitter(timeoutMillis);
+    // true until the stream is finished, by the search or by the client
+    AtomicBoolean open = new AtomicBoolean(true);
+    Future<?> search;
+    try {
+      search = executor.submit(() -> search(emitter, open, word1.trim(), word2.trim()));
+    } catch (RejectedExecutionException e) {
+      return null;
+    }
+    Runnable abandon =
+        () -> {
+          if (open.getAndSet(false)) {
+            abandoned.incrementAndGet();
+            search.cancel(true);
+          }
+        };
+    emitter.onCompletion(abandon);
+    emitter.onTimeout(abandon);
+    emitter.onError(e -> abandon.run());
+    return emitter;
+  }
+
+  private void search(SseEmitter emitter, AtomicBoolean open, String word1, String word2) {
+    try {
+      SynonymGraph synonymGraph = graphService.getSynonymGraph();
+      List<String> path =
+          synonymGraph.findPath(
+              word1,
+              word2,
+              (level, frontierSize) ->
+                  send(emitter, open, "level", new LevelProgress(level, frontierSize)));
+      if (path != null) {
+        if (!send(emitter, open, "path", path)) return;
+        Map<String, Set<String>> synonyms = synonymGraph.getPathSynonyms(path);
+        for (String word : path) {
+          WordDetails details =
+              new WordDetails(word, synonyms.get(word), graphService.getDefinition(word));
+          if (!send(emitter, open, "word", details)) return;
+        }
+      }
+      if (send(emitter, open, "done", path == null ? -1 : path.size() - 1)
+          && open.getAndSet(false)) {
+        emitter.complete();
+      }
+    } catch (CancellationException e) {
+      // the client has gone; there is nobody left to tell
+    } catch (RuntimeException e) {
+      log.warn("Streamed path search from '{}' to '{}' failed", word1, word2, e);
+      if (open.getAndSet(false)) emitter.completeWithError(e);
+    }
+  }
+
+  // false once the stream is closed, which makes the search give up
+  private static boolean send(SseEmitter emitter, AtomicBoolean open, String name, Object data) {
+    if (!open.get()) return false;
+    try {
+      emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+      return true;
+    } catch (IOException | IllegalStateException e) {
+      // the client disconnected, or the stream timed out and was completed meanwhile
+      return false;
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /** The number of words first reached at one distance from the start word. */
+  public static class LevelProgress {
+    private final int level;
+    private final int frontierSize;
+
+    public LevelProgress(int level, int frontierSize) {
+      this.level = level;
+      this.frontierSize = frontierSize;
+    }
+
+    public int getLevel() {
+      return level;
+    }
+
+    public int getFrontierSize() {
+      return frontierSize;
+    }
+  }
+
+  /** A word on the path with its synonyms and definition. */
+  public static class WordDetails {
+    private final String word;
+    private final Set<String> synonyms;
+    private final String definition;
+
+    public WordDetails(String word, Set<String> synonyms, String definition) {
+      this.word = word;
+      this.synonyms = synonyms;
+      this.definition = definition;
+    }
+
+    public String getWord() {
+      return word;
+    }
+
+    public Set<String> getSynonyms() {
+      return synonyms;
+    }
+
+    public String getDefinition() {
+      return definition;
+    }
+  }
+}
@@ -0,0 +1,208 @@
+package synonymnetwork.service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import synonymnetwork.domain.DeltaOverlay;
+import synonymnetwork.domain.DistancePairIndex;
+import synonymnetwork.domain.SynonymGraph;
+
+/**
+ * Service that hands out word pairs at an exact shortest-path distance, for puzzles of a chosen
+ * difficulty. Pairs come from a {@link DistancePairIndex} that a background thread keeps topped up
+ * by sampling BFS trees from random words, so a request only ever removes ready-made pairs and
+ * never runs a search itself. Pairs are sampled from the graph with its runtime changes, and the
+ * index holds vertex numbers of the graph it was sampled from; once the graph changes, by a runtime
+ * change or a compaction, the pairs may name removed words or lie at another distance, so the index
+ * is dropped and refilled from the new graph.
+ *
+ * <p>A level that the refiller samples {@value #MAX_FRUITLESS_SAMPLES} times in a row without
+ * adding a pair to is taken to be longer than the paths the graph has, and is left out of the
+ * refill until the index is replaced; requests for it are then told there are none.
+ */
+@Service
+public class PuzzlePairService {
+  // samples in a row that add nothing to the neediest level before it is given up on; some
+  // levels may be longer than any path in the graph
+  private static final int MAX_FRUITLESS_SAMPLES = 500;
+  private static final long IDLE_WAIT_MILLIS = 30_000;
+
+  @Autowired private GraphService graphService;
+
+  @Value("${synonym.pairs.enabled:true}")
+  private boolean enabled;
+
+  @Value("${synonym.pairs.max-level:8}")
+  private int maxLevel;
+
+  @Value("${synonym.pairs.capacity:256}")
+  private int capacity;
+
+  // Pairs taken from each level of one BFS tree, so pools mix many start words
+  @Value("${synonym.pairs.per-source:2}")
+  private int pairsPerSource;
+
+  private final Object refillSignal = new Object();
+  private volatile Pool pool;
+  private Thread refiller;
+
+  /** Starts filling the pair index in the background once the application is up. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void startRefilling() {
+    if (!enabled) {
+      return;
+    }
+    graphService.graphLoaded().thenAccept(this::startRefilling);
+  }
+
+  private synchronized void startRefilling(SynonymGraph synonymGraph) {
+    pool = newPool(synonymGraph);
+    refiller = new Thread(() -> refill(synonymGraph), "puzzle-pair-refill");
+    refiller.setDaemon(true);
+    refiller.start();
+  }
+
+  private void refill(SynonymGraph synonymGraph) {
+    Random random = new Random();
+    int lowWater = Math.max(1, capacity / 2);
+    int fruitless = 0;
+    while (!Thread.currentThread().isInterrupted()) {
+      if (pool.changes() != synonymGraph.getChangeCount()) {
+        pool = newPool(synonymGraph);
+        fruitless = 0;
+      }
+      Pool current = pool;
+      DistancePairIndex index = current.index();
+      int V = current.graph().V();
+      int level = V == 0 ? 0 : index.neediestLevel(lowWater, current.fruitlessLevels()::contains);
+      if (level == 0) {
+        synchronized (refillSignal) {
+          try {
+            refillSignal.wait(IDLE_WAIT_MILLIS);
+          } catch (InterruptedException e) {
+            return;
+          }
+        }
+        continue;
+      }
+      int before = index.size(level);
+      index.sampleFrom(current.graph(), random.nextInt(V), random, pairsPerSource);
+      fruitless = index.size(level) > before ? 0 : fruitless + 1;
+      if (fruitless >= MAX_FRUITLESS_SAMPLES) {
+        current.fruitlessLevels().add(level);
+        fruitless = 0;
+      }
+    }
+  }
+
+  private Pool newPool(SynonymGraph synonymGraph) {
+    // the count first: a graph newer than its count is only replaced once more than needed
+    long changes = synonymGraph.getChangeCount();
+    return new Pool(
+        changes,
+        synonymGraph.getCurrentGraph(),
+        new DistancePairIndex(maxLevel, capacity),
+        ConcurrentHashMap.newKeySet());
+  }
+
+  /** Returns the largest distance pairs can be requested at. */
+  public int getMaxLevel() {
+    return maxLevel;
+  }
+
+  /**
+   * Takes word pairs whose shortest path is exactly {@code level} synonym connections long.
+   *
+   * @param level the required distance between the words
+   * @param count the number of pairs wanted
+   * @return up to {@code count} pairs; fewer, or none, while the index is refilling
+   */
+  public List<WordPair> takePairs(int level, int count) {
+    Pool current = pool;
+    SynonymGraph synonymGraph = graphService.getSynonymGraph();
+    if (current == null
+        || synonymGraph == null
+        || level < 1
+        || level > current.index().maxLevel()) {
+      return List.of();
+    }
+    DistancePairIndex pairs = current.index();
+    DeltaOverlay graph = current.graph();
+    if (synonymGraph.getChangeCount() != current.changes()) {
+      // changed since these pairs were sampled; the refiller replaces them
+      synchronized (refillSignal) {
+        refillSignal.notifyAll();
+      }
+      return List.of();
+    }
+    List<WordPair> taken = new ArrayList<>();
+    for (int[] pair : pairs.take(level, count)) {
+      taken.add(new WordPair(graph.nameOf(pair[0]), graph.nameOf(pair[1]), level));
+    }
+    if (pairs.size(level) < pairs.capacity() / 2) {
+      synchronized (refillSignal) {
+        refillSignal.notifyAll();
+      }
+    }
+    return taken;
+  }
+
+  /**
+   * Tells whether pairs at {@code level} have run out for good: the refiller gave up on the level
+   * after finding none, and none are left over from sampling other levels.
+   *
+   * @param level the distance asked for
+   * @return true if asking again will not help until the graph changes
+   */
+  public boolean isExhausted(int level) {
+    Pool current = pool;
+    return current != null
+        && current.fruitlessLevels().contains(level)
+        && current.index().size(level) == 0;
+  }
+
+  @PreDestroy
+  public synchronized void shutdown() {
+    if (refiller != null) {
+      refiller.interrupt();
+    }
+  }
+
+  // pairs of vertex numbers together with the graph that numbered them and its change count, and
+  // the levels the refiller gave up on
+  private record Pool(
+      long changes, DeltaOverlay graph, DistancePairIndex index, Set<Integer> fruitlessLevels) {}
+
+  /** Two words a known number of synonym connections apart. */
+  public static class WordPair {
+    private final String startWord;
+    private final String endWord;
+    private final int level;
+
+    public WordPair(String startWord, String endWord, int level) {
+      this.startWord = startWord;
+      this.endWord = endWord;
+      this.level = level;
+    }
+
+    public String getStartWord() {
+      return startWord;
+    }
+
+    public String getEndWord() {
+      return endWord;
+    }
+
+    public int getLevel() {
+      return level;
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package synonymnetwork.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service that decides whether this instance should receive traffic. Liveness (/health) only says
+ * the process is up; readiness additionally requires the graph and the definitions to be loaded,
+ * warm-up to be over and the background index builds to have finished. The graph and definitions
+ * stages are also reported on their own, so endpoints can be served as soon as what they need is. A
+ * shard without peers loads none of these, only its partition, which is then its one stage.
+ */
+@Service
+public class ReadinessService {
+
+  @Autowired private GraphService graphService;
+  @Autowired private GraphUpdateService graphUpdateService;
+  @Autowired private WarmupService warmupService;
+  @Autowired private GraphAnalyticsService graphAnalyticsService;
+  @Autowired private ShardService shardService;
+
+  /**
+   * Reports the state of every startup stage.
+   *
+   * @return whether each stage is done, in startup order
+   */
+  public Map<String, Boolean> getStages() {
+    Map<String, Boolean> stages = new LinkedHashMap<>();
+    if (graphService.isShardOnly()) {
+      stages.put("partition", shardService.isPartitionOpen());
+      return stages;
+    }
+    stages.put("graph", isGraphReady());
+    stages.put("definitions", areDefinitionsReady());
+    stages.put("warmup", warmupService.isComplete());
+    stages.put("analytics", graphAnalyticsService.isSettled());
+    return stages;
+  }
+
+  /**
+   * Tells whether graph queries can be answered: the graph is loaded and the change log replayed.
+   *
+   * @return true once the graph stage is done
+   */
+  public boolean isGraphReady() {
+    return graphService.getSynonymGraph() != null && graphUpdateService.isReplayed();
+  }
+
+  /**
+   * Tells whether definition lookups can be answered.
+   *
+   * @return true once the definitions stage is done
+   */
+  public boolean areDefinitionsReady() {
+    return graphService.areDefinitionsLoaded();
+  }
+}
@@ -0,0 +1,162 @@
+package synonymnetwork.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import synonymnetwork.domain.BreadthFirstPathSearch;
+import synonymnetwork.domain.GraphPartition;
+import synonymnetwork.domain.ShardedPathSearch;
+import synonymnetwork.domain.SynonymGraph;
+
+/**
+ * Splits path searches across several instances of the application. An instance started with
+ * synonym.shard.count above 1 is a shard: it expands frontier batches for the vertices it owns on
+ * /api/shard/expand. An instance with synonym.shard.peers set is a coordinator: its shortest-path
+ * queries run as a {@link ShardedPathSearch} over those shards instead of the local adjacency. An
+ * instance can be both.
+ *
+ * <p>A shard without peers reads only the neighbour lists of its own vertices from the thesaurus
+ * and never builds the graph or loads the definitions (see GraphService), so it keeps only its
+ * share of the adjacency; the table numbering the words is dropped once the rows are read. It
+ * serves the shard endpoint alone, and numbers the vertices in file order, so the coordinator must
+ * use the FILE vertex order too. A shard that also coordinates loads the whole graph and copies its
+ * rows out.
+ *
+ * <p>Shards and coordinator must load the same thesaurus with the same vertex ordering; shards
+ * refuse batches from a coordinator whose numbering version differs. Runtime changes are not
+ * partitioned, so once the coordinator's graph has any its searches run locally again, as does any
+ * search a shard fails to answer or answers inconsistently. The coordinator keeps the whole graph
+ * for that.
+ *
+ * <p>The coordinator's key is subject to the per-key rate limit like any other, and each query
+ * costs one request per shard per level, about 11 for a 25,000-word thesaurus on two shards; give
+ * it a key without a limit or a limit sized for that.
+ */
+@Service
+public class ShardService {
+  private static final Logger log = LoggerFactory.getLogger(ShardService.class);
+
+  @Autowired private GraphService graphService;
+  @Autowired private MeterRegistry meterRegistry;
+
+  // Base URLs of the shards in shard order, comma separated; empty means searches stay local
+  @Value("${synonym.shard.peers:}")
+  private String peers;
+
+  // API key the coordinator presents to the shards
+  @Value("${synonym.shard.api-key:}")
+  private String apiKey;
+
+  @Value("${synonym.shard.timeout-ms:5000}")
+  private long timeoutMs;
+
+  private volatile GraphPartition partition;
+  private final LongAdder fallbacks = new LongAdder();
+
+  @PostConstruct
+  public void initialize() {
+    graphService.partitionLoaded().thenAccept(this::openPartition);
+    if (!peers.isBlank()) {
+      graphService.graphLoaded().thenAccept(this::coordinate);
+    }
+  }
+
+  private void openPartition(GraphPartition opened) {
+    partition = opened;
+    log.info(
+        "Serving shard {} of {} ({} KB of adjacency)",
+        opened.shard(),
+        opened.shards(),
+        opened.estimatedBytes() / 1024);
+  }
+
+  private void coordinate(SynonymGraph graph) {
+    List<String> urls =
+        Arrays.stream(peers.split(",")).map(String::trim).filter(url -> !url.isEmpty()).toList();
+    ShardedPathSearch search =
+        new ShardedPathSearch(
+            urls.size(),
+            new HttpShardTransport(
+                urls, apiKey, Duration.ofMillis(timeoutMs), graph::getNumberingVersion));
+    // runtime changes and compactions are not on the shards, so a changed graph searches locally
+    graph.setPathSearch(
+        (adjacency, s, t) -> {
+          if (graph.getChangeCount() != 0) {
+            return BreadthFirstPathSearch.shortestPath(adjacency, s, t);
+          }
+          try {
+            return search.shortestPath(adjacency, s, t);
+          } catch (CompletionException | IllegalStateException e) {
+            // the coordinator holds the whole graph, so a failed shard only costs the speed-up
+            fallbacks.increment();
+            log.warn("Sharded search failed, searching locally: {}", e.getMessage());
+            return BreadthFirstPathSearch.shortestPath(adjacency, s, t);
+          }
+        });
+    FunctionCounter.builder("synonym.shard.messages", search, ShardedPathSearch::messageCount)
+        .description("Frontier batches sent to shards")
+        .register(meterRegistry);
+    FunctionCounter.builder("synonym.shard.vertices.sent", search, ShardedPathSearch::verticesSent)
+        .description("Frontier vertices sent to shards")
+        .register(meterRegistry);
+    FunctionCounter.builder(
+            "synonym.shard.pairs.received", search, ShardedPathSearch::pairsReceived)
+        .description("Neighbour-parent pairs received from shards")
+        .register(meterRegistry);
+    FunctionCounter.builder("synonym.shard.fallbacks", fallbacks, LongAdder::sum)
+        .description("Sharded searches answered locally after a shard failed")
+        .register(meterRegistry);
+    log.info("Path searches run across {} shards: {}", urls.size(), urls);
+  }
+
+  /**
+   * Tells whether this shard's rows are loaded and batches can be expanded.
+   *
+   * @return true once the partition is open
+   */
+  public boolean isPartitionOpen() {
+    return partition != null;
+  }
+
+  /**
+   * Returns how many vertices this shard owns, the most a frontier batch can name.
+   *
+   * @return the number of owned vertices, or -1 while the partition is not ready
+   */
+  public int ownedVertices() {
+    GraphPartition current = partition;
+    return current == null ? -1 : current.owned();
+  }
+
+  /**
+   * Expands a frontier batch from a coordinator.
+   *
+   * @param frontier distinct vertices owned by this shard
+   * @param coordinatorVersion the coordinator's numbering version, or null if it sent none
+   * @return the neighbour-parent pairs, or null while the partition is not ready
+   * @throws IllegalArgumentException if the versions differ, or a vertex is owned by another shard
+   *     or appears twice
+   */
+  public int[] expand(int[] frontier, String coordinatorVersion) {
+    GraphPartition current = partition;
+    if (current == null) {
+      return null;
+    }
+    String version = current.numbering();
+    if (coordinatorVersion != null && version != null && !coordinatorVersion.equals(version)) {
+      throw new IllegalArgumentException(
+          "Coordinator numbering " + coordinatorVersion + " does not match shard " + version);
+    }
+    return current.expand(frontier);
+  }
+}
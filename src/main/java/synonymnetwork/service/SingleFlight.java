@@ -0,0 +1,78 @@
+package synonymnetwork.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent computations that share the same key. The first caller for a key (the
+ * leader) runs the computation; every caller that arrives while it is still running waits on the
+ * leader's future instead of starting its own. Once the computation finishes the key is released,
+ * so this never serves stale values and can sit in front of or behind any result cache.
+ *
+ * @param <K> the key type, which must implement equals and hashCode
+ * @param <V> the result type
+ */
+public class SingleFlight<K, V> {
+
+  private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private final LongAdder executions = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+
+  /**
+   * Runs {@code computation} for {@code key}, or joins the computation already running for it.
+   *
+   * @param key identifies the computation
+   * @param computation produces the value when this caller becomes the leader
+   * @return the value computed by the leader
+   */
+  public V execute(K key, Supplier<V> computation) {
+    CompletableFuture<V> mine = new CompletableFuture<>();
+    CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+    if (existing != null) {
+      coalesced.increment();
+      return await(existing);
+    }
+
+    executions.increment();
+    try {
+      V value = computation.get();
+      mine.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      mine.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, mine);
+    }
+  }
+
+  // rethrow the leader's failure unchanged so followers see the same exception type
+  private V await(CompletableFuture<V> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+      if (cause instanceof Error) throw (Error) cause;
+      throw e;
+    }
+  }
+
+  /** Number of computations actually run by a leader. */
+  public long executionCount() {
+    return executions.sum();
+  }
+
+  /** Number of callers that shared a leader's computation instead of running their own. */
+  public long coalescedCount() {
+    return coalesced.sum();
+  }
+
+  /** Number of keys currently being computed. */
+  public int inFlightCount() {
+    return inFlight.size();
+  }
+}
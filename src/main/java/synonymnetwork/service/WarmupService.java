@@ -0,0 +1,138 @@
+package synonymnetwork.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import synonymnetwork.domain.SymbolGraphMemoryEfficient;
+import synonymnetwork.domain.SynonymGraph;
+
+/**
+ * Service that warms the JIT and the lookup paths after startup by running a synthetic mix of the
+ * queries the API serves: shortest paths with their synonyms and definitions, random walks, prefix
+ * suggestions and did-you-mean lookups, each serialized to JSON as a response would be. The mix
+ * runs in rounds on a background thread until the mean round time stops improving, so the instance
+ * is reported ready (see {@link ReadinessService}) only once compiled code is serving the hot
+ * paths.
+ *
+ * <p>Queries go to the graph directly rather than through the request services, so warm-up does not
+ * show up in the path search metrics.
+ */
+@Service
+public class WarmupService {
+  private static final Logger log = LoggerFactory.getLogger(WarmupService.class);
+
+  @Autowired private GraphService graphService;
+  @Autowired private ObjectMapper objectMapper;
+
+  @Value("${synonym.warmup.enabled:true}")
+  private boolean enabled;
+
+  @Value("${synonym.warmup.queries-per-round:200}")
+  private int queriesPerRound;
+
+  // Warm-up ends once this many rounds in a row are within the tolerance of the round before
+  @Value("${synonym.warmup.stable-rounds:3}")
+  private int stableRounds;
+
+  @Value("${synonym.warmup.tolerance:0.1}")
+  private double tolerance;
+
+  // Upper bound on warm-up, whether or not timings have settled
+  @Value("${synonym.warmup.max-seconds:60}")
+  private long maxSeconds;
+
+  private volatile boolean complete;
+
+  /**
+   * Starts warming up in the background once the application has finished starting and every
+   * startup stage is done, since the query mix looks up definitions as well as paths.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUpInBackground() {
+    if (!enabled) {
+      complete = true;
+      return;
+    }
+    graphService
+        .loaded()
+        .whenComplete(
+            (ignored, failure) -> {
+              if (failure != null) {
+                complete = true;
+                return;
+              }
+              SynonymGraph synonymGraph = graphService.getSynonymGraph();
+              Thread thread = new Thread(() -> warmUp(synonymGraph), "warmup");
+              thread.setDaemon(true);
+              thread.start();
+            });
+  }
+
+  private void warmUp(SynonymGraph synonymGraph) {
+    long start = System.nanoTime();
+    long deadline = start + TimeUnit.SECONDS.toNanos(maxSeconds);
+    Random random = new Random(42);
+    double previous = Double.MAX_VALUE;
+    int stable = 0;
+    int rounds = 0;
+    try {
+      while (stable < stableRounds && System.nanoTime() < deadline) {
+        long roundStart = System.nanoTime();
+        for (int i = 0; i < queriesPerRound; i++) query(synonymGraph, random, i);
+        double mean = (System.nanoTime() - roundStart) / (double) queriesPerRound;
+        stable = mean >= previous * (1 - tolerance) ? stable + 1 : 0;
+        previous = Math.min(previous, mean);
+        rounds++;
+      }
+      log.info(
+          "Warm-up finished after {} rounds in {} ms, {} us per query",
+          rounds,
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+          Math.round(previous / 1000));
+    } catch (RuntimeException | JsonProcessingException e) {
+      log.warn("Warm-up stopped early", e);
+    } finally {
+      complete = true;
+    }
+  }
+
+  // one query of the mix, chosen round-robin so every round has the same proportions
+  private void query(SynonymGraph synonymGraph, Random random, int i)
+      throws JsonProcessingException {
+    SymbolGraphMemoryEfficient sg = synonymGraph.getSymbolGraph();
+    int V = sg.adjacency().V();
+    String word = sg.nameOf(random.nextInt(V));
+    Object result;
+    switch (i % 4) {
+      case 0, 1 -> {
+        List<String> path = synonymGraph.findPath(word, sg.nameOf(random.nextInt(V)));
+        result = path == null ? List.of() : synonymGraph.getPathSynonyms(path);
+        if (path != null) path.forEach(synonymGraph::findWordDefinition);
+      }
+      case 2 -> result = synonymGraph.generateWordAtDepth(word, 1 + random.nextInt(5));
+      default -> {
+        result = synonymGraph.suggestWords(word.substring(0, Math.min(3, word.length())), 10);
+        synonymGraph.findSimilarSpellings(word, 2, 5);
+      }
+    }
+    objectMapper.writeValueAsBytes(result);
+  }
+
+  /**
+   * Tells whether warm-up has finished, or was disabled.
+   *
+   * @return true once warm-up is no longer running
+   */
+  public boolean isComplete() {
+    return complete;
+  }
+}